@@ -0,0 +1,70 @@
+#!/bin/bash
+
+# Comparação de benchmarks JMH
+# Compara dois resultados gerados por "mvn -Pbenchmark verify -Djmh.rotulo=<rotulo>" (target/jmh-<rotulo>.json)
+# Uso: scripts/comparar-benchmarks.sh target/jmh-base.json target/jmh-atual.json [limite-regressao-%]
+# Sai com código 1 se algum benchmark piorar mais que o limite (padrão 10%)
+
+set -e
+
+if [ $# -lt 2 ]; then
+    echo "Uso: $0 <base.json> <atual.json> [limite-regressao-%]"
+    exit 2
+fi
+
+BASE="$1"
+ATUAL="$2"
+LIMITE="${3:-10}"
+
+for arquivo in "$BASE" "$ATUAL"; do
+    if [ ! -f "$arquivo" ]; then
+        echo "❌ Arquivo não encontrado: $arquivo"
+        exit 2
+    fi
+done
+
+python3 - "$BASE" "$ATUAL" "$LIMITE" <<'PYTHON'
+import json
+import sys
+
+base_arquivo, atual_arquivo, limite = sys.argv[1], sys.argv[2], float(sys.argv[3])
+
+
+def carregar(arquivo):
+    resultados = {}
+    for resultado in json.load(open(arquivo)):
+        nome = resultado["benchmark"].rsplit(".", 2)
+        params = ",".join(f"{k}={v}" for k, v in sorted(resultado.get("params", {}).items()))
+        chave = f"{nome[-2]}.{nome[-1]}" + (f" [{params}]" if params else "")
+        metrica = resultado["primaryMetric"]
+        resultados[chave] = (metrica["score"], metrica.get("scoreError") or 0.0, metrica["scoreUnit"])
+    return resultados
+
+
+base = carregar(base_arquivo)
+atual = carregar(atual_arquivo)
+regressoes = 0
+
+print(f"{'Benchmark':<70} {'Base':>14} {'Atual':>14} {'Delta':>9}")
+for chave in sorted(base.keys() | atual.keys()):
+    if chave not in base or chave not in atual:
+        print(f"{chave:<70} {'(só em ' + ('atual' if chave in atual else 'base') + ')':>39}")
+        continue
+    score_base, _, unidade = base[chave]
+    score_atual, erro_atual, _ = atual[chave]
+    # Modo AverageTime: maior é pior
+    delta = (score_atual - score_base) / score_base * 100 if score_base else 0.0
+    marca = ""
+    if delta > limite:
+        marca = "  ⚠️ regressão"
+        regressoes += 1
+    elif delta < -limite:
+        marca = "  ✅ melhora"
+    print(f"{chave:<70} {score_base:>10.2f} {unidade:<3} {score_atual:>10.2f} {unidade:<3} {delta:>+8.1f}%{marca}")
+
+print()
+if regressoes:
+    print(f"❌ {regressoes} benchmark(s) pioraram mais que {limite:g}%")
+    sys.exit(1)
+print(f"✅ Nenhuma regressão acima de {limite:g}%")
+PYTHON
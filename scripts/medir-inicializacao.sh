@@ -0,0 +1,59 @@
+#!/bin/bash
+
+# Medição do tempo até a aplicação ficar pronta, comparando imagens (ex.: a padrão e a de inicialização rápida)
+# Sobe cada imagem N vezes e lê o log "Aplicação pronta em X ms" (TempoInicializacao), que conta desde o início da JVM.
+# O ambiente (banco, SQS, Cognito, chave de IA) vem do arquivo de variáveis, como na task do ECS.
+# Uso: scripts/medir-inicializacao.sh <arquivo.env> <imagem> [imagem...]   (RODADAS=5 por padrão)
+# Ex.: docker build -t leitor:padrao . && docker build --target inicio-rapido -t leitor:rapido .
+#      scripts/medir-inicializacao.sh .env leitor:padrao leitor:rapido
+
+set -e
+
+if [ $# -lt 2 ]; then
+    echo "Uso: $0 <arquivo.env> <imagem> [imagem...]"
+    exit 2
+fi
+
+ARQUIVO_ENV="$1"
+shift
+RODADAS="${RODADAS:-5}"
+LIMITE_SEGUNDOS="${LIMITE_SEGUNDOS:-120}"
+
+if [ ! -f "$ARQUIVO_ENV" ]; then
+    echo "❌ Arquivo não encontrado: $ARQUIVO_ENV"
+    exit 2
+fi
+
+medir() {
+    local imagem="$1"
+    local container
+    container=$(docker run -d --env-file "$ARQUIVO_ENV" "$imagem")
+    local tempo=""
+    for _ in $(seq 1 "$LIMITE_SEGUNDOS"); do
+        tempo=$(docker logs "$container" 2>&1 | sed -n 's/.*pronta em \([0-9]*\) ms.*/\1/p' | head -1)
+        if [ -n "$tempo" ] || [ "$(docker inspect -f '{{.State.Running}}' "$container")" != "true" ]; then
+            break
+        fi
+        sleep 1
+    done
+    docker rm -f "$container" > /dev/null
+    echo "$tempo"
+}
+
+for imagem in "$@"; do
+    tempos=()
+    for rodada in $(seq 1 "$RODADAS"); do
+        tempo=$(medir "$imagem")
+        if [ -z "$tempo" ]; then
+            echo "❌ $imagem não ficou pronta na rodada $rodada (veja os logs com docker run --env-file $ARQUIVO_ENV $imagem)"
+            exit 1
+        fi
+        tempos+=("$tempo")
+    done
+    printf '%s\n' "${tempos[@]}" | sort -n | awk -v imagem="$imagem" '
+        { t[NR] = $1 }
+        END {
+            mediana = (NR % 2) ? t[(NR + 1) / 2] : (t[NR / 2] + t[NR / 2 + 1]) / 2
+            printf "%-40s mediana %6d ms   mín %6d ms   máx %6d ms   (%d rodadas)\n", imagem, mediana, t[1], t[NR], NR
+        }'
+done
@@ -0,0 +1,31 @@
+#!/bin/sh
+
+# Treino do CDS para o empacotamento de inicialização rápida (alvo inicio-rapido do Dockerfile)
+# Sobe o contexto do Spring (com o código AOT) até o refresh e sai, gravando em app.jsa as classes carregadas.
+# Roda na build da imagem, sem banco, SQS nem Cognito: as propriedades abaixo só deixam o contexto subir
+# (valores fictícios, sem validação do schema e sem acesso a metadados JDBC).
+# Os perfis precisam ser os mesmos usados no processamento AOT (SPRING_PROFILES_ACTIVE, padrão prod).
+# Uso: scripts/treinar-cds.sh [diretorio-com-app.jar-e-lib]
+
+set -e
+
+cd "${1:-.}"
+export SPRING_PROFILES_ACTIVE="${SPRING_PROFILES_ACTIVE:-prod}"
+
+java -XX:ArchiveClassesAtExit=app.jsa -Xlog:cds=off -Xlog:cds+dynamic=error \
+    -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh \
+    -DJWT_ISSUER_URI=https://treino.invalid \
+    -DJWT_JWK_SET_URI=https://treino.invalid/jwks \
+    -DSPRING_DATASOURCE_PASSWORD=treino \
+    -DAI_API_KEY=treino \
+    -Dspring.flyway.enabled=false \
+    -Dspring.jpa.hibernate.ddl-auto=none \
+    -Dspring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false \
+    -cp "app.jar:lib/*" br.com.financas.leitor_transacoes_ia.LeitorTransacoesIaApplication
+
+if [ ! -s app.jsa ]; then
+    echo "❌ Treino não gerou app.jsa"
+    exit 1
+fi
+echo "✅ Arquivo CDS gerado: $(du -h app.jsa | cut -f1)"
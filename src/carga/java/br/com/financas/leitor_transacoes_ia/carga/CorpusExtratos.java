@@ -0,0 +1,110 @@
+package br.com.financas.leitor_transacoes_ia.carga;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Corpus de extratos sintéticos (CSV e PDF) de tamanhos variados, gerado uma vez e reenviado em ciclo.
+ * Cada documento tem semente própria; reenvios do mesmo documento exercitam a deduplicação.
+ */
+public final class CorpusExtratos {
+
+    private static final int LINHAS_POR_PAGINA = 45;
+    private static final String[] LANCAMENTOS = {"COMPRA", "PAGAMENTO", "PIX ENVIADO", "PIX RECEBIDO", "TARIFA", "SAQUE"};
+    private static final String[] ESTABELECIMENTOS = {"SUPERMERCADO BOM PRECO", "POSTO SHELL AV BRASIL", "FARMACIA SAO JOAO",
+            "NETFLIX.COM", "CONTA DE LUZ ENEL", "RESTAURANTE SABOR CASEIRO", "UBER *TRIP", "LIVRARIA CULTURA"};
+
+    public record Documento(String nome, String contentType, byte[] conteudo, int transacoes) {
+    }
+
+    private final List<Documento> documentos;
+
+    /**
+     * @param quantidade           Documentos distintos no corpus
+     * @param tamanhos             Transações por documento, sorteadas entre estes valores
+     * @param fracaoPdf            Fração dos documentos gerados em PDF (o resto é CSV)
+     */
+    public CorpusExtratos(int quantidade, List<Integer> tamanhos, double fracaoPdf) {
+        Random random = new Random(42);
+        documentos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            int transacoes = tamanhos.get(random.nextInt(tamanhos.size()));
+            List<String[]> linhas = linhas(new Random(1000L + i), transacoes);
+            documentos.add(random.nextDouble() < fracaoPdf
+                    ? new Documento("extrato-" + i + ".pdf", "application/pdf", pdf(linhas), transacoes)
+                    : new Documento("extrato-" + i + ".csv", "text/csv", csv(linhas), transacoes));
+        }
+    }
+
+    public Documento get(long indice) {
+        return documentos.get((int) (indice % documentos.size()));
+    }
+
+    public int tamanho() {
+        return documentos.size();
+    }
+
+    private static List<String[]> linhas(Random random, int quantidade) {
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        List<String[]> linhas = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            linhas.add(new String[]{
+                    inicio.plusDays(random.nextInt(365)).toString(),
+                    LANCAMENTOS[random.nextInt(LANCAMENTOS.length)],
+                    ESTABELECIMENTOS[random.nextInt(ESTABELECIMENTOS.length)],
+                    random.nextBoolean() ? String.valueOf(100000 + random.nextInt(900000)) : "",
+                    BigDecimal.valueOf(random.nextInt(500000) + 1, 2).toPlainString()
+            });
+        }
+        return linhas;
+    }
+
+    private static byte[] csv(List<String[]> linhas) {
+        StringBuilder csv = new StringBuilder("data,lancamento,detalhes,documento,valor\n");
+        for (String[] linha : linhas) {
+            csv.append(linha[0]).append(',').append(linha[1]).append(",\"").append(linha[2]).append("\",")
+                    .append(linha[3]).append(',').append(linha[4]).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] pdf(List<String[]> linhas) {
+        try (PDDocument documento = new PDDocument(); ByteArrayOutputStream saida = new ByteArrayOutputStream()) {
+            for (int inicio = 0; inicio < Math.max(1, linhas.size()); inicio += LINHAS_POR_PAGINA) {
+                PDPage pagina = new PDPage(PDRectangle.A4);
+                documento.addPage(pagina);
+                try (PDPageContentStream conteudo = new PDPageContentStream(documento, pagina)) {
+                    conteudo.beginText();
+                    conteudo.setFont(PDType1Font.HELVETICA, 9);
+                    conteudo.setLeading(16);
+                    conteudo.newLineAtOffset(40, 800);
+                    conteudo.showText("EXTRATO DE CONTA CORRENTE - BANCO EXEMPLO");
+                    conteudo.newLine();
+                    for (String[] linha : linhas.subList(inicio, Math.min(linhas.size(), inicio + LINHAS_POR_PAGINA))) {
+                        conteudo.showText(String.join(" | ", linha[0], linha[1], linha[2],
+                                linha[3].isEmpty() ? "-" : linha[3], linha[4]));
+                        conteudo.newLine();
+                    }
+                    conteudo.endText();
+                }
+            }
+            documento.save(saida);
+            return saida.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package br.com.financas.leitor_transacoes_ia.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga em modelo aberto: dispara uploads em /processar na taxa alvo, sem esperar as respostas
+ * anteriores. A latência conta a partir do instante agendado, então atrasos do próprio gerador
+ * não escondem a fila do servidor (coordinated omission).
+ */
+@Slf4j
+public class GeradorCarga {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper;
+    private final URI destino;
+    private final CorpusExtratos corpus;
+    private final String banco;
+    private final Duration timeoutRequisicao;
+
+    /**
+     * @param latenciasMs      Latência de cada upload respondido com 200
+     * @param porStatus        Respostas por status HTTP ("falha" para erros de conexão/timeout do cliente)
+     * @param processamentoIds Processamentos criados, para acompanhar o consumidor
+     */
+    public record Resultado(long enviadas,
+                            long duracaoNanos,
+                            List<Long> latenciasMs,
+                            Map<String, Long> porStatus,
+                            List<String> processamentoIds,
+                            long transacoesEnviadas) {
+    }
+
+    public GeradorCarga(ObjectMapper objectMapper, URI destino, CorpusExtratos corpus, String banco, Duration timeoutRequisicao) {
+        this.objectMapper = objectMapper;
+        this.destino = destino;
+        this.corpus = corpus;
+        this.banco = banco;
+        this.timeoutRequisicao = timeoutRequisicao;
+    }
+
+    public Resultado executar(double taxaPorSegundo, Duration duracao) {
+        long total = Math.max(1, Math.round(taxaPorSegundo * duracao.toMillis() / 1000.0));
+        long intervaloNanos = (long) (1_000_000_000L / taxaPorSegundo);
+        log.info("Carga: {} uploads a {}/s por {}s em {}", total, taxaPorSegundo, duracao.toSeconds(), destino);
+
+        Queue<Long> latencias = new ConcurrentLinkedQueue<>();
+        Queue<String> processamentoIds = new ConcurrentLinkedQueue<>();
+        Map<String, AtomicLong> porStatus = new ConcurrentHashMap<>();
+        AtomicLong transacoesEnviadas = new AtomicLong();
+        List<CompletableFuture<Void>> emVoo = new ArrayList<>((int) Math.min(total, Integer.MAX_VALUE));
+
+        long inicio = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long agendado = inicio + i * intervaloNanos;
+            long espera = agendado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            CorpusExtratos.Documento documento = corpus.get(i);
+            transacoesEnviadas.addAndGet(documento.transacoes());
+            emVoo.add(httpClient.sendAsync(requisicao(documento), HttpResponse.BodyHandlers.ofString())
+                    .handle((resposta, erro) -> {
+                        String status = erro != null ? "falha" : String.valueOf(resposta.statusCode());
+                        porStatus.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+                        if (erro == null && resposta.statusCode() == 200) {
+                            latencias.add((System.nanoTime() - agendado) / 1_000_000);
+                            processamentoId(resposta.body(), processamentoIds);
+                        } else if (erro != null) {
+                            log.debug("Upload falhou: {}", erro.getMessage());
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(emVoo.toArray(CompletableFuture[]::new)).join();
+        long duracaoNanos = System.nanoTime() - inicio;
+
+        Map<String, Long> status = new TreeMap<>();
+        porStatus.forEach((chave, valor) -> status.put(chave, valor.get()));
+        return new Resultado(total, duracaoNanos, new ArrayList<>(latencias), status,
+                new ArrayList<>(processamentoIds), transacoesEnviadas.get());
+    }
+
+    private void processamentoId(String corpo, Queue<String> processamentoIds) {
+        try {
+            JsonNode resposta = objectMapper.readTree(corpo);
+            if (resposta.hasNonNull("processamentoId")) {
+                processamentoIds.add(resposta.get("processamentoId").asText());
+            }
+        } catch (Exception e) {
+            log.debug("Resposta sem processamentoId: {}", e.getMessage());
+        }
+    }
+
+    private HttpRequest requisicao(CorpusExtratos.Documento documento) {
+        String fronteira = "carga-" + UUID.randomUUID();
+        ByteArrayOutputStream corpo = new ByteArrayOutputStream(documento.conteudo().length + 1024);
+        campo(corpo, fronteira, "banco", banco);
+        campo(corpo, fronteira, "moeda", "BRL");
+        campo(corpo, fronteira, "tipo", "EXTRATO");
+        escrever(corpo, "--" + fronteira + "\r\nContent-Disposition: form-data; name=\"arquivo\"; filename=\""
+                + documento.nome() + "\"\r\nContent-Type: " + documento.contentType() + "\r\n\r\n");
+        corpo.writeBytes(documento.conteudo());
+        escrever(corpo, "\r\n--" + fronteira + "--\r\n");
+
+        return HttpRequest.newBuilder(destino)
+                .timeout(timeoutRequisicao)
+                .header("Content-Type", "multipart/form-data; boundary=" + fronteira)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(corpo.toByteArray()))
+                .build();
+    }
+
+    private static void campo(ByteArrayOutputStream corpo, String fronteira, String nome, String valor) {
+        escrever(corpo, "--" + fronteira + "\r\nContent-Disposition: form-data; name=\"" + nome + "\"\r\n\r\n" + valor + "\r\n");
+    }
+
+    private static void escrever(ByteArrayOutputStream corpo, String texto) {
+        corpo.writeBytes(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
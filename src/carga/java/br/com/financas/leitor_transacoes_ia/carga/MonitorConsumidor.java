@@ -0,0 +1,118 @@
+package br.com.financas.leitor_transacoes_ia.carga;
+
+import br.com.financas.leitor_transacoes_ia.model.entity.Processamento;
+import br.com.financas.leitor_transacoes_ia.model.entity.Processamento.StatusProcessamento;
+import br.com.financas.leitor_transacoes_ia.repository.ProcessamentoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Atraso do consumidor: profundidade da fila amostrada a cada segundo (fila.local.tamanho, ou
+ * outbox.mensagens.pendentes no modo sqs) e, por documento, o tempo entre a publicação e a última parte gravada
+ */
+@Slf4j
+public class MonitorConsumidor implements AutoCloseable {
+
+    private static final List<StatusProcessamento> EM_ANDAMENTO =
+            List.of(StatusProcessamento.PENDENTE, StatusProcessamento.PROCESSANDO);
+
+    private final MeterRegistry meterRegistry;
+    private final ProcessamentoRepository processamentoRepository;
+    private final List<Double> profundidades = new ArrayList<>();
+    private final ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "carga-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MonitorConsumidor(MeterRegistry meterRegistry, ProcessamentoRepository processamentoRepository) {
+        this.meterRegistry = meterRegistry;
+        this.processamentoRepository = processamentoRepository;
+    }
+
+    public void iniciar() {
+        agendador.scheduleAtFixedRate(() -> {
+            synchronized (profundidades) {
+                profundidades.add(profundidadeFila());
+            }
+        }, 0, 1, TimeUnit.SECONDS);
+    }
+
+    public List<Double> profundidades() {
+        synchronized (profundidades) {
+            return new ArrayList<>(profundidades);
+        }
+    }
+
+    /**
+     * Espera o consumidor terminar os processamentos criados pela carga (ou o tempo acabar)
+     *
+     * @return Quantos ainda estavam em andamento ao fim da espera
+     */
+    public int aguardarDrenagem(List<String> processamentoIds, Duration esperaMaxima) throws InterruptedException {
+        Set<String> ids = new HashSet<>(processamentoIds);
+        long limite = System.nanoTime() + esperaMaxima.toNanos();
+        int pendentes;
+        do {
+            pendentes = (int) processamentoRepository.findByStatusIn(EM_ANDAMENTO).stream()
+                    .filter(processamento -> ids.contains(processamento.getProcessamentoId()))
+                    .count();
+            if (pendentes == 0) {
+                return 0;
+            }
+            log.info("Aguardando o consumidor: {} processamentos em andamento", pendentes);
+            Thread.sleep(1000);
+        } while (System.nanoTime() < limite);
+        return pendentes;
+    }
+
+    /**
+     * Atraso de cada documento concluído: do início do processamento (publicação) ao fim do consumo
+     */
+    public List<Long> atrasosMs(List<String> processamentoIds) {
+        List<Long> atrasos = new ArrayList<>(processamentoIds.size());
+        for (String id : processamentoIds) {
+            processamentoRepository.findByProcessamentoId(id)
+                    .filter(processamento -> processamento.getStatus() == StatusProcessamento.CONCLUIDO)
+                    .filter(processamento -> processamento.getDataInicio() != null && processamento.getDataFim() != null)
+                    .ifPresent(processamento -> atrasos.add(
+                            Duration.between(processamento.getDataInicio(), processamento.getDataFim()).toMillis()));
+        }
+        return atrasos;
+    }
+
+    public Map<String, Long> porStatus(List<String> processamentoIds) {
+        Map<String, Long> porStatus = new TreeMap<>();
+        for (String id : processamentoIds) {
+            String status = processamentoRepository.findByProcessamentoId(id)
+                    .map(Processamento::getStatus)
+                    .map(Enum::name)
+                    .orElse("AUSENTE");
+            porStatus.merge(status, 1L, Long::sum);
+        }
+        return porStatus;
+    }
+
+    private double profundidadeFila() {
+        double local = meterRegistry.find("fila.local.tamanho").gauges().stream().mapToDouble(Gauge::value).sum();
+        double outbox = meterRegistry.find("outbox.mensagens.pendentes").gauges().stream().mapToDouble(Gauge::value).sum();
+        return local + outbox;
+    }
+
+    @Override
+    public void close() {
+        agendador.shutdownNow();
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.financas.leitor_transacoes_ia.carga;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Comportamento do stub dos providers: latência (fixa + jitter + geração dos tokens de saída) e perfil de erros
+ *
+ * @param latenciaBaseMs       Tempo até o primeiro token
+ * @param jitterMs             Variação uniforme somada à latência base
+ * @param tokensSaidaPorSegundo Velocidade de geração; respostas maiores demoram proporcionalmente mais
+ * @param taxaErro429          Fração das chamadas respondidas com 429 (rate limit do provider)
+ * @param taxaErro500          Fração das chamadas respondidas com 500
+ * @param taxaTimeout          Fração das chamadas que só respondem depois de atrasoTimeoutMs
+ * @param atrasoTimeoutMs      Atraso das chamadas sorteadas para timeout (acima de ai.timeout)
+ */
+public record PerfilStubLLM(long latenciaBaseMs,
+                            long jitterMs,
+                            double tokensSaidaPorSegundo,
+                            double taxaErro429,
+                            double taxaErro500,
+                            double taxaTimeout,
+                            long atrasoTimeoutMs) {
+
+    public static PerfilStubLLM padrao() {
+        return new PerfilStubLLM(800, 400, 1000, 0, 0, 0, 31000);
+    }
+
+    public static PerfilStubLLM de(Environment environment) {
+        PerfilStubLLM padrao = padrao();
+        return new PerfilStubLLM(
+                environment.getProperty("carga.stub.latencia-base-ms", Long.class, padrao.latenciaBaseMs()),
+                environment.getProperty("carga.stub.jitter-ms", Long.class, padrao.jitterMs()),
+                environment.getProperty("carga.stub.tokens-saida-por-segundo", Double.class, padrao.tokensSaidaPorSegundo()),
+                environment.getProperty("carga.stub.taxa-erro-429", Double.class, padrao.taxaErro429()),
+                environment.getProperty("carga.stub.taxa-erro-500", Double.class, padrao.taxaErro500()),
+                environment.getProperty("carga.stub.taxa-timeout", Double.class, padrao.taxaTimeout()),
+                environment.getProperty("carga.stub.atraso-timeout-ms", Long.class,
+                        environment.getProperty("ai.timeout", Long.class, 30000L) + 1000));
+    }
+}
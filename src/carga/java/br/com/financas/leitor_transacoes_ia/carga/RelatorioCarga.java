@@ -0,0 +1,124 @@
+package br.com.financas.leitor_transacoes_ia.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relatório do teste de carga: vazão, latência dos uploads, percentis por etapa do pipeline (timer pipeline.etapa)
+ * e atraso do consumidor. Impresso no log e gravado em JSON para comparar execuções.
+ */
+@Slf4j
+public class RelatorioCarga {
+
+    private static final double[] PERCENTIS = {0.5, 0.9, 0.99};
+
+    private final Map<String, Object> relatorio = new LinkedHashMap<>();
+
+    public RelatorioCarga(String rotulo, double taxaAlvo, GeradorCarga.Resultado resultado, MeterRegistry meterRegistry,
+                          MonitorConsumidor monitor, int pendentesAoFim, Map<String, Long> respostasStub) {
+        double segundos = resultado.duracaoNanos() / 1e9;
+        long sucesso = resultado.latenciasMs().size();
+
+        relatorio.put("rotulo", rotulo);
+        Map<String, Object> uploads = new LinkedHashMap<>();
+        uploads.put("taxaAlvoPorSegundo", taxaAlvo);
+        uploads.put("enviados", resultado.enviadas());
+        uploads.put("porStatus", resultado.porStatus());
+        uploads.put("duracaoSegundos", arredondar(segundos));
+        uploads.put("vazaoPorSegundo", arredondar(sucesso / segundos));
+        uploads.put("transacoesPorSegundo", arredondar(resultado.transacoesEnviadas() * ((double) sucesso / resultado.enviadas()) / segundos));
+        uploads.put("latenciaMs", percentis(resultado.latenciasMs()));
+        relatorio.put("uploads", uploads);
+
+        relatorio.put("etapas", etapas(meterRegistry));
+
+        Map<String, Object> consumidor = new LinkedHashMap<>();
+        List<Double> profundidades = monitor.profundidades();
+        consumidor.put("profundidadeFilaMaxima", profundidades.stream().mapToDouble(Double::doubleValue).max().orElse(0));
+        consumidor.put("profundidadeFilaMedia", arredondar(profundidades.stream().mapToDouble(Double::doubleValue).average().orElse(0)));
+        consumidor.put("processamentosPorStatus", monitor.porStatus(resultado.processamentoIds()));
+        consumidor.put("pendentesAoFim", pendentesAoFim);
+        consumidor.put("atrasoPublicacaoAteConclusaoMs", percentis(monitor.atrasosMs(resultado.processamentoIds())));
+        relatorio.put("consumidor", consumidor);
+
+        relatorio.put("stubRespostasPorStatus", respostasStub);
+    }
+
+    public void imprimir() {
+        StringBuilder texto = new StringBuilder("\n===== Teste de carga: ").append(relatorio.get("rotulo")).append(" =====\n");
+        relatorio.forEach((secao, valor) -> {
+            if (!"rotulo".equals(secao)) {
+                texto.append(secao).append(": ").append(valor).append('\n');
+            }
+        });
+        log.info(texto.toString());
+    }
+
+    public void gravar(ObjectMapper objectMapper, Path arquivo) throws IOException {
+        if (arquivo.getParent() != null) {
+            Files.createDirectories(arquivo.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(arquivo.toFile(), relatorio);
+        log.info("Relatório gravado em {}", arquivo.toAbsolutePath());
+    }
+
+    /**
+     * Um item por etapa e resultado; os percentis vêm do próprio timer (management.metrics.distribution.percentiles
+     * no perfil carga), que enxerga todas as chamadas, inclusive as feitas no consumidor
+     */
+    private static List<Map<String, Object>> etapas(MeterRegistry meterRegistry) {
+        List<Map<String, Object>> etapas = new ArrayList<>();
+        List<Timer> timers = new ArrayList<>(meterRegistry.find("pipeline.etapa").timers());
+        timers.sort(Comparator.comparing((Timer timer) -> timer.getId().getTag("etapa"))
+                .thenComparing(timer -> String.valueOf(timer.getId().getTag("resultado"))));
+        for (Timer timer : timers) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            Map<String, Object> etapa = new LinkedHashMap<>();
+            etapa.put("etapa", timer.getId().getTag("etapa"));
+            etapa.put("resultado", timer.getId().getTag("resultado"));
+            etapa.put("quantidade", snapshot.count());
+            etapa.put("mediaMs", arredondar(snapshot.mean(TimeUnit.MILLISECONDS)));
+            for (ValueAtPercentile percentil : snapshot.percentileValues()) {
+                etapa.put("p" + Math.round(percentil.percentile() * 100) + "Ms", arredondar(percentil.value(TimeUnit.MILLISECONDS)));
+            }
+            etapa.put("maximoMs", arredondar(snapshot.max(TimeUnit.MILLISECONDS)));
+            etapas.add(etapa);
+        }
+        return etapas;
+    }
+
+    private static Map<String, Object> percentis(List<Long> valores) {
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        List<Long> ordenados = new ArrayList<>(valores);
+        ordenados.sort(null);
+        resumo.put("quantidade", ordenados.size());
+        if (ordenados.isEmpty()) {
+            return resumo;
+        }
+        resumo.put("media", arredondar(ordenados.stream().mapToLong(Long::longValue).average().orElse(0)));
+        for (double percentil : PERCENTIS) {
+            int posicao = (int) Math.ceil(percentil * ordenados.size()) - 1;
+            resumo.put("p" + Math.round(percentil * 100), ordenados.get(Math.max(0, posicao)));
+        }
+        resumo.put("maximo", ordenados.get(ordenados.size() - 1));
+        return resumo;
+    }
+
+    private static double arredondar(double valor) {
+        return Math.round(valor * 100) / 100.0;
+    }
+}
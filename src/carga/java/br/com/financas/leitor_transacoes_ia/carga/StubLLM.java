@@ -0,0 +1,230 @@
+package br.com.financas.leitor_transacoes_ia.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Servidor HTTP local que imita as APIs do Gemini (generateContent), da Anthropic (/messages) e da OpenAI
+ * (/chat/completions): devolve as transações encontradas no texto do prompt, com "usage" no formato de cada
+ * provider, depois da latência e com os erros do {@link PerfilStubLLM}.
+ * Os clientes apontam para ele com ai.base-url.
+ */
+@Slf4j
+public class StubLLM implements AutoCloseable {
+
+    // Linhas do corpus como chegam no prompt: "data | lancamento | detalhes | documento | valor" (CSV e PDF)
+    private static final Pattern LINHA_TRANSACAO = Pattern.compile("^(\\d{4}-\\d{2}-\\d{2})(?:\\s*\\|\\s*|\\s{2,})(.+)$");
+    private static final Pattern SEPARADOR = Pattern.compile("\\s*\\|\\s*|\\s{2,}");
+    private static final String[] CATEGORIAS = {"ALIMENTACAO", "TRANSPORTE", "SAUDE", "LAZER", "MORADIA", "EDUCACAO", "OUTROS"};
+
+    enum Provider {GEMINI, CLAUDE, OPENAI}
+
+    private final HttpServer servidor;
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "stub-llm");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ObjectMapper objectMapper;
+    private volatile PerfilStubLLM perfil;
+    private final Map<String, AtomicLong> respostasPorStatus = new ConcurrentHashMap<>();
+
+    public StubLLM(ObjectMapper objectMapper, PerfilStubLLM perfil) throws IOException {
+        this.objectMapper = objectMapper;
+        this.perfil = perfil;
+        this.servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/", this::atender);
+        servidor.setExecutor(executor);
+        servidor.start();
+        log.info("Stub LLM ouvindo em {}", baseUrl());
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + servidor.getAddress().getPort();
+    }
+
+    /**
+     * Troca o perfil em execução (o stub sobe antes da aplicação, que só depois expõe a configuração da carga)
+     */
+    public void configurar(PerfilStubLLM perfil) {
+        this.perfil = perfil;
+        log.info("Perfil do stub LLM: {}", perfil);
+    }
+
+    /**
+     * Respostas enviadas por status HTTP
+     */
+    public Map<String, Long> respostasPorStatus() {
+        Map<String, Long> copia = new TreeMap<>();
+        respostasPorStatus.forEach((status, total) -> copia.put(status, total.get()));
+        return copia;
+    }
+
+    private void atender(HttpExchange troca) throws IOException {
+        try {
+            String caminho = troca.getRequestURI().getPath();
+            Provider provider = caminho.endsWith("/chat/completions") ? Provider.OPENAI
+                    : caminho.endsWith("/messages") ? Provider.CLAUDE
+                    : caminho.contains(":generateContent") ? Provider.GEMINI
+                    : null;
+            if (provider == null) {
+                responder(troca, 404, "{\"error\":\"rota não simulada: " + caminho + "\"}");
+                return;
+            }
+
+            JsonNode requisicao = objectMapper.readTree(troca.getRequestBody());
+            String prompt = switch (provider) {
+                case GEMINI -> requisicao.path("contents").path(0).path("parts").path(0).path("text").asText();
+                case CLAUDE, OPENAI -> requisicao.path("messages").path(0).path("content").asText();
+            };
+
+            PerfilStubLLM atual = perfil;
+            double sorteio = ThreadLocalRandom.current().nextDouble();
+            if (sorteio < atual.taxaTimeout()) {
+                dormir(atual.atrasoTimeoutMs());
+                responder(troca, 504, erro(provider, "timeout simulado"));
+                return;
+            }
+            sorteio -= atual.taxaTimeout();
+            if (sorteio < atual.taxaErro429()) {
+                dormir(atual.latenciaBaseMs() / 10);
+                troca.getResponseHeaders().add("Retry-After", "1");
+                responder(troca, 429, erro(provider, "rate limit simulado"));
+                return;
+            }
+            sorteio -= atual.taxaErro429();
+            if (sorteio < atual.taxaErro500()) {
+                dormir(atual.latenciaBaseMs());
+                responder(troca, 500, erro(provider, "erro interno simulado"));
+                return;
+            }
+
+            String conteudo = conteudoResposta(prompt);
+            long tokensEntrada = Math.max(1, prompt.length() / 4);
+            long tokensSaida = Math.max(1, conteudo.length() / 4);
+            long jitter = atual.jitterMs() > 0 ? ThreadLocalRandom.current().nextLong(atual.jitterMs() + 1) : 0;
+            long geracao = atual.tokensSaidaPorSegundo() > 0 ? (long) (tokensSaida * 1000 / atual.tokensSaidaPorSegundo()) : 0;
+            dormir(atual.latenciaBaseMs() + jitter + geracao);
+            responder(troca, 200, envelope(provider, conteudo, tokensEntrada, tokensSaida));
+        } catch (Exception e) {
+            log.warn("Erro no stub LLM: {}", e.getMessage());
+            responder(troca, 500, "{\"error\":\"" + e.getClass().getSimpleName() + "\"}");
+        } finally {
+            troca.close();
+        }
+    }
+
+    /**
+     * JSON de transações no formato pedido pelo prompt, uma por linha do documento
+     */
+    private String conteudoResposta(String prompt) {
+        int inicioDocumento = prompt.indexOf("TEXTO DO DOCUMENTO:");
+        String documento = inicioDocumento >= 0 ? prompt.substring(inicioDocumento) : prompt;
+
+        ObjectNode resposta = objectMapper.createObjectNode();
+        ArrayNode transacoes = resposta.putArray("transacoes");
+        for (String linha : documento.split("\n")) {
+            Matcher matcher = LINHA_TRANSACAO.matcher(linha.trim());
+            if (!matcher.matches()) {
+                continue;
+            }
+            String[] campos = SEPARADOR.split(matcher.group(2).trim());
+            if (campos.length < 2) {
+                continue;
+            }
+            String valor = campos[campos.length - 1].replace(",", ".");
+            String documentoTransacao = campos.length > 3 ? campos[2].replace("-", "") : "";
+            ObjectNode transacao = transacoes.addObject();
+            transacao.put("data", matcher.group(1));
+            transacao.put("lancamento", campos[0]);
+            transacao.put("detalhes", campos.length > 2 ? campos[1] : campos[0]);
+            transacao.put("numeroDocumento", documentoTransacao);
+            transacao.put("valor", valor.matches("-?\\d+(\\.\\d+)?") ? valor : "0");
+            transacao.put("tipoLancamento", linha.contains("RECEBIDO") ? "CREDITO" : "DEBITO");
+            transacao.put("categoria", CATEGORIAS[Math.floorMod(campos[1].hashCode(), CATEGORIAS.length)]);
+        }
+        resposta.put("totalTransacoes", transacoes.size());
+        return "```json\n" + resposta + "\n```";
+    }
+
+    private String envelope(Provider provider, String conteudo, long tokensEntrada, long tokensSaida) throws IOException {
+        ObjectNode envelope = objectMapper.createObjectNode();
+        switch (provider) {
+            case OPENAI -> {
+                envelope.put("id", "chatcmpl-stub").put("object", "chat.completion");
+                ObjectNode escolha = envelope.putArray("choices").addObject();
+                escolha.put("index", 0).put("finish_reason", "stop");
+                escolha.putObject("message").put("role", "assistant").put("content", conteudo);
+                ObjectNode uso = envelope.putObject("usage");
+                uso.put("prompt_tokens", tokensEntrada).put("completion_tokens", tokensSaida)
+                        .put("total_tokens", tokensEntrada + tokensSaida);
+                uso.putObject("prompt_tokens_details").put("cached_tokens", 0);
+            }
+            case CLAUDE -> {
+                envelope.put("id", "msg_stub").put("type", "message").put("role", "assistant").put("stop_reason", "end_turn");
+                envelope.putArray("content").addObject().put("type", "text").put("text", conteudo);
+                envelope.putObject("usage").put("input_tokens", tokensEntrada).put("output_tokens", tokensSaida)
+                        .put("cache_read_input_tokens", 0).put("cache_creation_input_tokens", 0);
+            }
+            case GEMINI -> {
+                ObjectNode candidato = envelope.putArray("candidates").addObject();
+                ObjectNode conteudoCandidato = candidato.putObject("content");
+                conteudoCandidato.put("role", "model");
+                conteudoCandidato.putArray("parts").addObject().put("text", conteudo);
+                candidato.put("finishReason", "STOP");
+                envelope.putObject("usageMetadata").put("promptTokenCount", tokensEntrada)
+                        .put("candidatesTokenCount", tokensSaida).put("totalTokenCount", tokensEntrada + tokensSaida);
+            }
+        }
+        return objectMapper.writeValueAsString(envelope);
+    }
+
+    private String erro(Provider provider, String mensagem) {
+        return provider == Provider.CLAUDE
+                ? "{\"type\":\"error\",\"error\":{\"type\":\"api_error\",\"message\":\"" + mensagem + "\"}}"
+                : "{\"error\":{\"message\":\"" + mensagem + "\"}}";
+    }
+
+    private void responder(HttpExchange troca, int status, String corpo) throws IOException {
+        byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", "application/json");
+        troca.sendResponseHeaders(status, bytes.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(bytes);
+        }
+        respostasPorStatus.computeIfAbsent(String.valueOf(status), s -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(Math.max(0, ms));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.financas.leitor_transacoes_ia.carga;
+
+import br.com.financas.leitor_transacoes_ia.LeitorTransacoesIaApplication;
+import br.com.financas.leitor_transacoes_ia.repository.ProcessamentoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Teste de carga ponta a ponta sem chaves de IA nem AWS: sobe o stub dos providers, a aplicação no perfil
+ * "carga" (H2 em memória, fila local) apontando para ele, dispara uploads na taxa configurada e, depois que o
+ * consumidor drena a fila, gera o relatório.
+ * mvn -Pcarga verify -Dcarga.argumentos="-Dcarga.taxa-por-segundo=5 -Dcarga.duracao-segundos=120"
+ * (parâmetros em carga.* de application-carga.yml)
+ */
+@Slf4j
+public final class TesteCarga {
+
+    private TesteCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Sem reinício do devtools: o contexto precisa ficar neste classloader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        try (StubLLM stub = new StubLLM(objectMapper, PerfilStubLLM.padrao())) {
+            String[] argumentos = Arrays.copyOf(args, args.length + 1);
+            argumentos[args.length] = "--ai.base-url=" + stub.baseUrl();
+            SpringApplication aplicacao = new SpringApplication(LeitorTransacoesIaApplication.class);
+            aplicacao.setAdditionalProfiles("dev", "carga");
+
+            try (ConfigurableApplicationContext contexto = aplicacao.run(argumentos);
+                 MonitorConsumidor monitor = new MonitorConsumidor(contexto.getBean(MeterRegistry.class),
+                         contexto.getBean(ProcessamentoRepository.class))) {
+                Environment environment = contexto.getEnvironment();
+                stub.configurar(PerfilStubLLM.de(environment));
+
+                CorpusExtratos corpus = new CorpusExtratos(
+                        environment.getProperty("carga.corpus.documentos", Integer.class, 50),
+                        Arrays.stream(environment.getProperty("carga.corpus.tamanhos", "20,100,300").split(","))
+                                .map(String::trim).map(Integer::valueOf).toList(),
+                        environment.getProperty("carga.corpus.fracao-pdf", Double.class, 0.2));
+                int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+                GeradorCarga gerador = new GeradorCarga(objectMapper,
+                        URI.create("http://127.0.0.1:" + porta + "/api/v1/leitor/processar"), corpus,
+                        environment.getProperty("carga.banco", "ITAU"),
+                        Duration.ofSeconds(environment.getProperty("carga.timeout-requisicao-segundos", Long.class, 300L)));
+
+                double taxa = environment.getProperty("carga.taxa-por-segundo", Double.class, 2.0);
+                monitor.iniciar();
+                GeradorCarga.Resultado resultado = gerador.executar(taxa,
+                        Duration.ofSeconds(environment.getProperty("carga.duracao-segundos", Long.class, 60L)));
+                int pendentes = monitor.aguardarDrenagem(resultado.processamentoIds(),
+                        Duration.ofSeconds(environment.getProperty("carga.espera-drenagem-segundos", Long.class, 120L)));
+
+                String rotulo = environment.getProperty("carga.rotulo", "atual");
+                RelatorioCarga relatorio = new RelatorioCarga(rotulo, taxa, resultado, contexto.getBean(MeterRegistry.class),
+                        monitor, pendentes, stub.respostasPorStatus());
+                relatorio.imprimir();
+                relatorio.gravar(objectMapper, Path.of(environment.getProperty("carga.relatorio", "target/carga-" + rotulo + ".json")));
+            }
+        }
+        // Pools da aplicação (fila local, agendadores) não seguram a JVM depois do relatório
+        System.exit(0);
+    }
+}
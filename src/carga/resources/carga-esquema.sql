@@ -0,0 +1,8 @@
+-- Complemento do esquema gerado pelo Hibernate no perfil carga (H2): o que os SQLs nativos esperam das migrations
+-- uk_resumo_mensal: chave do upsert ON DUPLICATE KEY do ResumoMensalRepository (V5)
+CREATE UNIQUE INDEX uk_resumo_mensal ON resumo_mensal (user_id, mes, banco, categoria, moeda);
+-- Defaults do INSERT IGNORE do CheckpointConsumoRepository (V10)
+ALTER TABLE checkpoints_consumo ALTER COLUMN proximo_indice SET DEFAULT 0;
+ALTER TABLE checkpoints_consumo ALTER COLUMN transacoes_salvas SET DEFAULT 0;
+ALTER TABLE checkpoints_consumo ALTER COLUMN duplicatas_ignoradas SET DEFAULT 0;
+ALTER TABLE checkpoints_consumo ALTER COLUMN erros SET DEFAULT 0;
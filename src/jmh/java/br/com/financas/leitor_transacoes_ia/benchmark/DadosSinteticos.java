@@ -0,0 +1,190 @@
+package br.com.financas.leitor_transacoes_ia.benchmark;
+
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoItemDTO;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Extratos e respostas sintéticos, determinísticos (semente fixa), para os benchmarks
+ */
+public final class DadosSinteticos {
+
+    private static final int LINHAS_POR_PAGINA = 45;
+    private static final String[] LANCAMENTOS = {"COMPRA", "PAGAMENTO", "PIX ENVIADO", "PIX RECEBIDO", "TARIFA", "SAQUE"};
+    private static final String[] ESTABELECIMENTOS = {"SUPERMERCADO BOM PRECO", "POSTO SHELL AV BRASIL", "FARMACIA SAO JOAO",
+            "NETFLIX.COM", "CONTA DE LUZ ENEL", "RESTAURANTE SABOR CASEIRO", "UBER *TRIP", "LIVRARIA CULTURA"};
+    private static final String[] CATEGORIAS = {"ALIMENTACAO", "TRANSPORTE", "SAUDE", "LAZER", "MORADIA", "EDUCACAO", "OUTROS"};
+
+    private DadosSinteticos() {
+    }
+
+    /**
+     * Os extratores registram em INFO a cada chamada; nos benchmarks isso só mede o console
+     */
+    public static void silenciarLogs() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    public static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    public static List<TransacaoItemDTO> itens(int quantidade) {
+        Random random = new Random(42);
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        List<TransacaoItemDTO> itens = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            itens.add(TransacaoItemDTO.builder()
+                    .data(inicio.plusDays(random.nextInt(365)))
+                    .lancamento(LANCAMENTOS[random.nextInt(LANCAMENTOS.length)])
+                    .detalhes(ESTABELECIMENTOS[random.nextInt(ESTABELECIMENTOS.length)])
+                    // Metade com número de documento: exercita os dois formatos de chave de deduplicação
+                    .numeroDocumento(i % 2 == 0 ? String.valueOf(100000 + i) : null)
+                    .valor(BigDecimal.valueOf(random.nextInt(500000), 2))
+                    .tipoLancamento(random.nextBoolean() ? "DEBITO" : "CREDITO")
+                    .categoria(CATEGORIAS[random.nextInt(CATEGORIAS.length)])
+                    .tipoDocumento("EXTRATO")
+                    .moeda("BRL")
+                    .build());
+        }
+        return itens;
+    }
+
+    public static byte[] csv(int quantidade) {
+        StringBuilder csv = new StringBuilder("data,lancamento,detalhes,documento,valor\n");
+        for (TransacaoItemDTO item : itens(quantidade)) {
+            csv.append(item.getData()).append(',')
+                    .append(item.getLancamento()).append(',')
+                    .append('"').append(item.getDetalhes()).append('"').append(',')
+                    .append(item.getNumeroDocumento() != null ? item.getNumeroDocumento() : "").append(',')
+                    .append(item.getValor()).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] pdf(int quantidade) {
+        List<TransacaoItemDTO> itens = itens(quantidade);
+        try (PDDocument documento = new PDDocument(); ByteArrayOutputStream saida = new ByteArrayOutputStream()) {
+            for (int inicio = 0; inicio < Math.max(1, itens.size()); inicio += LINHAS_POR_PAGINA) {
+                PDPage pagina = new PDPage(PDRectangle.A4);
+                documento.addPage(pagina);
+                try (PDPageContentStream conteudo = new PDPageContentStream(documento, pagina)) {
+                    conteudo.beginText();
+                    conteudo.setFont(PDType1Font.HELVETICA, 9);
+                    conteudo.setLeading(16);
+                    conteudo.newLineAtOffset(40, 800);
+                    conteudo.showText("EXTRATO DE CONTA CORRENTE - BANCO EXEMPLO");
+                    conteudo.newLine();
+                    for (TransacaoItemDTO item : itens.subList(inicio, Math.min(itens.size(), inicio + LINHAS_POR_PAGINA))) {
+                        conteudo.showText(item.getData() + "  " + item.getLancamento() + "  " + item.getDetalhes()
+                                + "  " + (item.getNumeroDocumento() != null ? item.getNumeroDocumento() : "-")
+                                + "  " + item.getValor());
+                        conteudo.newLine();
+                    }
+                    conteudo.endText();
+                }
+            }
+            documento.save(saida);
+            return saida.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Conteúdo JSON no formato pedido no prompt, entre cercas de markdown como os modelos costumam responder
+     */
+    public static String conteudoResposta(int quantidade) {
+        StringBuilder json = new StringBuilder("```json\n{\"banco\":\"ITAU\",\"moeda\":\"BRL\",\"tipoDocumento\":\"EXTRATO\",")
+                .append("\"totalTransacoes\":").append(quantidade).append(",\"transacoes\":[");
+        List<TransacaoItemDTO> itens = itens(quantidade);
+        for (int i = 0; i < itens.size(); i++) {
+            TransacaoItemDTO item = itens.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"data\":\"").append(item.getData())
+                    .append("\",\"lancamento\":\"").append(item.getLancamento())
+                    .append("\",\"detalhes\":\"").append(item.getDetalhes())
+                    .append("\",\"numeroDocumento\":\"").append(item.getNumeroDocumento() != null ? item.getNumeroDocumento() : "")
+                    .append("\",\"valor\":").append(item.getValor())
+                    .append(",\"tipoLancamento\":\"").append(item.getTipoLancamento())
+                    .append("\",\"categoria\":\"").append(item.getCategoria())
+                    .append("\"}");
+        }
+        return json.append("]}\n```").toString();
+    }
+
+    /**
+     * MultipartFile em memória (o spring-test não está no classpath dos benchmarks)
+     */
+    public static MultipartFile arquivo(String nome, String contentType, byte[] conteudo) {
+        return new MultipartFile() {
+            @Override
+            public String getName() {
+                return "arquivo";
+            }
+
+            @Override
+            public String getOriginalFilename() {
+                return nome;
+            }
+
+            @Override
+            public String getContentType() {
+                return contentType;
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return conteudo.length == 0;
+            }
+
+            @Override
+            public long getSize() {
+                return conteudo.length;
+            }
+
+            @Override
+            public byte[] getBytes() {
+                return conteudo;
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(conteudo);
+            }
+
+            @Override
+            public void transferTo(File destino) throws IOException {
+                Files.write(destino.toPath(), conteudo);
+            }
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.financas.leitor_transacoes_ia.client;
+
+import br.com.financas.leitor_transacoes_ia.benchmark.DadosSinteticos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do prompt de cada provider a partir do texto extraído de um extrato CSV sintético
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PromptIABenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int transacoes;
+
+    private GeminiClientImpl gemini;
+    private OpenAIClientImpl openAI;
+    private ClaudeClientImpl claude;
+    private String texto;
+
+    @Setup
+    public void preparar() {
+        DadosSinteticos.silenciarLogs();
+        ObjectMapper objectMapper = DadosSinteticos.objectMapper();
+        gemini = new GeminiClientImpl(objectMapper, null);
+        openAI = new OpenAIClientImpl(null, objectMapper, null);
+        claude = new ClaudeClientImpl(null, objectMapper, null);
+        texto = new String(DadosSinteticos.csv(transacoes), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String gemini() {
+        return gemini.construirPrompt(texto, "ITAU", "BRL", "EXTRATO");
+    }
+
+    @Benchmark
+    public String openAI() {
+        return openAI.construirPrompt(texto, "ITAU", "BRL", "EXTRATO");
+    }
+
+    @Benchmark
+    public String claude() {
+        return claude.construirPrompt(texto, "ITAU", "BRL", "EXTRATO");
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.financas.leitor_transacoes_ia.client;
+
+import br.com.financas.leitor_transacoes_ia.benchmark.DadosSinteticos;
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse das respostas de cada provider (envelope da API + JSON de transações) em TransacaoAIDTO.
+ * Só o processarResposta* é exercitado, então os clientes são criados sem WebClient nem métricas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RespostaIABenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int transacoes;
+
+    private GeminiClientImpl gemini;
+    private OpenAIClientImpl openAI;
+    private ClaudeClientImpl claude;
+    private String respostaGemini;
+    private String respostaOpenAI;
+    private String respostaClaude;
+
+    @Setup
+    public void preparar() throws JsonProcessingException {
+        DadosSinteticos.silenciarLogs();
+        ObjectMapper objectMapper = DadosSinteticos.objectMapper();
+        gemini = new GeminiClientImpl(objectMapper, null);
+        openAI = new OpenAIClientImpl(null, objectMapper, null);
+        claude = new ClaudeClientImpl(null, objectMapper, null);
+
+        String conteudo = DadosSinteticos.conteudoResposta(transacoes);
+        respostaGemini = conteudo;
+        respostaOpenAI = objectMapper.writeValueAsString(
+                Map.of("choices", List.of(Map.of("message", Map.of("role", "assistant", "content", conteudo)))));
+        respostaClaude = objectMapper.writeValueAsString(
+                Map.of("content", List.of(Map.of("type", "text", "text", conteudo))));
+    }
+
+    @Benchmark
+    public TransacaoAIDTO gemini() {
+        return gemini.processarRespostaGemini(respostaGemini, "ITAU", "BRL", "EXTRATO");
+    }
+
+    @Benchmark
+    public TransacaoAIDTO openAI() {
+        return openAI.processarRespostaOpenAI(respostaOpenAI, "ITAU", "BRL", "EXTRATO");
+    }
+
+    @Benchmark
+    public TransacaoAIDTO claude() {
+        return claude.processarRespostaClaude(respostaClaude, "ITAU", "BRL", "EXTRATO");
+    }
+}
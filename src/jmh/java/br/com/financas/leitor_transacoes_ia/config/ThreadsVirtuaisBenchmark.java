@@ -0,0 +1,116 @@
+package br.com.financas.leitor_transacoes_ia.config;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão do modo de plataforma (pool de 200 threads, o máximo padrão do Tomcat) contra o de threads virtuais
+ * (spring.threads.virtual.enabled) com muitas requisições simultâneas, cada uma esperando latenciaMs
+ * (a chamada à IA/JDBC) e fazendo um pouco de CPU (o parse). requisicoes/s é a métrica a comparar.
+ * bloqueio=synchronized espera segurando um monitor: no modo virtual isso fixa a thread de plataforma
+ * e mostra o custo de uma fixação. O modo virtual exige rodar com Java 21+.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ThreadsVirtuaisBenchmark {
+
+    private static final int THREADS_PLATAFORMA = 200;
+    private static final int MONITORES = 1024;
+
+    @Param({"plataforma", "virtual"})
+    private String modo;
+
+    @Param({"100", "1000", "5000"})
+    private int concorrencia;
+
+    @Param({"20"})
+    private long latenciaMs;
+
+    @Param({"livre", "synchronized"})
+    private String bloqueio;
+
+    private final Object[] monitores = new Object[MONITORES];
+    private ExecutorService executorPlataforma;
+    private VirtualThreadTaskExecutor executorVirtual;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Contadores {
+        public long requisicoes;
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        for (int i = 0; i < MONITORES; i++) {
+            monitores[i] = new Object();
+        }
+        if ("virtual".equals(modo)) {
+            // Lança UnsupportedOperationException em Java < 21
+            executorVirtual = new VirtualThreadTaskExecutor("benchmark-virtual-");
+        } else {
+            executorPlataforma = Executors.newFixedThreadPool(THREADS_PLATAFORMA);
+        }
+    }
+
+    @Benchmark
+    public void requisicoesSimultaneas(Contadores contadores) throws InterruptedException {
+        CountDownLatch concluidas = new CountDownLatch(concorrencia);
+        for (int i = 0; i < concorrencia; i++) {
+            Object monitor = monitores[i % MONITORES];
+            Runnable requisicao = () -> {
+                try {
+                    if ("synchronized".equals(bloqueio)) {
+                        synchronized (monitor) {
+                            esperarEProcessar();
+                        }
+                    } else {
+                        esperarEProcessar();
+                    }
+                } finally {
+                    concluidas.countDown();
+                }
+            };
+            if (executorVirtual != null) {
+                executorVirtual.execute(requisicao);
+            } else {
+                executorPlataforma.execute(requisicao);
+            }
+        }
+        concluidas.await();
+        contadores.requisicoes += concorrencia;
+    }
+
+    private void esperarEProcessar() {
+        try {
+            Thread.sleep(latenciaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        Blackhole.consumeCPU(10_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        if (executorPlataforma != null) {
+            executorPlataforma.shutdownNow();
+        }
+    }
+}
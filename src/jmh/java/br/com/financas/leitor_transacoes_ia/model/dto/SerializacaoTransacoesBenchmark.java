@@ -0,0 +1,67 @@
+package br.com.financas.leitor_transacoes_ia.model.dto;
+
+import br.com.financas.leitor_transacoes_ia.benchmark.DadosSinteticos;
+import br.com.financas.leitor_transacoes_ia.model.projection.TransacaoProjecao;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.hateoas.CollectionModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listagem de transações: projeções → CollectionModel com links HATEOAS → JSON
+ * (fora de uma requisição os links são relativos, sem host)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializacaoTransacoesBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int transacoes;
+
+    private final TransacaoRepresentationAssembler assembler = new TransacaoRepresentationAssembler();
+    private ObjectMapper objectMapper;
+    private List<TransacaoProjecao> projecoes;
+    private CollectionModel<TransacaoDTO> modelo;
+
+    @Setup
+    public void preparar() {
+        DadosSinteticos.silenciarLogs();
+        objectMapper = DadosSinteticos.objectMapper();
+        List<TransacaoItemDTO> itens = DadosSinteticos.itens(transacoes);
+        projecoes = new ArrayList<>(itens.size());
+        long id = 1;
+        for (TransacaoItemDTO item : itens) {
+            projecoes.add(new TransacaoProjecao(id++, item.getData(), item.getLancamento(), item.getDetalhes(),
+                    item.getNumeroDocumento(), item.getValor(), item.getMoeda(), item.getTipoLancamento(),
+                    item.getCategoria(), "ITAU", item.getData(), item.getData()));
+        }
+        modelo = assembler.toCollectionModelDeProjecoes(projecoes);
+    }
+
+    @Benchmark
+    public CollectionModel<TransacaoDTO> montarModelo() {
+        return assembler.toCollectionModelDeProjecoes(projecoes);
+    }
+
+    @Benchmark
+    public String serializar() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(modelo);
+    }
+
+    @Benchmark
+    public String montarESerializar() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(assembler.toCollectionModelDeProjecoes(projecoes));
+    }
+}
@@ -0,0 +1,49 @@
+package br.com.financas.leitor_transacoes_ia.parser;
+
+import br.com.financas.leitor_transacoes_ia.benchmark.DadosSinteticos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extração de texto de extratos sintéticos em PDF e CSV, por quantidade de transações
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExtracaoTextoBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    private int transacoes;
+
+    private final PDFTextExtractor pdfTextExtractor = new PDFTextExtractor();
+    private final CSVTextExtractor csvTextExtractor = new CSVTextExtractor();
+    private MultipartFile pdf;
+    private MultipartFile csv;
+
+    @Setup
+    public void preparar() {
+        DadosSinteticos.silenciarLogs();
+        pdf = DadosSinteticos.arquivo("extrato.pdf", "application/pdf", DadosSinteticos.pdf(transacoes));
+        csv = DadosSinteticos.arquivo("extrato.csv", "text/csv", DadosSinteticos.csv(transacoes));
+    }
+
+    @Benchmark
+    public String extrairPdf() throws IOException {
+        return pdfTextExtractor.extrairTexto(pdf);
+    }
+
+    @Benchmark
+    public String extrairCsv() throws IOException {
+        return csvTextExtractor.extrairTexto(csv);
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.benchmark.DadosSinteticos;
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoItemDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chaves de deduplicação de uma parte inteira, como o consumidor faz com as transações do documento
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChaveDeduplicacaoBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int transacoes;
+
+    private List<TransacaoItemDTO> itens;
+
+    @Setup
+    public void preparar() {
+        itens = DadosSinteticos.itens(transacoes);
+    }
+
+    @Benchmark
+    public Set<String> chavesDoDocumento() {
+        Set<String> chaves = new HashSet<>();
+        for (TransacaoItemDTO item : itens) {
+            chaves.add(ChaveDeduplicacao.de(item, "ITAU"));
+        }
+        return chaves;
+    }
+}
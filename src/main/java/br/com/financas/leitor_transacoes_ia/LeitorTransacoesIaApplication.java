@@ -3,9 +3,11 @@ package br.com.financas.leitor_transacoes_ia;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableFeignClients
+@EnableScheduling
 public class LeitorTransacoesIaApplication {
 
     public static void main(String[] args) {
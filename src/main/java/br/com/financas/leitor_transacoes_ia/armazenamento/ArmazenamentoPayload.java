@@ -0,0 +1,27 @@
+package br.com.financas.leitor_transacoes_ia.armazenamento;
+
+import java.io.InputStream;
+import java.time.Instant;
+
+/**
+ * Armazenamento de payloads grandes fora da fila (claim-check): a mensagem SQS leva só a chave
+ */
+public interface ArmazenamentoPayload {
+
+    void salvar(String chave, byte[] conteudo);
+
+    /**
+     * Abre o payload para leitura em streaming; o chamador fecha o stream
+     */
+    InputStream abrir(String chave);
+
+    void remover(String chave);
+
+    /**
+     * Remove os payloads com a chave iniciada por prefixo gravados antes de limite (órfãos: partes que foram
+     * para a DLQ ou cuja remoção falhou)
+     *
+     * @return quantidade de payloads removidos
+     */
+    int removerAnterioresA(String prefixo, Instant limite);
+}
@@ -0,0 +1,104 @@
+package br.com.financas.leitor_transacoes_ia.armazenamento;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento em disco para desenvolvimento e testes (o diretório pode ser um volume compartilhado)
+ */
+@Component
+@ConditionalOnProperty(name = "claim-check.armazenamento", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class ArmazenamentoPayloadLocal implements ArmazenamentoPayload {
+
+    private final Path diretorio;
+
+    public ArmazenamentoPayloadLocal(@Value("${claim-check.local.diretorio:${java.io.tmpdir}/financas-payloads}") String diretorio) {
+        this.diretorio = Path.of(diretorio).toAbsolutePath().normalize();
+        log.info("Claim-check usando armazenamento local em {}", this.diretorio);
+    }
+
+    @Override
+    public void salvar(String chave, byte[] conteudo) {
+        Path destino = resolver(chave);
+        try {
+            Files.createDirectories(destino.getParent());
+            // Grava num temporário e move, para o consumidor nunca ler um arquivo pela metade
+            Path temporario = Files.createTempFile(destino.getParent(), ".payload", ".tmp");
+            Files.write(temporario, conteudo);
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao salvar payload " + chave, e);
+        }
+    }
+
+    @Override
+    public InputStream abrir(String chave) {
+        try {
+            return Files.newInputStream(resolver(chave));
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao abrir payload " + chave, e);
+        }
+    }
+
+    @Override
+    public void remover(String chave) {
+        try {
+            Files.deleteIfExists(resolver(chave));
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao remover payload " + chave, e);
+        }
+    }
+
+    @Override
+    public int removerAnterioresA(String prefixo, Instant limite) {
+        Path raiz = resolver(prefixo);
+        if (!Files.isDirectory(raiz)) {
+            return 0;
+        }
+        List<Path> antigos;
+        try (Stream<Path> arquivos = Files.walk(raiz)) {
+            antigos = arquivos.filter(Files::isRegularFile)
+                    .filter(arquivo -> {
+                        try {
+                            return Files.getLastModifiedTime(arquivo).toInstant().isBefore(limite);
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    })
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao listar payloads em " + raiz, e);
+        }
+        int removidos = 0;
+        for (Path arquivo : antigos) {
+            try {
+                if (Files.deleteIfExists(arquivo)) {
+                    removidos++;
+                }
+            } catch (IOException e) {
+                log.warn("Erro ao remover payload {}: {}", arquivo, e.getMessage());
+            }
+        }
+        return removidos;
+    }
+
+    private Path resolver(String chave) {
+        Path caminho = diretorio.resolve(chave).normalize();
+        if (!caminho.startsWith(diretorio)) {
+            throw new RuntimeException("Chave de payload inválida: " + chave);
+        }
+        return caminho;
+    }
+}
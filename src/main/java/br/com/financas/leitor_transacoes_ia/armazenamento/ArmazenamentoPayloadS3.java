@@ -0,0 +1,79 @@
+package br.com.financas.leitor_transacoes_ia.armazenamento;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Armazenamento no S3 (ou MinIO, via claim-check.s3.endpoint).
+ * Os órfãos são removidos por LimpezaPayloadsJob; uma regra de lifecycle no bucket faz o mesmo sem listar objetos.
+ */
+@Component
+@ConditionalOnProperty(name = "claim-check.armazenamento", havingValue = "s3")
+@RequiredArgsConstructor
+public class ArmazenamentoPayloadS3 implements ArmazenamentoPayload {
+
+    private final S3Client s3Client;
+
+    @Value("${claim-check.s3.bucket}")
+    private String bucket;
+
+    @Override
+    public void salvar(String chave, byte[] conteudo) {
+        try {
+            s3Client.putObject(req -> req.bucket(bucket).key(chave).contentEncoding("gzip").contentType("application/json"),
+                    RequestBody.fromBytes(conteudo));
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao salvar payload " + chave + " no S3", e);
+        }
+    }
+
+    @Override
+    public InputStream abrir(String chave) {
+        try {
+            return s3Client.getObject(req -> req.bucket(bucket).key(chave));
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao abrir payload " + chave + " no S3", e);
+        }
+    }
+
+    @Override
+    public void remover(String chave) {
+        try {
+            s3Client.deleteObject(req -> req.bucket(bucket).key(chave));
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao remover payload " + chave + " do S3", e);
+        }
+    }
+
+    @Override
+    public int removerAnterioresA(String prefixo, Instant limite) {
+        int removidos = 0;
+        try {
+            // Cada página tem até 1000 chaves, o limite do DeleteObjects
+            for (var pagina : s3Client.listObjectsV2Paginator(req -> req.bucket(bucket).prefix(prefixo))) {
+                List<ObjectIdentifier> antigos = pagina.contents().stream()
+                        .filter(objeto -> objeto.lastModified().isBefore(limite))
+                        .map(S3Object::key)
+                        .map(chave -> ObjectIdentifier.builder().key(chave).build())
+                        .toList();
+                if (!antigos.isEmpty()) {
+                    s3Client.deleteObjects(req -> req.bucket(bucket).delete(d -> d.objects(antigos).quiet(true)));
+                    removidos += antigos.size();
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao remover payloads antigos de " + prefixo + " no S3", e);
+        }
+        return removidos;
+    }
+}
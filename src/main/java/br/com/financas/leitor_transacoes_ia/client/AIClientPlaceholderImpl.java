@@ -2,8 +2,13 @@ package br.com.financas.leitor_transacoes_ia.client;
 
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoItemDTO;
+import br.com.financas.leitor_transacoes_ia.model.dto.UsoTokensIA;
+import br.com.financas.leitor_transacoes_ia.service.MetricasPipeline;
+import br.com.financas.leitor_transacoes_ia.service.MetricasPipeline.Etapa;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -13,14 +18,26 @@ import java.util.List;
 
 @Service
 @ConditionalOnProperty(name = "ai.provider", havingValue = "placeholder", matchIfMissing = true)
+@Lazy // Criado na primeira classificação (ver InicializacaoPreguicosaConfig)
+@RequiredArgsConstructor
 @Slf4j
 public class AIClientPlaceholderImpl implements AIClient {
 
+    private final MetricasPipeline metricasPipeline;
+
     @Override
     public TransacaoAIDTO processarDocumento(String textoExtraido, String banco, String moeda, String tipoDocumento) {
         log.info("Processando documento com IA placeholder. Banco: {}, Moeda: {}, Tipo: {}, Tamanho texto: {}", 
                 banco, moeda, tipoDocumento, textoExtraido.length());
         
+        TransacaoAIDTO resultado = metricasPipeline.medir(Etapa.CHAMADA_IA, banco, tipoDocumento,
+                () -> gerarExemplo(banco, moeda, tipoDocumento));
+        // Sem provider real: estima como se o texto inteiro tivesse sido enviado
+        resultado.setUsoTokens(UsoTokensIA.estimar("placeholder", "placeholder", textoExtraido, null));
+        return resultado;
+    }
+
+    private TransacaoAIDTO gerarExemplo(String banco, String moeda, String tipoDocumento) {
         // Implementação placeholder que retorna dados de exemplo
         // Em produção, isso seria substituído por uma implementação real (OpenAI, Claude, etc.)
         
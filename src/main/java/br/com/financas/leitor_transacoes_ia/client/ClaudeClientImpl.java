@@ -2,12 +2,16 @@ package br.com.financas.leitor_transacoes_ia.client;
 
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoItemDTO;
+import br.com.financas.leitor_transacoes_ia.model.dto.UsoTokensIA;
+import br.com.financas.leitor_transacoes_ia.service.MetricasPipeline;
+import br.com.financas.leitor_transacoes_ia.service.MetricasPipeline.Etapa;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
@@ -22,12 +26,14 @@ import java.util.Map;
 
 @Service
 @ConditionalOnProperty(name = "ai.provider", havingValue = "claude")
+@Lazy // Criado na primeira classificação (ver InicializacaoPreguicosaConfig)
 @RequiredArgsConstructor
 @Slf4j
 public class ClaudeClientImpl implements AIClient {
 
     private final WebClient.Builder webClientBuilder;
     private final ObjectMapper objectMapper;
+    private final MetricasPipeline metricasPipeline;
 
     @Value("${ai.api-key}")
     private String apiKey;
@@ -35,6 +41,10 @@ public class ClaudeClientImpl implements AIClient {
     @Value("${ai.model:claude-3-sonnet-20240229}")
     private String model;
 
+    // Sobrescrito no teste de carga para apontar ao stub local
+    @Value("${ai.base-url:https://api.anthropic.com/v1}")
+    private String baseUrl;
+
     @Value("${ai.timeout:30000}")
     private int timeout;
 
@@ -47,16 +57,22 @@ public class ClaudeClientImpl implements AIClient {
                 banco, moeda, tipoDocumento, textoExtraido.length());
 
         try {
-            String prompt = construirPrompt(textoExtraido, banco, moeda, tipoDocumento);
-            String resposta = chamarClaude(prompt);
-            return processarRespostaClaude(resposta, banco, moeda, tipoDocumento);
+            String prompt = metricasPipeline.medir(Etapa.PROMPT, banco, tipoDocumento,
+                    () -> construirPrompt(textoExtraido, banco, moeda, tipoDocumento));
+            String resposta = metricasPipeline.medir(Etapa.CHAMADA_IA, banco, tipoDocumento,
+                    () -> chamarClaude(prompt));
+            TransacaoAIDTO resultado = metricasPipeline.medir(Etapa.PARSE_RESPOSTA, banco, tipoDocumento,
+                    () -> processarRespostaClaude(resposta, banco, moeda, tipoDocumento));
+            resultado.setUsoTokens(extrairUso(resposta, prompt));
+            return resultado;
         } catch (Exception e) {
             log.error("Erro ao processar documento com Claude: {}", e.getMessage(), e);
             throw new RuntimeException("Erro ao processar documento com Claude", e);
         }
     }
 
-    private String construirPrompt(String textoExtraido, String banco, String moeda, String tipoDocumento) {
+    // Visível no pacote para os benchmarks JMH (src/jmh/java)
+    String construirPrompt(String textoExtraido, String banco, String moeda, String tipoDocumento) {
         return String.format("""
             Você é um especialista em análise de transações financeiras. Analise o texto abaixo extraído de um documento financeiro (%s) e retorne APENAS um JSON válido com as transações encontradas.
 
@@ -95,7 +111,7 @@ public class ClaudeClientImpl implements AIClient {
 
     private String chamarClaude(String prompt) {
         WebClient webClient = webClientBuilder
-                .baseUrl("https://api.anthropic.com/v1")
+                .baseUrl(baseUrl)
                 .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
                 .defaultHeader("x-api-key", apiKey)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
@@ -116,7 +132,31 @@ public class ClaudeClientImpl implements AIClient {
                 .block();
     }
 
-    private TransacaoAIDTO processarRespostaClaude(String resposta, String banco, String moeda, String tipoDocumento) {
+    /**
+     * Uso reportado em "usage": input_tokens não inclui as leituras e gravações de cache, que são somadas à entrada
+     */
+    private UsoTokensIA extrairUso(String resposta, String prompt) {
+        try {
+            JsonNode usage = objectMapper.readTree(resposta).path("usage");
+            if (usage.has("input_tokens")) {
+                long cache = usage.path("cache_read_input_tokens").asLong();
+                return UsoTokensIA.builder()
+                        .provider("claude")
+                        .modelo(model)
+                        .tokensEntrada(usage.path("input_tokens").asLong() + cache
+                                + usage.path("cache_creation_input_tokens").asLong())
+                        .tokensSaida(usage.path("output_tokens").asLong())
+                        .tokensCache(cache)
+                        .build();
+            }
+        } catch (Exception e) {
+            log.warn("Uso de tokens ausente na resposta do Claude, estimando: {}", e.getMessage());
+        }
+        return UsoTokensIA.estimar("claude", model, prompt, resposta);
+    }
+
+    // Visível no pacote para os benchmarks JMH (src/jmh/java)
+    TransacaoAIDTO processarRespostaClaude(String resposta, String banco, String moeda, String tipoDocumento) {
         try {
             JsonNode jsonNode = objectMapper.readTree(resposta);
             String content = jsonNode.path("content").get(0).path("text").asText();
@@ -2,14 +2,19 @@ package br.com.financas.leitor_transacoes_ia.client;
 
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoItemDTO;
+import br.com.financas.leitor_transacoes_ia.model.dto.UsoTokensIA;
+import br.com.financas.leitor_transacoes_ia.service.MetricasPipeline;
+import br.com.financas.leitor_transacoes_ia.service.MetricasPipeline.Etapa;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.genai.Client;
 import com.google.genai.types.GenerateContentResponse;
+import com.google.genai.types.HttpOptions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -20,11 +25,13 @@ import java.util.List;
 
 @Service
 @ConditionalOnProperty(name = "ai.provider", havingValue = "gemini")
+@Lazy // Criado na primeira classificação (ver InicializacaoPreguicosaConfig)
 @RequiredArgsConstructor
 @Slf4j
 public class GeminiClientImpl implements AIClient {
 
     private final ObjectMapper objectMapper;
+    private final MetricasPipeline metricasPipeline;
 
     @Value("${ai.api-key}")
     private String apiKey;
@@ -32,6 +39,10 @@ public class GeminiClientImpl implements AIClient {
     @Value("${ai.model:gemini-2.5-flash}")
     private String model;
 
+    // Vazio = endpoint padrão do SDK; o teste de carga aponta para o stub local
+    @Value("${ai.base-url:}")
+    private String baseUrl;
+
     @Value("${ai.timeout:30000}")
     private int timeout;
 
@@ -44,16 +55,22 @@ public class GeminiClientImpl implements AIClient {
                 banco, moeda, tipoDocumento, textoExtraido.length());
 
         try {
-            String prompt = construirPrompt(textoExtraido, banco, moeda, tipoDocumento);
-            String resposta = chamarGemini(prompt);
-            return processarRespostaGemini(resposta, banco, moeda, tipoDocumento);
+            String prompt = metricasPipeline.medir(Etapa.PROMPT, banco, tipoDocumento,
+                    () -> construirPrompt(textoExtraido, banco, moeda, tipoDocumento));
+            GenerateContentResponse resposta = metricasPipeline.medir(Etapa.CHAMADA_IA, banco, tipoDocumento,
+                    () -> chamarGemini(prompt));
+            TransacaoAIDTO resultado = metricasPipeline.medir(Etapa.PARSE_RESPOSTA, banco, tipoDocumento,
+                    () -> processarRespostaGemini(resposta.text(), banco, moeda, tipoDocumento));
+            resultado.setUsoTokens(extrairUso(resposta, prompt));
+            return resultado;
         } catch (Exception e) {
             log.error("Erro ao processar documento com Gemini: {}", e.getMessage(), e);
             throw new RuntimeException("Erro ao processar documento com Gemini", e);
         }
     }
 
-    private String construirPrompt(String textoExtraido, String banco, String moeda, String tipoDocumento) {
+    // Visível no pacote para os benchmarks JMH (src/jmh/java)
+    String construirPrompt(String textoExtraido, String banco, String moeda, String tipoDocumento) {
         return String.format("""
             Você é um especialista em análise de transações financeiras. Analise o texto abaixo extraído de um documento financeiro (%s) e retorne APENAS um JSON válido com as transações encontradas.
 
@@ -90,12 +107,15 @@ public class GeminiClientImpl implements AIClient {
             """, tipoDocumento, banco, moeda, tipoDocumento, textoExtraido);
     }
 
-    private String chamarGemini(String prompt) {
+    private GenerateContentResponse chamarGemini(String prompt) {
         try {
             // Configurar o cliente Gemini
-            Client client = Client.builder()
-                    .apiKey(apiKey)
-                    .build();
+            Client.Builder builder = Client.builder()
+                    .apiKey(apiKey);
+            if (!baseUrl.isBlank()) {
+                builder.httpOptions(HttpOptions.builder().baseUrl(baseUrl).build());
+            }
+            Client client = builder.build();
 
             // Gerar conteúdo usando o SDK
             GenerateContentResponse response = client.models.generateContent(
@@ -104,8 +124,7 @@ public class GeminiClientImpl implements AIClient {
                     null
             );
 
-            // Retornar o texto gerado
-            return response.text();
+            return response;
 
         } catch (Exception e) {
             log.error("Erro ao chamar Gemini API: {}", e.getMessage(), e);
@@ -113,7 +132,24 @@ public class GeminiClientImpl implements AIClient {
         }
     }
 
-    private TransacaoAIDTO processarRespostaGemini(String resposta, String banco, String moeda, String tipoDocumento) {
+    /**
+     * Uso reportado em usageMetadata (tokens de raciocínio são cobrados como saída)
+     */
+    private UsoTokensIA extrairUso(GenerateContentResponse resposta, String prompt) {
+        return resposta.usageMetadata()
+                .filter(uso -> uso.promptTokenCount().isPresent())
+                .map(uso -> UsoTokensIA.builder()
+                        .provider("gemini")
+                        .modelo(model)
+                        .tokensEntrada(uso.promptTokenCount().orElse(0))
+                        .tokensSaida(uso.candidatesTokenCount().orElse(0) + uso.thoughtsTokenCount().orElse(0))
+                        .tokensCache(uso.cachedContentTokenCount().orElse(0))
+                        .build())
+                .orElseGet(() -> UsoTokensIA.estimar("gemini", model, prompt, resposta.text()));
+    }
+
+    // Visível no pacote para os benchmarks JMH (src/jmh/java)
+    TransacaoAIDTO processarRespostaGemini(String resposta, String banco, String moeda, String tipoDocumento) {
         try {
             // Limpar o conteúdo para extrair apenas o JSON
             String content = resposta.trim();
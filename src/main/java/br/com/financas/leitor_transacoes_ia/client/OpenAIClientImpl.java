@@ -2,12 +2,16 @@ package br.com.financas.leitor_transacoes_ia.client;
 
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoItemDTO;
+import br.com.financas.leitor_transacoes_ia.model.dto.UsoTokensIA;
+import br.com.financas.leitor_transacoes_ia.service.MetricasPipeline;
+import br.com.financas.leitor_transacoes_ia.service.MetricasPipeline.Etapa;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
@@ -23,12 +27,14 @@ import java.util.Map;
 
 @Service
 @ConditionalOnProperty(name = "ai.provider", havingValue = "openai")
+@Lazy // Criado na primeira classificação (ver InicializacaoPreguicosaConfig)
 @RequiredArgsConstructor
 @Slf4j
 public class OpenAIClientImpl implements AIClient {
 
     private final WebClient.Builder webClientBuilder;
     private final ObjectMapper objectMapper;
+    private final MetricasPipeline metricasPipeline;
 
     @Value("${ai.api-key}")
     private String apiKey;
@@ -36,6 +42,10 @@ public class OpenAIClientImpl implements AIClient {
     @Value("${ai.model:gpt-4}")
     private String model;
 
+    // Sobrescrito no teste de carga para apontar ao stub local
+    @Value("${ai.base-url:https://api.openai.com/v1}")
+    private String baseUrl;
+
     @Value("${ai.timeout:30000}")
     private int timeout;
 
@@ -48,16 +58,22 @@ public class OpenAIClientImpl implements AIClient {
                 banco, moeda, tipoDocumento, textoExtraido.length());
 
         try {
-            String prompt = construirPrompt(textoExtraido, banco, moeda, tipoDocumento);
-            String resposta = chamarOpenAI(prompt);
-            return processarRespostaOpenAI(resposta, banco, moeda, tipoDocumento);
+            String prompt = metricasPipeline.medir(Etapa.PROMPT, banco, tipoDocumento,
+                    () -> construirPrompt(textoExtraido, banco, moeda, tipoDocumento));
+            String resposta = metricasPipeline.medir(Etapa.CHAMADA_IA, banco, tipoDocumento,
+                    () -> chamarOpenAI(prompt));
+            TransacaoAIDTO resultado = metricasPipeline.medir(Etapa.PARSE_RESPOSTA, banco, tipoDocumento,
+                    () -> processarRespostaOpenAI(resposta, banco, moeda, tipoDocumento));
+            resultado.setUsoTokens(extrairUso(resposta, prompt));
+            return resultado;
         } catch (Exception e) {
             log.error("Erro ao processar documento com OpenAI: {}", e.getMessage(), e);
             throw new RuntimeException("Erro ao processar documento com OpenAI", e);
         }
     }
 
-    private String construirPrompt(String textoExtraido, String banco, String moeda, String tipoDocumento) {
+    // Visível no pacote para os benchmarks JMH (src/jmh/java)
+    String construirPrompt(String textoExtraido, String banco, String moeda, String tipoDocumento) {
         return String.format("""
             Você é um especialista em análise de transações financeiras. Analise o texto abaixo extraído de um documento financeiro (%s) e retorne APENAS um JSON válido com as transações encontradas.
 
@@ -96,7 +112,7 @@ public class OpenAIClientImpl implements AIClient {
 
     private String chamarOpenAI(String prompt) {
         WebClient webClient = webClientBuilder
-                .baseUrl("https://api.openai.com/v1")
+                .baseUrl(baseUrl)
                 .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .build();
@@ -117,7 +133,29 @@ public class OpenAIClientImpl implements AIClient {
                 .block();
     }
 
-    private TransacaoAIDTO processarRespostaOpenAI(String resposta, String banco, String moeda, String tipoDocumento) {
+    /**
+     * Uso reportado em "usage" (prompt_tokens já inclui os tokens servidos do cache)
+     */
+    private UsoTokensIA extrairUso(String resposta, String prompt) {
+        try {
+            JsonNode usage = objectMapper.readTree(resposta).path("usage");
+            if (usage.has("prompt_tokens")) {
+                return UsoTokensIA.builder()
+                        .provider("openai")
+                        .modelo(model)
+                        .tokensEntrada(usage.path("prompt_tokens").asLong())
+                        .tokensSaida(usage.path("completion_tokens").asLong())
+                        .tokensCache(usage.path("prompt_tokens_details").path("cached_tokens").asLong())
+                        .build();
+            }
+        } catch (Exception e) {
+            log.warn("Uso de tokens ausente na resposta da OpenAI, estimando: {}", e.getMessage());
+        }
+        return UsoTokensIA.estimar("openai", model, prompt, resposta);
+    }
+
+    // Visível no pacote para os benchmarks JMH (src/jmh/java)
+    TransacaoAIDTO processarRespostaOpenAI(String resposta, String banco, String moeda, String tipoDocumento) {
         try {
             JsonNode jsonNode = objectMapper.readTree(resposta);
             String content = jsonNode.path("choices").get(0).path("message").path("content").asText();
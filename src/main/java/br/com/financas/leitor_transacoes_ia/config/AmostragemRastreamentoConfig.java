@@ -0,0 +1,77 @@
+package br.com.financas.leitor_transacoes_ia.config;
+
+import brave.sampler.CountingSampler;
+import brave.sampler.Sampler;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Amostragem de traces por rota: cada padrão de tracing.amostragem.rotas (ex.: /actuator/**:0,/api/v1/leitor/processar:0.5)
+ * tem sua própria probabilidade; as demais rotas, o consumidor e os jobs usam management.tracing.sampling.probability.
+ * A decisão vale para o trace inteiro, inclusive a parte consumida da fila.
+ */
+@Configuration
+@Slf4j
+public class AmostragemRastreamentoConfig {
+
+    // Rota da requisição em andamento, vista pelo sampler quando o span da requisição é criado
+    private static final ThreadLocal<String> ROTA_ATUAL = new ThreadLocal<>();
+
+    @Bean
+    public Sampler amostragemPorRota(@Value("${tracing.amostragem.rotas:}") String rotasConfiguradas,
+                                     @Value("${management.tracing.sampling.probability:0.1}") float probabilidadePadrao) {
+        Map<String, Sampler> porRota = new LinkedHashMap<>();
+        for (String par : rotasConfiguradas.split(",")) {
+            int separador = par.lastIndexOf(':');
+            if (separador > 0) {
+                porRota.put(par.substring(0, separador).trim(),
+                        CountingSampler.create(Float.parseFloat(par.substring(separador + 1).trim())));
+            }
+        }
+        Sampler padrao = CountingSampler.create(probabilidadePadrao);
+        AntPathMatcher matcher = new AntPathMatcher();
+        log.info("Amostragem de traces: padrão {}, por rota {}", probabilidadePadrao, porRota.keySet());
+
+        return new Sampler() {
+            @Override
+            public boolean isSampled(long traceId) {
+                String rota = ROTA_ATUAL.get();
+                if (rota != null) {
+                    for (Map.Entry<String, Sampler> regra : porRota.entrySet()) {
+                        if (matcher.match(regra.getKey(), rota)) {
+                            return regra.getValue().isSampled(traceId);
+                        }
+                    }
+                }
+                return padrao.isSampled(traceId);
+            }
+        };
+    }
+
+    /**
+     * Expõe a rota ao sampler; roda antes do filtro de observação que abre o span da requisição
+     */
+    @Bean
+    public FilterRegistrationBean<Filter> filtroRotaAmostragem() {
+        FilterRegistrationBean<Filter> registro = new FilterRegistrationBean<>((request, response, chain) -> {
+            ROTA_ATUAL.set(((HttpServletRequest) request).getRequestURI());
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                ROTA_ATUAL.remove();
+            }
+        });
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+}
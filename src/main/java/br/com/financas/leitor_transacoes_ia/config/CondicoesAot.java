@@ -0,0 +1,130 @@
+package br.com.financas.leitor_transacoes_ia.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Condições congeladas pelo processamento AOT (perfil inicio-rapido): com -Dspring.aot.enabled=true os beans vêm do
+ * código gerado na build, e as propriedades que decidem @ConditionalOn* deixam de ter efeito na execução.
+ * {@link Registro} grava na build os valores usados e {@link Verificacao} recusa subir quando a execução diverge,
+ * em vez de rodar, por exemplo, um worker com os beans da API.
+ */
+public final class CondicoesAot {
+
+    static final String RECURSO = "META-INF/leitor-transacoes-ia/condicoes-aot.properties";
+
+    private static final String PERFIS = "spring.profiles.active";
+
+    // Toda propriedade usada em condição (nossas e dos auto-configurations) precisa estar aqui
+    private static final List<String> PROPRIEDADES = List.of(
+            "app.modo-execucao",
+            "ai.provider",
+            "fila.modo",
+            "claim-check.armazenamento",
+            "datasource.replica.enabled",
+            "diagnostico.resumo.habilitado",
+            "diagnostico.persistencia.habilitado",
+            "resumo.reconstruir-na-inicializacao",
+            "sqs.dlq.configurar-redrive",
+            "tracing.zipkin.exportar-sem-endpoint",
+            "ZIPKIN_ENDPOINT",
+            "spring.threads.virtual.enabled",
+            "management.tracing.enabled",
+            "management.endpoints.web.exposure.include",
+            "management.endpoint.jfr.enabled",
+            "management.endpoint.diagnostico.enabled",
+            "management.endpoint.persistencia.enabled");
+
+    private CondicoesAot() {
+    }
+
+    static Properties capturar(Environment environment) {
+        Properties valores = new Properties();
+        valores.setProperty(PERFIS, String.join(",", environment.getActiveProfiles()));
+        for (String propriedade : PROPRIEDADES) {
+            String valor = environment.getProperty(propriedade);
+            if (valor != null) {
+                valores.setProperty(propriedade, valor);
+            }
+        }
+        return valores;
+    }
+
+    static List<String> divergencias(Properties naBuild, Properties naExecucao) {
+        List<String> divergentes = new ArrayList<>();
+        List<String> nomes = new ArrayList<>(PROPRIEDADES);
+        nomes.add(0, PERFIS);
+        for (String nome : nomes) {
+            String build = naBuild.getProperty(nome);
+            String execucao = naExecucao.getProperty(nome);
+            if (!Objects.equals(build, execucao)) {
+                divergentes.add(nome + " (build: " + build + ", execução: " + execucao + ")");
+            }
+        }
+        return divergentes;
+    }
+
+    /**
+     * Registrado em META-INF/spring/aot.factories; roda só no process-aot.
+     */
+    public static class Registro implements BeanFactoryInitializationAotProcessor {
+
+        @Override
+        public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+            Properties valores = capturar(beanFactory.getBean(Environment.class));
+            StringWriter conteudo = new StringWriter();
+            try {
+                valores.store(conteudo, "Propriedades das condições avaliadas no processamento AOT");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return (generationContext, codigo) -> generationContext.getGeneratedFiles()
+                    .addResourceFile(RECURSO, conteudo.toString());
+        }
+    }
+
+    /**
+     * Registrado em META-INF/spring.factories; só age com o código AOT em uso, antes de qualquer bean ser criado.
+     */
+    public static class Verificacao implements EnvironmentPostProcessor {
+
+        @Override
+        public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+            if (!AotDetector.useGeneratedArtifacts()) {
+                return;
+            }
+            ClassPathResource recurso = new ClassPathResource(RECURSO, application.getClassLoader());
+            if (!recurso.exists()) {
+                return;
+            }
+            Properties naBuild;
+            try {
+                naBuild = PropertiesLoaderUtils.loadProperties(recurso);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            List<String> divergentes = divergencias(naBuild, capturar(environment));
+            if (!divergentes.isEmpty()) {
+                throw new IllegalStateException("Código AOT gerado com outras condições: " + String.join("; ", divergentes)
+                        + ". Refaça a imagem com esses valores (build args do alvo inicio-rapido ou -Daot.argumentos)"
+                        + " ou rode sem -Dspring.aot.enabled=true");
+            }
+        }
+    }
+}
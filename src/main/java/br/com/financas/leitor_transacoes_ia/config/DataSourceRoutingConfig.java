@@ -0,0 +1,73 @@
+package br.com.financas.leitor_transacoes_ia.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Roteamento leitura/escrita entre o primário (RDS) e uma réplica de leitura.
+ * Habilitado com datasource.replica.enabled=true; cada rota tem seu próprio pool Hikari
+ * (pool "primario" configurado em spring.datasource.hikari e pool "replica" em datasource.replica),
+ * com métricas hikaricp.* separadas pela tag pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    /**
+     * Pool da réplica: datasource.replica.jdbc-url, username, password e propriedades Hikari
+     * (maximum-pool-size, minimum-idle, ...) diretamente sob datasource.replica.
+     */
+    @Bean
+    @ConfigurationProperties("datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public MonitorAtrasoReplica monitorAtrasoReplica(@Qualifier("primarioDataSource") DataSource primario,
+                                                     @Qualifier("replicaDataSource") DataSource replica,
+                                                     @Value("${datasource.replica.atraso-maximo-ms:2000}") long atrasoMaximoMs,
+                                                     MeterRegistry meterRegistry) {
+        return new MonitorAtrasoReplica(primario, replica, Duration.ofMillis(atrasoMaximoMs), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primarioDataSource") DataSource primario,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 MonitorAtrasoReplica monitorAtrasoReplica,
+                                 MeterRegistry meterRegistry) {
+        RoteamentoDataSource roteamento = new RoteamentoDataSource(monitorAtrasoReplica::isReplicaDisponivel, meterRegistry);
+        roteamento.setTargetDataSources(Map.of(
+                RoteamentoDataSource.Rota.PRIMARIO, primario,
+                RoteamentoDataSource.Rota.REPLICA, replica));
+        roteamento.setDefaultTargetDataSource(primario);
+        roteamento.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(roteamento);
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.financas.leitor_transacoes_ia.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import zipkin2.Span;
+import zipkin2.reporter.Reporter;
+
+/**
+ * Sem ZIPKIN_ENDPOINT (e com tracing.zipkin.exportar-sem-endpoint=false, como em produção) os spans
+ * não são exportados: o reporter nulo substitui o assíncrono do Spring Boot, que tentaria enviar ao
+ * endpoint padrão e acumularia spans. O rastreamento continua ativo (ids nos logs e propagação pela fila).
+ */
+@Configuration
+@ConditionalOnExpression("!${tracing.zipkin.exportar-sem-endpoint:true} and '${ZIPKIN_ENDPOINT:}'.isEmpty()")
+@Slf4j
+public class ExportacaoRastreamentoConfig {
+
+    @Bean
+    public Reporter<Span> reporterZipkinDesligado() {
+        log.info("Exportação de spans para o Zipkin desligada (ZIPKIN_ENDPOINT não definido)");
+        // Não Reporter.NOOP: com ele o ZipkinSpanHandler.Builder devolve um SpanHandler de outro tipo e o Boot falha
+        return span -> {
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.financas.leitor_transacoes_ia.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Adia para o primeiro uso os beans que não são necessários para atender (inicializacao.preguicosa.pacotes,
+ * por padrão o springdoc, criado só no primeiro acesso ao /v3/api-docs ou ao swagger-ui). O cliente do
+ * provider de IA é adiado com @Lazy no próprio cliente e no ponto de injeção.
+ * Beans exigidos por outros na subida continuam sendo criados na subida.
+ */
+@Configuration
+@Slf4j
+public class InicializacaoPreguicosaConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor inicializacaoPreguicosa() {
+        return new InicializacaoPreguicosa();
+    }
+
+    private static final class InicializacaoPreguicosa implements BeanFactoryPostProcessor, EnvironmentAware {
+
+        private List<String> pacotes = List.of();
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            if (environment.getProperty("inicializacao.preguicosa.habilitada", Boolean.class, true)) {
+                pacotes = Arrays.stream(environment.getProperty("inicializacao.preguicosa.pacotes", "org.springdoc.").split(","))
+                        .map(String::trim)
+                        .filter(pacote -> !pacote.isEmpty())
+                        .toList();
+            }
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            int adiados = 0;
+            for (String nome : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definicao = beanFactory.getBeanDefinition(nome);
+                String classe = classeDeOrigem(beanFactory, definicao);
+                if (classe != null && definicao.isSingleton() && !definicao.isLazyInit()
+                        && pacotes.stream().anyMatch(classe::startsWith)) {
+                    definicao.setLazyInit(true);
+                    adiados++;
+                }
+            }
+            if (adiados > 0) {
+                log.debug("{} beans com inicialização adiada ({})", adiados, pacotes);
+            }
+        }
+
+        /**
+         * Classe do bean ou, para métodos @Bean, da configuração que o declara
+         */
+        private static String classeDeOrigem(ConfigurableListableBeanFactory beanFactory,
+                                             BeanDefinition definicao) {
+            if (definicao.getBeanClassName() != null) {
+                return definicao.getBeanClassName();
+            }
+            String fabrica = definicao.getFactoryBeanName();
+            if (fabrica != null && beanFactory.containsBeanDefinition(fabrica)) {
+                return beanFactory.getBeanDefinition(fabrica).getBeanClassName();
+            }
+            return null;
+        }
+    }
+}
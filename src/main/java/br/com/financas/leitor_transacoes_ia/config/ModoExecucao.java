@@ -0,0 +1,15 @@
+package br.com.financas.leitor_transacoes_ia.config;
+
+/**
+ * Modos de execução (app.modo-execucao), para escalar API e consumidor separadamente:
+ * api atende uploads/consultas, classifica com a IA e publica na fila; worker só consome a fila;
+ * all (padrão) faz as duas coisas. As expressões são usadas em @ConditionalOnExpression nos beans de cada papel.
+ */
+public final class ModoExecucao {
+
+    public static final String API = "'${app.modo-execucao:all}' != 'worker'";
+    public static final String WORKER = "'${app.modo-execucao:all}' != 'api'";
+
+    private ModoExecucao() {
+    }
+}
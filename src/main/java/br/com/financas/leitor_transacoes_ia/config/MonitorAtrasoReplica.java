@@ -0,0 +1,64 @@
+package br.com.financas.leitor_transacoes_ia.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Mede o atraso da réplica por heartbeat: grava o horário atual no primário e lê o valor replicado.
+ * Se o atraso passar do limite (ou a réplica não responder), as leituras voltam para o primário.
+ */
+@Slf4j
+public class MonitorAtrasoReplica {
+
+    private final JdbcTemplate primario;
+    private final JdbcTemplate replica;
+    private final Duration atrasoMaximo;
+
+    private volatile long atrasoMs = -1;
+    private volatile boolean replicaDisponivel = false;
+
+    public MonitorAtrasoReplica(DataSource primario, DataSource replica, Duration atrasoMaximo, MeterRegistry meterRegistry) {
+        this.primario = new JdbcTemplate(primario);
+        this.replica = new JdbcTemplate(replica);
+        this.atrasoMaximo = atrasoMaximo;
+
+        Gauge.builder("datasource.replica.atraso", this, m -> m.atrasoMs)
+                .description("Atraso estimado da réplica em milissegundos (-1 = indisponível)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.disponivel", this, m -> m.replicaDisponivel ? 1 : 0)
+                .description("1 quando as leituras estão sendo enviadas para a réplica")
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaDisponivel() {
+        return replicaDisponivel;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.heartbeat-ms:1000}")
+    public void verificar() {
+        try {
+            primario.update("UPDATE replica_heartbeat SET batida = ? WHERE id = 1", Timestamp.from(Instant.now()));
+            Timestamp batida = replica.queryForObject("SELECT batida FROM replica_heartbeat WHERE id = 1", Timestamp.class);
+
+            atrasoMs = batida != null ? Math.max(0, Duration.between(batida.toInstant(), Instant.now()).toMillis()) : -1;
+        } catch (Exception e) {
+            log.warn("Erro ao verificar atraso da réplica: {}", e.getMessage());
+            atrasoMs = -1;
+        }
+
+        boolean disponivel = atrasoMs >= 0 && atrasoMs <= atrasoMaximo.toMillis();
+        if (disponivel != replicaDisponivel) {
+            log.info("Leituras {} (atraso da réplica: {} ms)", disponivel ? "voltando para a réplica" : "redirecionadas ao primário", atrasoMs);
+        }
+        replicaDisponivel = disponivel;
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.financas.leitor_transacoes_ia.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Garante a DLQ e a redrive policy das filas de transações: após sqs.dlq.max-recebimentos
+ * entregas sem confirmação, o SQS move a mensagem para a DLQ.
+ * Só liga com sqs.dlq.configurar-redrive=true (perfil dev): exige sqs:CreateQueue/SetQueueAttributes e
+ * sobrescreveria a redrive policy das filas gerenciadas por infraestrutura como código em produção.
+ */
+@Component
+@ConditionalOnExpression("'${fila.modo:sqs}' == 'sqs' and ${sqs.dlq.configurar-redrive:false} and " + ModoExecucao.WORKER)
+@RequiredArgsConstructor
+@Slf4j
+public class RedriveSQSConfig implements ApplicationRunner {
+
+    private final SqsAsyncClient sqsAsyncClient;
+
+    @Value("${sqs.dlq.max-recebimentos:5}")
+    private int maxRecebimentos;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            String urlDlq = sqsAsyncClient.createQueue(req -> req.queueName(SQSConfig.DLQ_QUEUE)).join().queueUrl();
+            String arnDlq = sqsAsyncClient.getQueueAttributes(req -> req
+                            .queueUrl(urlDlq)
+                            .attributeNames(QueueAttributeName.QUEUE_ARN))
+                    .join().attributes().get(QueueAttributeName.QUEUE_ARN);
+
+            String redrivePolicy = "{\"deadLetterTargetArn\":\"" + arnDlq + "\",\"maxReceiveCount\":\"" + maxRecebimentos + "\"}";
+            // As duas raias (pequenos e grandes) compartilham a DLQ
+            for (String fila : List.of(SQSConfig.TRANSACOES_QUEUE, SQSConfig.TRANSACOES_GRANDES_QUEUE)) {
+                String urlFila = sqsAsyncClient.createQueue(req -> req.queueName(fila)).join().queueUrl();
+                sqsAsyncClient.setQueueAttributes(req -> req
+                        .queueUrl(urlFila)
+                        .attributes(Map.of(QueueAttributeName.REDRIVE_POLICY, redrivePolicy))).join();
+
+                log.info("Redrive policy configurada: {} -> {} após {} recebimentos", 
+                        fila, SQSConfig.DLQ_QUEUE, maxRecebimentos);
+            }
+        } catch (Exception e) {
+            log.warn("Não foi possível configurar a redrive policy das filas de transações: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.financas.leitor_transacoes_ia.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que envia transações somente leitura para a réplica e o restante para o primário.
+ * Deve ficar atrás de um LazyConnectionDataSourceProxy para que o flag readOnly da transação
+ * já esteja definido quando a conexão for obtida.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    public enum Rota {
+        PRIMARIO,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> FORCAR_PRIMARIO = new ThreadLocal<>();
+
+    private final BooleanSupplier replicaDisponivel;
+    private final Counter leiturasPrimario;
+    private final Counter leiturasReplica;
+    private final Counter escritas;
+
+    public RoteamentoDataSource(BooleanSupplier replicaDisponivel, MeterRegistry meterRegistry) {
+        this.replicaDisponivel = replicaDisponivel;
+        this.leiturasPrimario = Counter.builder("datasource.roteamento")
+                .tag("rota", "primario").tag("operacao", "leitura")
+                .description("Conexões obtidas por rota")
+                .register(meterRegistry);
+        this.leiturasReplica = Counter.builder("datasource.roteamento")
+                .tag("rota", "replica").tag("operacao", "leitura")
+                .description("Conexões obtidas por rota")
+                .register(meterRegistry);
+        this.escritas = Counter.builder("datasource.roteamento")
+                .tag("rota", "primario").tag("operacao", "escrita")
+                .description("Conexões obtidas por rota")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a operação lendo do primário, mesmo em transações somente leitura.
+     * Usado quando a leitura precisa enxergar escritas recentes (read-your-writes).
+     */
+    public static <T> T noPrimario(Supplier<T> operacao) {
+        Boolean anterior = FORCAR_PRIMARIO.get();
+        FORCAR_PRIMARIO.set(Boolean.TRUE);
+        try {
+            return operacao.get();
+        } finally {
+            if (anterior == null) {
+                FORCAR_PRIMARIO.remove();
+            } else {
+                FORCAR_PRIMARIO.set(anterior);
+            }
+        }
+    }
+
+    public static void noPrimario(Runnable operacao) {
+        noPrimario(() -> {
+            operacao.run();
+            return null;
+        });
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            escritas.increment();
+            return Rota.PRIMARIO;
+        }
+
+        if (Boolean.TRUE.equals(FORCAR_PRIMARIO.get()) || !replicaDisponivel.getAsBoolean()) {
+            leiturasPrimario.increment();
+            return Rota.PRIMARIO;
+        }
+
+        leiturasReplica.increment();
+        return Rota.REPLICA;
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.financas.leitor_transacoes_ia.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.net.URI;
+
+@Configuration
+@ConditionalOnProperty(name = "claim-check.armazenamento", havingValue = "s3")
+public class S3Config {
+
+    @Value("${aws.region:us-east-1}")
+    private String awsRegion;
+
+    // MinIO/LocalStack em desenvolvimento; vazio usa o endpoint padrão da AWS
+    @Value("${claim-check.s3.endpoint:}")
+    private String s3Endpoint;
+
+    @Bean
+    public S3Client s3Client(AwsCredentialsProvider credentialsProvider) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(awsRegion))
+                .credentialsProvider(credentialsProvider);
+
+        if (!s3Endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(s3Endpoint))
+                    .forcePathStyle(true);
+        }
+        return builder.build();
+    }
+}
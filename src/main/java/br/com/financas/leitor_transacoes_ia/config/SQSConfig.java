@@ -3,9 +3,15 @@ package br.com.financas.leitor_transacoes_ia.config;
 import io.awspring.cloud.sqs.config.SqsMessageListenerContainerFactory;
 import io.awspring.cloud.sqs.listener.acknowledgement.handler.AcknowledgementMode;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
@@ -14,20 +20,52 @@ import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 
 import java.time.Duration;
 import java.net.URI;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 public class SQSConfig {
 
     // Nomes das filas - podem ser injetados via properties também
     public static final String TRANSACOES_QUEUE = "financas-transacoes-processadas";
+    // Raia de documentos grandes: fila e listener próprios, para não atrasar os pequenos
+    public static final String TRANSACOES_GRANDES_QUEUE = "financas-transacoes-processadas-grandes";
     public static final String DLQ_QUEUE = "financas-transacoes-dlq";
 
+    // Atributo com a codificação do corpo (ausente = JSON puro; "gzip" = JSON gzip em base64)
+    public static final String ATRIBUTO_CODIFICACAO = "contentEncoding";
+    public static final String CODIFICACAO_GZIP = "gzip";
+
+    // Executor limitado onde o consumidor processa as mensagens de cada lote em paralelo
+    public static final String EXECUTOR_CONSUMIDOR = "executorConsumidorSqs";
+    public static final String EXECUTOR_CONSUMIDOR_GRANDES = "executorConsumidorSqsGrandes";
+
     @Value("${aws.region:us-east-1}")
     private String awsRegion;
 
     @Value("${aws.sqs.endpoint:}")
     private String sqsEndpoint;
 
+    @Value("${sqs.listener.max-concurrent-messages:10}")
+    private int maxConcurrentMessages;
+
+    @Value("${sqs.listener.max-messages-per-poll:10}")
+    private int maxMessagesPerPoll;
+
+    @Value("${sqs.listener.poll-timeout-segundos:20}")
+    private int pollTimeoutSegundos;
+
+    @Value("${sqs.listener.visibilidade-segundos:60}")
+    private int visibilidadeSegundos;
+
+    @Value("${sqs.listener.threads-processamento:4}")
+    private int threadsProcessamento;
+
+    @Value("${sqs.listener.grandes.max-concurrent-messages:2}")
+    private int maxConcurrentMessagesGrandes;
+
+    @Value("${sqs.listener.grandes.threads-processamento:2}")
+    private int threadsProcessamentoGrandes;
+
     @Bean
     @Profile("!dev") // Para produção e outros ambientes
     public SqsAsyncClient sqsAsyncClientProduction(AwsCredentialsProvider credentialsProvider) {
@@ -56,11 +94,47 @@ public class SQSConfig {
         return SqsMessageListenerContainerFactory.builder()
                 .sqsAsyncClient(sqsAsyncClient)
                 .configure(options -> options
-                        .acknowledgementMode(AcknowledgementMode.ALWAYS)
-                        .maxMessagesPerPoll(5)
-                        .pollTimeout(Duration.ofSeconds(20))
-                        .maxConcurrentMessages(5) // Bom para controlar concorrência
+                        // Mensagens que falham não são confirmadas: voltam à fila e, pela redrive policy, vão para a DLQ
+                        .acknowledgementMode(AcknowledgementMode.ON_SUCCESS)
+                        .maxMessagesPerPoll(maxMessagesPerPoll)
+                        .pollTimeout(Duration.ofSeconds(pollTimeoutSegundos))
+                        .maxConcurrentMessages(maxConcurrentMessages)
+                        .messageVisibility(Duration.ofSeconds(visibilidadeSegundos))
                 )
                 .build();
     }
+
+    @Bean(name = EXECUTOR_CONSUMIDOR)
+    @ConditionalOnExpression(ModoExecucao.WORKER)
+    public AsyncTaskExecutor executorConsumidorSqs(Environment environment) {
+        return executorConsumidor(environment, threadsProcessamento, maxConcurrentMessages, "sqs-consumidor-");
+    }
+
+    @Bean(name = EXECUTOR_CONSUMIDOR_GRANDES)
+    @ConditionalOnExpression(ModoExecucao.WORKER)
+    public AsyncTaskExecutor executorConsumidorSqsGrandes(Environment environment) {
+        return executorConsumidor(environment, threadsProcessamentoGrandes, maxConcurrentMessagesGrandes, "sqs-consumidor-grandes-");
+    }
+
+    private AsyncTaskExecutor executorConsumidor(Environment environment, int threads, int mensagensEmVoo, String prefixo) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Uma thread virtual por mensagem: o que limita é o número de mensagens em voo, não o pool
+            // (a espera pela IA e pelo JDBC não ocupa thread de plataforma); acima do limite, quem submete espera
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefixo);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(mensagensEmVoo);
+            executor.setTaskTerminationTimeout(Duration.ofSeconds(visibilidadeSegundos).toMillis());
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        // Fila do tamanho das mensagens em voo; se encher, a thread do listener processa (backpressure)
+        executor.setQueueCapacity(mensagensEmVoo);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix(prefixo);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(visibilidadeSegundos);
+        return executor;
+    }
 }
\ No newline at end of file
@@ -34,6 +34,10 @@ public class SecurityConfig {
     @Value("${security.enabled:false}")
     private boolean securityEnabled;
 
+    // Escopo OAuth2 do token (claim scope, prefixo SCOPE_) exigido nos endpoints de diagnóstico
+    @Value("${diagnostico.autoridade:SCOPE_leitor-transacoes/diagnostico}")
+    private String autoridadeDiagnostico;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         log.info("Configurando segurança - enabled: {}", securityEnabled);
@@ -76,6 +80,8 @@ public class SecurityConfig {
             .csrf(AbstractHttpConfigurer::disable)
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .authorizeHttpRequests(authz -> authz
+                .requestMatchers("/actuator/jfr/**", "/actuator/diagnostico/**", "/actuator/persistencia/**")
+                .hasAuthority(autoridadeDiagnostico) // Gravações JFR trazem variáveis de ambiente e propriedades do sistema (credenciais)
                 .requestMatchers("/actuator/**", "/swagger-ui/**", "/v3/api-docs/**", "/favicon.ico")
                 .permitAll()
                 .requestMatchers("/api/v1/leitor/**").authenticated() // Proteger endpoints da API
@@ -0,0 +1,33 @@
+package br.com.financas.leitor_transacoes_ia.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Modo de threads virtuais (spring.threads.virtual.enabled, só em Java 21+): o Tomcat passa a atender cada
+ * requisição (inclusive a chamada bloqueante à IA) numa thread virtual, e os executors do consumidor
+ * (SQS e fila local) criam threads virtuais. As threads do container SQS que fazem o polling continuam
+ * de plataforma. Em Java 17 a propriedade é ignorada e tudo roda no modo de plataforma.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class ThreadsVirtuaisConfig {
+
+    private final Environment environment;
+
+    @PostConstruct
+    public void registrarModo() {
+        boolean solicitado = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Modo de threads virtuais ativo (Java {})", Runtime.version().feature());
+        } else if (solicitado) {
+            log.warn("spring.threads.virtual.enabled=true ignorado: threads virtuais exigem Java 21+ (atual: {})",
+                    Runtime.version().feature());
+        }
+    }
+}
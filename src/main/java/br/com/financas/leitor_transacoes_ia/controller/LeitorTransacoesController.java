@@ -6,13 +6,22 @@ import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoDTO;
 import br.com.financas.leitor_transacoes_ia.model.dto.ProcessamentoDTO;
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoRepresentationAssembler;
 import br.com.financas.leitor_transacoes_ia.model.dto.ProcessamentoRepresentationAssembler;
+import br.com.financas.leitor_transacoes_ia.model.dto.ResumoMensalDTO;
 import br.com.financas.leitor_transacoes_ia.model.entity.Transacao;
 import br.com.financas.leitor_transacoes_ia.model.entity.Processamento;
+import br.com.financas.leitor_transacoes_ia.model.projection.UsoIAProjecao;
 import br.com.financas.leitor_transacoes_ia.repository.TransacaoRepository;
+import br.com.financas.leitor_transacoes_ia.search.BuscaTransacoesService;
 import br.com.financas.leitor_transacoes_ia.service.AIClassificadorService;
+import br.com.financas.leitor_transacoes_ia.service.AgendadorJustoIA;
+import br.com.financas.leitor_transacoes_ia.service.ControleAdmissaoMemoria;
 import br.com.financas.leitor_transacoes_ia.service.ExtratorTextoService;
-import br.com.financas.leitor_transacoes_ia.service.PublicadorSQSService;
+import br.com.financas.leitor_transacoes_ia.service.MetricasPipeline;
+import br.com.financas.leitor_transacoes_ia.service.MetricasPipeline.Etapa;
 import br.com.financas.leitor_transacoes_ia.service.ProcessamentoService;
+import br.com.financas.leitor_transacoes_ia.service.ResumoMensalService;
+import br.com.financas.leitor_transacoes_ia.config.ModoExecucao;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.hateoas.CollectionModel;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,21 +31,28 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/leitor")
+@ConditionalOnExpression(ModoExecucao.API)
 @RequiredArgsConstructor
 @Slf4j
 @Tag(name = "Leitor de Transações IA", description = "API para processamento inteligente de documentos financeiros")
@@ -44,11 +60,15 @@ public class LeitorTransacoesController {
     
     private final ExtratorTextoService extratorTextoService;
     private final AIClassificadorService aiClassificadorService;
-    private final PublicadorSQSService publicadorSQSService;
     private final TransacaoRepository transacaoRepository;
     private final ProcessamentoService processamentoService;
     private final TransacaoRepresentationAssembler transacaoAssembler;
     private final ProcessamentoRepresentationAssembler processamentoAssembler;
+    private final ResumoMensalService resumoMensalService;
+    private final BuscaTransacoesService buscaTransacoesService;
+    private final AgendadorJustoIA agendadorJustoIA;
+    private final ControleAdmissaoMemoria controleAdmissaoMemoria;
+    private final MetricasPipeline metricasPipeline;
     
     @Value("${upload.max-file-size:52428800}") // 50MB
     private long maxFileSize;
@@ -64,7 +84,9 @@ public class LeitorTransacoesController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Documento processado com sucesso"),
         @ApiResponse(responseCode = "400", description = "Arquivo inválido ou não suportado"),
-        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+        @ApiResponse(responseCode = "429", description = "Sem memória disponível para o upload; tente após Retry-After"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor"),
+        @ApiResponse(responseCode = "503", description = "Capacidade de IA ocupada por tempo demais")
     })
     public ResponseEntity<Map<String, Object>> processarDocumento(
             @Parameter(description = "Arquivo PDF ou CSV para processamento")
@@ -85,41 +107,55 @@ public class LeitorTransacoesController {
         
         try {
             // Validações
+            long inicioValidacao = System.nanoTime();
             if (arquivo.isEmpty()) {
+                metricasPipeline.registrar(Etapa.VALIDACAO, banco, tipoDocumento, inicioValidacao, false);
                 return ResponseEntity.badRequest()
                     .body(Map.of("erro", "Arquivo não pode estar vazio"));
             }
             
             if (!extratorTextoService.isArquivoSuportado(arquivo)) {
+                metricasPipeline.registrar(Etapa.VALIDACAO, banco, tipoDocumento, inicioValidacao, false);
                 return ResponseEntity.badRequest()
                     .body(Map.of("erro", "Tipo de arquivo não suportado. Use PDF ou CSV"));
             }
             
             if (!extratorTextoService.isTamanhoValido(arquivo, maxFileSize)) {
+                metricasPipeline.registrar(Etapa.VALIDACAO, banco, tipoDocumento, inicioValidacao, false);
                 return ResponseEntity.badRequest()
                     .body(Map.of("erro", "Arquivo muito grande. Máximo: " + (maxFileSize / 1024 / 1024) + "MB"));
             }
-            
-            // Extrair texto
-            String textoExtraido = extratorTextoService.extrairTexto(arquivo);
-            
-            // Criar processamento
-            Processamento processamento = processamentoService.criarProcessamento(
-                arquivo.getOriginalFilename(), banco, moeda, tipoDocumento);
-
-            // Classificar com IA
-            TransacaoAIDTO transacoesClassificadas = aiClassificadorService.processarDocumento(textoExtraido, banco, moeda, tipoDocumento);
-            
-            // Incluir ID do processamento
-            transacoesClassificadas.setProcessamentoId(processamento.getProcessamentoId());
-
-            // Publicar no SQS
-            publicadorSQSService.publicarTransacoes(transacoesClassificadas, banco, tipoDocumento);
+            metricasPipeline.registrar(Etapa.VALIDACAO, banco, tipoDocumento, inicioValidacao, true);
+            
+            TransacaoAIDTO transacoesClassificadas;
+            Processamento processamento;
+            // Reserva a memória do upload até a publicação (sem orçamento: espera ou 429); na fila da IA só o arquivo
+            try (ControleAdmissaoMemoria.Reserva reserva = controleAdmissaoMemoria.reservarArquivo(arquivo.getSize())) {
+                // Extrair texto e classificar com IA, na vez do usuário (fila justa entre usuários)
+                transacoesClassificadas = agendadorJustoIA.executar(arquivo.getSize(), () -> {
+                    reserva.completar(arquivo.getContentType());
+                    long inicioExtracao = System.nanoTime();
+                    try {
+                        String textoExtraido = extratorTextoService.extrairTexto(arquivo);
+                        metricasPipeline.registrar(Etapa.EXTRACAO, banco, tipoDocumento, inicioExtracao, true);
+                        return aiClassificadorService.processarDocumento(textoExtraido, banco, moeda, tipoDocumento);
+                    } catch (IOException e) {
+                        metricasPipeline.registrar(Etapa.EXTRACAO, banco, tipoDocumento, inicioExtracao, false);
+                        throw new RuntimeException("Erro ao extrair texto do arquivo", e);
+                    }
+                });
+                
+                // Criar processamento e registrar a publicação no SQS (outbox, mesma transação)
+                processamento = metricasPipeline.medir(Etapa.PUBLICACAO, banco, tipoDocumento,
+                    () -> processamentoService.criarProcessamento(
+                        arquivo.getOriginalFilename(), banco, moeda, tipoDocumento, transacoesClassificadas));
+            }
             
             // Resposta de sucesso
             Map<String, Object> resposta = new HashMap<>();
             resposta.put("mensagem", "Documento processado com sucesso");
             resposta.put("requestId", requestId);
+            resposta.put("processamentoId", processamento.getProcessamentoId());
             resposta.put("totalTransacoes", transacoesClassificadas.getTotalTransacoes());
             resposta.put("banco", transacoesClassificadas.getBanco());
             resposta.put("moeda", transacoesClassificadas.getMoeda());
@@ -131,6 +167,30 @@ public class LeitorTransacoesController {
             
             return ResponseEntity.ok(resposta);
             
+        } catch (ControleAdmissaoMemoria.MemoriaEsgotadaException e) {
+            log.warn("Processamento recusado por falta de memória. Request ID: {}: {}", requestId, e.getMessage());
+            
+            Map<String, Object> erro = new HashMap<>();
+            erro.put("erro", "Servidor ocupado com outros documentos. Tente novamente em instantes");
+            erro.put("requestId", requestId);
+            erro.put("status", "ERRO");
+            
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+                .body(erro);
+            
+        } catch (AgendadorJustoIA.EsperaExcedidaException e) {
+            log.warn("Processamento recusado por falta de capacidade. Request ID: {}: {}", requestId, e.getMessage());
+            
+            Map<String, Object> erro = new HashMap<>();
+            erro.put("erro", "Muitos documentos em processamento. Tente novamente em instantes");
+            erro.put("requestId", requestId);
+            erro.put("status", "ERRO");
+            
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+                .body(erro);
+            
         } catch (Exception e) {
             log.error("Erro ao processar documento. Request ID: {}, Erro: {}", requestId, e.getMessage(), e);
             
@@ -180,8 +240,8 @@ public class LeitorTransacoesController {
         try {
             log.info("Listando todas as transações");
             
-            var transacoes = transacaoRepository.findAll();
-            CollectionModel<TransacaoDTO> transacoesDTO = transacaoAssembler.toCollectionModel(transacoes);
+            var transacoes = transacaoRepository.findAllProjetadas();
+            CollectionModel<TransacaoDTO> transacoesDTO = transacaoAssembler.toCollectionModelDeProjecoes(transacoes);
             
             log.info("Listagem concluída. Total de transações: {}", transacoes.size());
             
@@ -193,6 +253,69 @@ public class LeitorTransacoesController {
         }
     }
     
+    /**
+     * Busca textual em lançamento e detalhes
+     */
+    @GetMapping("/transacoes/busca")
+    @Operation(
+        summary = "Buscar transações por texto",
+        description = "Busca aproximada (trigramas) em lançamento e detalhes, ordenada por relevância"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados da busca retornados com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Consulta inválida"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<Map<String, Object>> buscarTransacoes(
+            @Parameter(description = "Texto a buscar (ex: 'uber', 'mercado livre')")
+            @RequestParam String q,
+            
+            @Parameter(description = "Quantidade máxima de resultados")
+            @RequestParam(defaultValue = "20") int limite) {
+        if (q.isBlank() || limite < 1 || limite > 200) {
+            Map<String, Object> erro = new HashMap<>();
+            erro.put("erro", "Informe uma consulta e um limite entre 1 e 200");
+            erro.put("status", "ERRO");
+            return ResponseEntity.badRequest().body(erro);
+        }
+        
+        try {
+            long inicio = System.nanoTime();
+            var resultados = buscaTransacoesService.buscar(q, limite);
+            long tempoMs = (System.nanoTime() - inicio) / 1_000_000;
+            
+            var transacoes = transacaoAssembler.toCollectionModelDeProjecoes(
+                    resultados.stream().map(BuscaTransacoesService.Resultado::transacao).toList());
+            var itens = new ArrayList<Map<String, Object>>(resultados.size());
+            int posicao = 0;
+            for (TransacaoDTO transacao : transacoes.getContent()) {
+                itens.add(Map.of(
+                        "pontuacao", resultados.get(posicao++).pontuacao(),
+                        "transacao", transacao));
+            }
+            
+            Map<String, Object> resposta = new HashMap<>();
+            resposta.put("consulta", q);
+            resposta.put("total", itens.size());
+            resposta.put("tempoMs", tempoMs);
+            resposta.put("resultados", itens);
+            resposta.put("status", "SUCESSO");
+            
+            log.info("Busca '{}' concluída: {} resultados em {} ms", q, itens.size(), tempoMs);
+            
+            return ResponseEntity.ok(resposta);
+            
+        } catch (Exception e) {
+            log.error("Erro ao buscar transações '{}': {}", q, e.getMessage(), e);
+            
+            Map<String, Object> erro = new HashMap<>();
+            erro.put("erro", "Erro interno do servidor");
+            erro.put("status", "ERRO");
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(erro);
+        }
+    }
+    
     /**
      * Lista transações por banco
      */
@@ -282,6 +405,174 @@ public class LeitorTransacoesController {
         }
     }
 
+    /**
+     * Resumo mensal por banco e categoria
+     */
+    @GetMapping("/resumos")
+    @Operation(
+        summary = "Resumo mensal por categoria",
+        description = "Retorna totais mensais por banco, categoria e moeda do usuário (formato dos meses: yyyy-MM)"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resumo retornado com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Parâmetros de mês inválidos"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<Map<String, Object>> listarResumoMensal(
+            @Parameter(description = "Mês de início (yyyy-MM)")
+            @RequestParam String inicio,
+            
+            @Parameter(description = "Mês de fim (yyyy-MM)")
+            @RequestParam String fim) {
+        try {
+            log.info("Listando resumo mensal: {} a {}", inicio, fim);
+            
+            var mesInicio = YearMonth.parse(inicio);
+            var mesFim = YearMonth.parse(fim);
+            
+            var resumos = resumoMensalService.listar(mesInicio, mesFim).stream()
+                    .map(ResumoMensalDTO::de)
+                    .toList();
+            
+            Map<String, Object> resposta = new HashMap<>();
+            resposta.put("periodo", Map.of("inicio", inicio, "fim", fim));
+            resposta.put("total", resumos.size());
+            resposta.put("resumos", resumos);
+            resposta.put("status", "SUCESSO");
+            
+            return ResponseEntity.ok(resposta);
+            
+        } catch (DateTimeParseException e) {
+            log.error("Parâmetros de mês inválidos {} a {}: {}", inicio, fim, e.getMessage());
+            
+            Map<String, Object> erro = new HashMap<>();
+            erro.put("erro", "Erro ao processar parâmetros de mês");
+            erro.put("status", "ERRO");
+            
+            return ResponseEntity.badRequest().body(erro);
+            
+        } catch (Exception e) {
+            log.error("Erro ao listar resumo mensal {} a {}: {}", inicio, fim, e.getMessage(), e);
+            
+            Map<String, Object> erro = new HashMap<>();
+            erro.put("erro", "Erro interno do servidor");
+            erro.put("status", "ERRO");
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(erro);
+        }
+    }
+    
+    /**
+     * Reconstrói o resumo mensal do usuário a partir das transações salvas
+     */
+    @PostMapping("/resumos/reconstruir")
+    @Operation(
+        summary = "Reconstruir resumo mensal",
+        description = "Recalcula o resumo mensal do usuário a partir das transações salvas (backfill)"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resumo reconstruído com sucesso"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<Map<String, Object>> reconstruirResumoMensal() {
+        try {
+            int linhas = resumoMensalService.reconstruir();
+            
+            Map<String, Object> resposta = new HashMap<>();
+            resposta.put("mensagem", "Resumo mensal reconstruído com sucesso");
+            resposta.put("linhas", linhas);
+            resposta.put("status", "SUCESSO");
+            
+            return ResponseEntity.ok(resposta);
+            
+        } catch (Exception e) {
+            log.error("Erro ao reconstruir resumo mensal: {}", e.getMessage(), e);
+            
+            Map<String, Object> erro = new HashMap<>();
+            erro.put("erro", "Erro interno do servidor");
+            erro.put("status", "ERRO");
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(erro);
+        }
+    }
+
+    /**
+     * Uso de IA (tokens e custo estimado) do usuário no período
+     */
+    @GetMapping("/uso-ia")
+    @Operation(
+        summary = "Uso de IA por período",
+        description = "Retorna tokens de entrada, saída e cache e o custo estimado do usuário por provider e modelo, "
+                + "somando os processamentos criados entre as datas (yyyy-MM-dd, inclusivas)"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Uso retornado com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Parâmetros de data inválidos"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<Map<String, Object>> consultarUsoIA(
+            @Parameter(description = "Data de início (yyyy-MM-dd)")
+            @RequestParam String inicio,
+            
+            @Parameter(description = "Data de fim (yyyy-MM-dd)")
+            @RequestParam String fim) {
+        try {
+            log.info("Consultando uso de IA: {} a {}", inicio, fim);
+            
+            LocalDate dataInicio = LocalDate.parse(inicio);
+            LocalDate dataFim = LocalDate.parse(fim);
+            if (dataFim.isBefore(dataInicio)) {
+                Map<String, Object> erro = new HashMap<>();
+                erro.put("erro", "Data de fim anterior à data de início");
+                erro.put("status", "ERRO");
+                
+                return ResponseEntity.badRequest().body(erro);
+            }
+            
+            List<UsoIAProjecao> uso = processamentoService.listarUsoIA(
+                    dataInicio.atStartOfDay(), dataFim.plusDays(1).atStartOfDay());
+            
+            Map<String, Object> totais = new HashMap<>();
+            totais.put("documentos", uso.stream().mapToLong(u -> valor(u.documentos())).sum());
+            totais.put("tokensEntrada", uso.stream().mapToLong(u -> valor(u.tokensEntrada())).sum());
+            totais.put("tokensSaida", uso.stream().mapToLong(u -> valor(u.tokensSaida())).sum());
+            totais.put("tokensCache", uso.stream().mapToLong(u -> valor(u.tokensCache())).sum());
+            totais.put("custoEstimado", uso.stream()
+                    .map(u -> u.custoEstimado() != null ? u.custoEstimado() : BigDecimal.ZERO)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+            
+            Map<String, Object> resposta = new HashMap<>();
+            resposta.put("periodo", Map.of("inicio", inicio, "fim", fim));
+            resposta.put("totais", totais);
+            resposta.put("porModelo", uso);
+            resposta.put("status", "SUCESSO");
+            
+            return ResponseEntity.ok(resposta);
+            
+        } catch (DateTimeParseException e) {
+            log.error("Parâmetros de data inválidos {} a {}: {}", inicio, fim, e.getMessage());
+            
+            Map<String, Object> erro = new HashMap<>();
+            erro.put("erro", "Erro ao processar parâmetros de data");
+            erro.put("status", "ERRO");
+            
+            return ResponseEntity.badRequest().body(erro);
+            
+        } catch (Exception e) {
+            log.error("Erro ao consultar uso de IA {} a {}: {}", inicio, fim, e.getMessage(), e);
+            
+            Map<String, Object> erro = new HashMap<>();
+            erro.put("erro", "Erro interno do servidor");
+            erro.put("status", "ERRO");
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(erro);
+        }
+    }
+    
+    private static long valor(Long quantidade) {
+        return quantidade != null ? quantidade : 0;
+    }
+
     /**
      * Lista todos os processamentos
      */
@@ -298,8 +589,8 @@ public class LeitorTransacoesController {
         try {
             log.info("Listando todos os processamentos");
 
-            var processamentos = processamentoService.listarProcessamentos();
-            CollectionModel<ProcessamentoDTO> processamentosDTO = processamentoAssembler.toCollectionModel(processamentos);
+            var processamentos = processamentoService.listarProcessamentosProjetados();
+            CollectionModel<ProcessamentoDTO> processamentosDTO = processamentoAssembler.toCollectionModelDeProjecoes(processamentos);
 
             log.info("Listagem concluída. Total de processamentos: {}", processamentos.size());
 
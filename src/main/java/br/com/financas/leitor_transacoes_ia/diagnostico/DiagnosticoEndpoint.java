@@ -0,0 +1,109 @@
+package br.com.financas.leitor_transacoes_ia.diagnostico;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Resumo dos pontos quentes (/actuator/diagnostico): top alocações e contenções do {@link MonitorPontosQuentes},
+ * estado dos executors do serviço e threads da JVM agrupadas por pool (nome sem o sufixo numérico),
+ * o que cobre também os pools internos que não são beans (fila local, relay do outbox, Tomcat).
+ * No modo de threads virtuais, inclui as fixações recentes do {@link MonitorFixacaoThreadsVirtuais}.
+ */
+@Component
+@Endpoint(id = "diagnostico")
+@RequiredArgsConstructor
+public class DiagnosticoEndpoint {
+
+    private static final int LIMITE_PADRAO = 10;
+
+    private final ObjectProvider<MonitorPontosQuentes> monitorPontosQuentes;
+    private final ObjectProvider<MonitorFixacaoThreadsVirtuais> monitorFixacao;
+    private final ListableBeanFactory beanFactory;
+    private final Environment environment;
+
+    @ReadOperation
+    public Map<String, Object> resumo(@Nullable Integer limite) {
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        MonitorPontosQuentes monitor = monitorPontosQuentes.getIfAvailable();
+        resumo.put("pontosQuentes", monitor != null
+                ? monitor.resumo(limite != null && limite > 0 ? limite : LIMITE_PADRAO)
+                : Map.of("habilitado", false));
+        resumo.put("executors", executors());
+        resumo.put("threads", threadsPorPool());
+        resumo.put("threadsVirtuais", threadsVirtuais());
+        return resumo;
+    }
+
+    private Map<String, Object> executors() {
+        Map<String, Object> executors = new TreeMap<>();
+        // Só singletons já criados: não instancia beans lazy nem dispara factory beans
+        beanFactory.getBeansOfType(Executor.class, false, false).forEach((nome, executor) -> {
+            ThreadPoolExecutor pool = executor instanceof ThreadPoolTaskExecutor tarefa
+                    ? tarefa.getThreadPoolExecutor()
+                    : executor instanceof ThreadPoolExecutor tpe ? tpe : null;
+            if (pool != null) {
+                Map<String, Object> estado = new LinkedHashMap<>();
+                estado.put("ativas", pool.getActiveCount());
+                estado.put("pool", pool.getPoolSize());
+                estado.put("core", pool.getCorePoolSize());
+                estado.put("maximo", pool.getMaximumPoolSize());
+                estado.put("maiorPool", pool.getLargestPoolSize());
+                estado.put("fila", pool.getQueue().size());
+                estado.put("filaRestante", pool.getQueue().remainingCapacity());
+                estado.put("concluidas", pool.getCompletedTaskCount());
+                executors.put(nome, estado);
+            } else if (executor instanceof SimpleAsyncTaskExecutor simples) {
+                // Uma thread (virtual) por tarefa: só o limite de concorrência é relevante
+                executors.put(nome, Map.of("porTarefa", true, "limiteConcorrencia", simples.getConcurrencyLimit()));
+            }
+        });
+        return executors;
+    }
+
+    private Map<String, Object> threadsVirtuais() {
+        Map<String, Object> virtuais = new LinkedHashMap<>();
+        virtuais.put("ativas", Threading.VIRTUAL.isActive(environment));
+        MonitorFixacaoThreadsVirtuais monitor = monitorFixacao.getIfAvailable();
+        if (monitor != null) {
+            virtuais.put("fixacoesRecentes", monitor.fixacoesRecentes());
+        }
+        return virtuais;
+    }
+
+    private Map<String, Object> threadsPorPool() {
+        // Só threads de plataforma: o ThreadMXBean não enxerga as virtuais
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Map<String, Map<Thread.State, Integer>> porPool = new TreeMap<>();
+        for (ThreadInfo info : threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds())) {
+            if (info != null) {
+                String pool = info.getThreadName().replaceAll("[-_#\\s]*\\d+$", "");
+                porPool.computeIfAbsent(pool, k -> new EnumMap<>(Thread.State.class))
+                        .merge(info.getThreadState(), 1, Integer::sum);
+            }
+        }
+        Map<String, Object> threads = new LinkedHashMap<>();
+        threads.put("total", threadMXBean.getThreadCount());
+        threads.put("pico", threadMXBean.getPeakThreadCount());
+        threads.put("pools", porPool);
+        return threads;
+    }
+}
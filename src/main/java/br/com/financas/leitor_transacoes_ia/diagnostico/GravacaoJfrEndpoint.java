@@ -0,0 +1,190 @@
+package br.com.financas.leitor_transacoes_ia.diagnostico;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gravações JFR sob demanda (/actuator/jfr), para investigar lentidões em tarefas onde não dá para anexar profiler:
+ * POST inicia (perfil default | profile, duração), GET /{id} baixa o .jfr (um snapshot, se ainda estiver gravando),
+ * POST /{id} encerra antes do prazo e DELETE /{id} descarta. Desligado por padrão em produção
+ * (management.endpoint.jfr.enabled).
+ */
+@Component
+@Endpoint(id = "jfr")
+@Slf4j
+public class GravacaoJfrEndpoint {
+
+    private final Map<Long, Gravacao> gravacoes = new ConcurrentHashMap<>();
+
+    @Value("${diagnostico.jfr.duracao-maxima-segundos:600}")
+    private long duracaoMaximaSegundos;
+
+    @Value("${diagnostico.jfr.max-gravacoes:2}")
+    private int maxGravacoes;
+
+    @Value("${diagnostico.jfr.diretorio:${java.io.tmpdir}/financas-jfr}")
+    private Path diretorio;
+
+    private record Gravacao(Recording recording, String perfil, Path arquivo) {
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> listar() {
+        List<Map<String, Object>> lista = new ArrayList<>();
+        gravacoes.values().forEach(gravacao -> lista.add(descrever(gravacao)));
+        return lista;
+    }
+
+    /**
+     * Inicia uma gravação; ao fim da duração ela para sozinha e fica disponível para download
+     *
+     * @param perfil          Configuração do JFR: default (padrão, ~1% de overhead) ou profile (mais detalhe, ~2%)
+     * @param duracaoSegundos Limitada a diagnostico.jfr.duracao-maxima-segundos
+     */
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> iniciar(@Nullable String perfil, @Nullable Long duracaoSegundos) {
+        if (gravacoes.size() >= maxGravacoes) {
+            return erro(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS,
+                    "Limite de " + maxGravacoes + " gravações atingido; descarte uma com DELETE /actuator/jfr/{id}");
+        }
+        String nomePerfil = perfil != null ? perfil : "default";
+        Configuration configuracao;
+        try {
+            configuracao = Configuration.getConfiguration(nomePerfil);
+        } catch (IOException | java.text.ParseException e) {
+            return erro(WebEndpointResponse.STATUS_BAD_REQUEST, "Perfil JFR inválido: " + nomePerfil + " (use default ou profile)");
+        }
+        long duracao = Math.min(duracaoSegundos != null && duracaoSegundos > 0 ? duracaoSegundos : 60, duracaoMaximaSegundos);
+
+        try {
+            Files.createDirectories(diretorio);
+            Recording recording = new Recording(configuracao);
+            recording.setName("financas-" + Instant.now().toEpochMilli());
+            recording.setToDisk(true);
+            recording.setDuration(Duration.ofSeconds(duracao));
+            Path arquivo = diretorio.resolve(recording.getName() + ".jfr");
+            recording.setDestination(arquivo);
+            recording.start();
+            Gravacao gravacao = new Gravacao(recording, nomePerfil, arquivo);
+            gravacoes.put(recording.getId(), gravacao);
+            log.info("Gravação JFR {} iniciada: perfil {}, {}s", recording.getId(), nomePerfil, duracao);
+            return new WebEndpointResponse<>(descrever(gravacao));
+        } catch (IOException e) {
+            log.error("Erro ao iniciar gravação JFR: {}", e.getMessage(), e);
+            return erro(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR, "Erro ao iniciar gravação JFR: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Arquivo .jfr da gravação; se ainda estiver gravando, um snapshot do que já foi coletado
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> baixar(@Selector long id) {
+        Gravacao gravacao = gravacoes.get(id);
+        if (gravacao == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            Path arquivo = gravacao.arquivo();
+            if (gravacao.recording().getState() == RecordingState.RUNNING) {
+                arquivo = diretorio.resolve(gravacao.recording().getName() + "-parcial.jfr");
+                gravacao.recording().dump(arquivo);
+            }
+            if (!Files.exists(arquivo)) {
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+            return new WebEndpointResponse<>(new FileSystemResource(arquivo));
+        } catch (IOException e) {
+            log.error("Erro ao gerar arquivo da gravação JFR {}: {}", id, e.getMessage(), e);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Encerra a gravação antes do prazo, mantendo o arquivo para download
+     */
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> parar(@Selector long id) {
+        Gravacao gravacao = gravacoes.get(id);
+        if (gravacao == null) {
+            return erro(WebEndpointResponse.STATUS_NOT_FOUND, "Gravação " + id + " não encontrada");
+        }
+        if (gravacao.recording().getState() == RecordingState.RUNNING) {
+            gravacao.recording().stop();
+            log.info("Gravação JFR {} encerrada", id);
+        }
+        return new WebEndpointResponse<>(descrever(gravacao));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Map<String, Object>> descartar(@Selector long id) {
+        Gravacao gravacao = gravacoes.remove(id);
+        if (gravacao == null) {
+            return erro(WebEndpointResponse.STATUS_NOT_FOUND, "Gravação " + id + " não encontrada");
+        }
+        fechar(gravacao);
+        return new WebEndpointResponse<>(Map.of("status", "SUCESSO", "id", id));
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        gravacoes.values().forEach(this::fechar);
+        gravacoes.clear();
+    }
+
+    private void fechar(Gravacao gravacao) {
+        gravacao.recording().close();
+        try {
+            Files.deleteIfExists(gravacao.arquivo());
+            Files.deleteIfExists(diretorio.resolve(gravacao.recording().getName() + "-parcial.jfr"));
+        } catch (IOException e) {
+            log.warn("Erro ao remover arquivo da gravação JFR {}: {}", gravacao.recording().getId(), e.getMessage());
+        }
+    }
+
+    private Map<String, Object> descrever(Gravacao gravacao) {
+        Recording recording = gravacao.recording();
+        Map<String, Object> descricao = new LinkedHashMap<>();
+        descricao.put("id", recording.getId());
+        descricao.put("nome", recording.getName());
+        descricao.put("perfil", gravacao.perfil());
+        descricao.put("estado", recording.getState().name());
+        descricao.put("inicio", recording.getStartTime());
+        descricao.put("duracaoSegundos", recording.getDuration() != null ? recording.getDuration().toSeconds() : null);
+        descricao.put("tamanhoBytes", recording.getSize());
+        return descricao;
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> erro(int status, String mensagem) {
+        Map<String, Object> erro = new HashMap<>();
+        erro.put("status", "ERRO");
+        erro.put("erro", mensagem);
+        return new WebEndpointResponse<>(erro, status);
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.financas.leitor_transacoes_ia.diagnostico;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Liga o {@link MonitorComandosSql}: envolve o DataSource principal com o datasource-proxy, que vê cada comando
+ * (com tempo, lote e parâmetros), e adiciona aos proxies dos repositórios um interceptor que marca na thread
+ * qual método está executando. As estatísticas do próprio Hibernate (hibernate.generate_statistics) são
+ * publicadas pelo hibernate-micrometer como hibernate.*.
+ */
+@Configuration
+@ConditionalOnProperty(name = "diagnostico.persistencia.habilitado", havingValue = "true", matchIfMissing = true)
+public class InstrumentacaoPersistenciaConfig {
+
+    // Estáticos e com o monitor resolvido só no primeiro uso: post-processors são criados antes dos demais beans
+    @Bean
+    public static BeanPostProcessor proxyDataSourceComandosSql(ObjectProvider<MonitorComandosSql> monitor) {
+        Supplier<MonitorComandosSql> monitorTardio = SingletonSupplier.of(monitor::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new QueryExecutionListener() {
+                                @Override
+                                public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                                }
+
+                                @Override
+                                public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                                    monitorTardio.get().afterQuery(execInfo, queryInfoList);
+                                }
+                            })
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor interceptorRepositoriosComandosSql(ObjectProvider<MonitorComandosSql> monitor) {
+        Supplier<MonitorComandosSql> monitorTardio = SingletonSupplier.of(monitor::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> fabrica) {
+                    fabrica.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, informacao) -> {
+                                String repositorio = informacao.getRepositoryInterface().getSimpleName();
+                                proxyFactory.addAdvice((MethodInterceptor) invocacao -> {
+                                    if (!MonitorComandosSql.entrarRepositorio(repositorio, invocacao.getMethod().getName())) {
+                                        return invocacao.proceed();
+                                    }
+                                    try {
+                                        return invocacao.proceed();
+                                    } finally {
+                                        monitorTardio.get().sairRepositorio();
+                                    }
+                                });
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+}
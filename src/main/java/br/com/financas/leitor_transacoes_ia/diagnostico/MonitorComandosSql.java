@@ -0,0 +1,226 @@
+package br.com.financas.leitor_transacoes_ia.diagnostico;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contabiliza os comandos SQL que passam pelo DataSource (ver {@link InstrumentacaoPersistenciaConfig}):
+ * contagem por método de repositório e tipo (persistencia.comandos), comandos por chamada de repositório
+ * (persistencia.comandos.por.chamada, onde aparece o N+1), tamanho dos lotes JDBC (persistencia.lote.tamanho)
+ * e os comandos acima de diagnostico.persistencia.limiar-lento-ms, guardados com o formato dos parâmetros
+ * (só os tipos; os valores são dados financeiros e nunca são registrados).
+ */
+@Component
+@ConditionalOnProperty(name = "diagnostico.persistencia.habilitado", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class MonitorComandosSql implements QueryExecutionListener {
+
+    static final String FORA_DE_REPOSITORIO = "nenhum";
+
+    // Método de repositório em execução na thread (o mais externo, se um chamar outro)
+    private static final ThreadLocal<ChamadaRepositorio> CHAMADA_ATUAL = new ThreadLocal<>();
+
+    private static final int TAMANHO_MAXIMO_SQL = 2000;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> contadores = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> resumos = new ConcurrentHashMap<>();
+    private final Deque<Map<String, Object>> comandosLentos = new ArrayDeque<>();
+
+    @Value("${diagnostico.persistencia.limiar-lento-ms:200}")
+    private long limiarLentoMs;
+
+    @Value("${diagnostico.persistencia.max-comandos-lentos:100}")
+    private int maxComandosLentos;
+
+    public MonitorComandosSql(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    private static class ChamadaRepositorio {
+        private final String repositorio;
+        private final String metodo;
+        private int comandos;
+
+        ChamadaRepositorio(String repositorio, String metodo) {
+            this.repositorio = repositorio;
+            this.metodo = metodo;
+        }
+    }
+
+    /**
+     * Marca o início de uma chamada de repositório na thread
+     *
+     * @return false se já havia uma chamada em andamento (a interna não é contada à parte)
+     */
+    static boolean entrarRepositorio(String repositorio, String metodo) {
+        if (CHAMADA_ATUAL.get() != null) {
+            return false;
+        }
+        CHAMADA_ATUAL.set(new ChamadaRepositorio(repositorio, metodo));
+        return true;
+    }
+
+    /**
+     * Encerra a chamada aberta por {@link #entrarRepositorio} e registra quantos comandos ela gerou
+     */
+    void sairRepositorio() {
+        ChamadaRepositorio chamada = CHAMADA_ATUAL.get();
+        CHAMADA_ATUAL.remove();
+        if (chamada != null) {
+            resumos.computeIfAbsent(chamada.repositorio + "." + chamada.metodo, chave -> DistributionSummary
+                            .builder("persistencia.comandos.por.chamada")
+                            .description("Comandos SQL executados por chamada de método de repositório")
+                            .tag("repositorio", chamada.repositorio)
+                            .tag("metodo", chamada.metodo)
+                            .register(meterRegistry))
+                    .record(chamada.comandos);
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        ChamadaRepositorio chamada = CHAMADA_ATUAL.get();
+        String repositorio = chamada != null ? chamada.repositorio : FORA_DE_REPOSITORIO;
+        String metodo = chamada != null ? chamada.metodo : FORA_DE_REPOSITORIO;
+        String tipo = queryInfoList.isEmpty() ? QueryType.OTHER.name()
+                : QueryUtils.getQueryType(queryInfoList.get(0).getQuery()).name();
+        if (chamada != null) {
+            chamada.comandos++;
+        }
+
+        contadores.computeIfAbsent(repositorio + "." + metodo + "." + tipo + "." + execInfo.isBatch(), chave -> Counter
+                        .builder("persistencia.comandos")
+                        .description("Comandos SQL executados, por método de repositório (nenhum = fora de repositório, ex.: flush no commit)")
+                        .tag("repositorio", repositorio)
+                        .tag("metodo", metodo)
+                        .tag("tipo", tipo.toLowerCase())
+                        .tag("lote", String.valueOf(execInfo.isBatch()))
+                        .register(meterRegistry))
+                .increment();
+
+        int tamanhoLote = tamanhoLote(execInfo, queryInfoList);
+        if (execInfo.isBatch()) {
+            resumos.computeIfAbsent("lote." + tipo, chave -> DistributionSummary
+                            .builder("persistencia.lote.tamanho")
+                            .description("Comandos por lote JDBC (executeBatch)")
+                            .tag("tipo", tipo.toLowerCase())
+                            .register(meterRegistry))
+                    .record(tamanhoLote);
+        }
+
+        if (execInfo.getElapsedTime() >= limiarLentoMs) {
+            registrarLento(execInfo, queryInfoList, repositorio, metodo, tamanhoLote);
+        }
+    }
+
+    /**
+     * Comandos lentos mais recentes primeiro
+     */
+    public List<Map<String, Object>> comandosLentos() {
+        synchronized (comandosLentos) {
+            return new ArrayList<>(comandosLentos);
+        }
+    }
+
+    public void limparComandosLentos() {
+        synchronized (comandosLentos) {
+            comandosLentos.clear();
+        }
+    }
+
+    public long getLimiarLentoMs() {
+        return limiarLentoMs;
+    }
+
+    private void registrarLento(ExecutionInfo execInfo, List<QueryInfo> queryInfoList,
+                                String repositorio, String metodo, int tamanhoLote) {
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        Map<String, Object> comando = new LinkedHashMap<>();
+        comando.put("instante", Instant.now());
+        comando.put("duracaoMs", execInfo.getElapsedTime());
+        comando.put("repositorio", repositorio);
+        comando.put("metodo", metodo);
+        comando.put("thread", Thread.currentThread().getName());
+        comando.put("sql", sql.length() > TAMANHO_MAXIMO_SQL ? sql.substring(0, TAMANHO_MAXIMO_SQL) + "..." : sql);
+        comando.put("parametros", formatoParametros(queryInfoList));
+        comando.put("lote", execInfo.isBatch());
+        comando.put("tamanhoLote", tamanhoLote);
+        comando.put("sucesso", execInfo.isSuccess());
+
+        Counter.builder("persistencia.comandos.lentos")
+                .description("Comandos SQL acima de diagnostico.persistencia.limiar-lento-ms")
+                .tag("repositorio", repositorio)
+                .tag("metodo", metodo)
+                .register(meterRegistry)
+                .increment();
+        synchronized (comandosLentos) {
+            comandosLentos.addFirst(comando);
+            while (comandosLentos.size() > maxComandosLentos) {
+                comandosLentos.removeLast();
+            }
+        }
+        log.warn("Comando SQL lento ({} ms) em {}.{}: {}", execInfo.getElapsedTime(), repositorio, metodo, comando.get("sql"));
+    }
+
+    private static int tamanhoLote(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!execInfo.isBatch()) {
+            return 1;
+        }
+        // PreparedStatement: um conjunto de parâmetros por item; Statement: um SQL por item
+        return queryInfoList.size() == 1 ? queryInfoList.get(0).getParametersList().size() : queryInfoList.size();
+    }
+
+    /**
+     * Tipos dos parâmetros do primeiro conjunto, pela operação set* usada (ex.: (Long, String, BigDecimal, Null))
+     */
+    private static String formatoParametros(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty() || queryInfoList.get(0).getParametersList().isEmpty()) {
+            return "()";
+        }
+        List<ParameterSetOperation> operacoes = new ArrayList<>(queryInfoList.get(0).getParametersList().get(0));
+        operacoes.sort((a, b) -> compararIndices(a.getArgs()[0], b.getArgs()[0]));
+        StringJoiner formato = new StringJoiner(", ", "(", ")");
+        for (ParameterSetOperation operacao : operacoes) {
+            String nome = operacao.getMethod().getName();
+            if ("setObject".equals(nome) && operacao.getArgs().length > 1 && operacao.getArgs()[1] != null) {
+                formato.add(operacao.getArgs()[1].getClass().getSimpleName());
+            } else {
+                formato.add(nome.startsWith("set") ? nome.substring(3) : nome);
+            }
+        }
+        return formato.toString();
+    }
+
+    private static int compararIndices(Object a, Object b) {
+        if (a instanceof Integer indiceA && b instanceof Integer indiceB) {
+            return Integer.compare(indiceA, indiceB);
+        }
+        return String.valueOf(a).compareTo(String.valueOf(b));
+    }
+}
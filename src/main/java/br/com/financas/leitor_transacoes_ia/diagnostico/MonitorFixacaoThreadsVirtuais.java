@@ -0,0 +1,108 @@
+package br.com.financas.leitor_transacoes_ia.diagnostico;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * No modo de threads virtuais, acompanha pelo evento jdk.VirtualThreadPinned os trechos em que uma thread
+ * virtual bloqueou presa à thread de plataforma (synchronized com I/O ou espera, código nativo), o que
+ * anula o ganho do modo. Publica o timer threads.virtuais.fixacao por ponto (primeiro frame da aplicação)
+ * e guarda as pilhas mais recentes para o /actuator/diagnostico.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@RequiredArgsConstructor
+@Slf4j
+public class MonitorFixacaoThreadsVirtuais {
+
+    private static final String PACOTE_APLICACAO = "br.com.financas.";
+    private static final int PROFUNDIDADE_PILHA = 12;
+
+    private final MeterRegistry meterRegistry;
+    private final Deque<Map<String, Object>> recentes = new ArrayDeque<>();
+
+    @Value("${diagnostico.threads-virtuais.limiar-fixacao-ms:20}")
+    private long limiarFixacaoMs;
+
+    @Value("${diagnostico.threads-virtuais.max-fixacoes-recentes:50}")
+    private int maxRecentes;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void iniciar() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(limiarFixacaoMs)).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::registrar);
+        stream.startAsync();
+        log.info("Monitor de fixação de threads virtuais iniciado (limiar {} ms)", limiarFixacaoMs);
+    }
+
+    public List<Map<String, Object>> fixacoesRecentes() {
+        synchronized (recentes) {
+            return new ArrayList<>(recentes);
+        }
+    }
+
+    private void registrar(RecordedEvent evento) {
+        List<RecordedFrame> frames = evento.getStackTrace() != null ? evento.getStackTrace().getFrames() : List.of();
+        String ponto = frames.stream()
+                .filter(frame -> frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(PACOTE_APLICACAO))
+                .findFirst()
+                .map(MonitorFixacaoThreadsVirtuais::descrever)
+                .orElse(frames.isEmpty() ? "?" : descrever(frames.get(0)));
+
+        Timer.builder("threads.virtuais.fixacao")
+                .description("Tempo em que uma thread virtual ficou presa à thread de plataforma")
+                .tag("ponto", ponto)
+                .register(meterRegistry)
+                .record(evento.getDuration());
+
+        Map<String, Object> fixacao = new LinkedHashMap<>();
+        fixacao.put("instante", evento.getStartTime());
+        fixacao.put("duracaoMs", evento.getDuration().toMillis());
+        fixacao.put("thread", evento.getThread() != null ? evento.getThread().getJavaName() : null);
+        fixacao.put("ponto", ponto);
+        fixacao.put("pilha", frames.stream().limit(PROFUNDIDADE_PILHA)
+                .map(MonitorFixacaoThreadsVirtuais::descrever)
+                .collect(Collectors.toList()));
+        synchronized (recentes) {
+            recentes.addFirst(fixacao);
+            while (recentes.size() > maxRecentes) {
+                recentes.removeLast();
+            }
+        }
+        log.debug("Thread virtual presa por {} ms em {}", evento.getDuration().toMillis(), ponto);
+    }
+
+    private static String descrever(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
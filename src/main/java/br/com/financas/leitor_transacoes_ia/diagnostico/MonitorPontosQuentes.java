@@ -0,0 +1,173 @@
+package br.com.financas.leitor_transacoes_ia.diagnostico;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resumo contínuo dos pontos quentes, sem precisar baixar um .jfr: um RecordingStream leve escuta as
+ * amostras de alocação (com throttle) e as esperas por monitor/park acima do limiar, agregando por
+ * classe + primeiro frame da aplicação. Mantém a janela atual e a anterior (diagnostico.resumo.janela-ms).
+ */
+@Component
+@ConditionalOnProperty(name = "diagnostico.resumo.habilitado", havingValue = "true")
+@Slf4j
+public class MonitorPontosQuentes {
+
+    private static final String PACOTE_APLICACAO = "br.com.financas.";
+
+    @Value("${diagnostico.resumo.amostras-alocacao-por-segundo:100}")
+    private int amostrasAlocacaoPorSegundo;
+
+    @Value("${diagnostico.resumo.limiar-contencao-ms:10}")
+    private long limiarContencaoMs;
+
+    @Value("${diagnostico.resumo.janela-ms:300000}")
+    private long janelaMs;
+
+    private RecordingStream stream;
+    private volatile Janela atual = new Janela(Instant.now());
+    private volatile Janela anterior;
+
+    /**
+     * Agregado de um ponto (classe + frame): alocação usa peso em bytes; contenção, contagem e tempo
+     */
+    public static class Ponto {
+        private final LongAdder ocorrencias = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private volatile long maximo;
+
+        void registrar(long valor) {
+            ocorrencias.increment();
+            total.add(valor);
+            if (valor > maximo) {
+                maximo = valor;
+            }
+        }
+    }
+
+    private static class Janela {
+        private final Instant inicio;
+        private final Map<String, Ponto> alocacoes = new ConcurrentHashMap<>();
+        private final Map<String, Ponto> contencoes = new ConcurrentHashMap<>();
+
+        Janela(Instant inicio) {
+            this.inicio = inicio;
+        }
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        stream = new RecordingStream();
+        stream.enable("jdk.ObjectAllocationSample").with("throttle", amostrasAlocacaoPorSegundo + "/s");
+        stream.enable("jdk.JavaMonitorEnter").withThreshold(Duration.ofMillis(limiarContencaoMs)).withStackTrace();
+        stream.enable("jdk.ThreadPark").withThreshold(Duration.ofMillis(limiarContencaoMs)).withStackTrace();
+        stream.onEvent("jdk.ObjectAllocationSample", this::registrarAlocacao);
+        stream.onEvent("jdk.JavaMonitorEnter", evento -> registrarContencao(evento, "monitorClass"));
+        stream.onEvent("jdk.ThreadPark", evento -> registrarContencao(evento, "parkedClass"));
+        stream.startAsync();
+        log.info("Monitor de pontos quentes iniciado: {} amostras de alocação/s, contenção acima de {} ms, janela de {} ms",
+                amostrasAlocacaoPorSegundo, limiarContencaoMs, janelaMs);
+    }
+
+    @Scheduled(fixedDelayString = "${diagnostico.resumo.janela-ms:300000}",
+            initialDelayString = "${diagnostico.resumo.janela-ms:300000}")
+    public void rotacionarJanela() {
+        anterior = atual;
+        atual = new Janela(Instant.now());
+    }
+
+    /**
+     * Top N da janela atual e da anterior
+     */
+    public Map<String, Object> resumo(int limite) {
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("janelaAtual", descrever(atual, limite));
+        Janela janelaAnterior = anterior;
+        if (janelaAnterior != null) {
+            resumo.put("janelaAnterior", descrever(janelaAnterior, limite));
+        }
+        return resumo;
+    }
+
+    private void registrarAlocacao(RecordedEvent evento) {
+        RecordedClass classe = evento.getClass("objectClass");
+        String chave = (classe != null ? classe.getName() : "?") + " @ " + frameAplicacao(evento.getStackTrace());
+        atual.alocacoes.computeIfAbsent(chave, k -> new Ponto()).registrar(evento.getLong("weight"));
+    }
+
+    private void registrarContencao(RecordedEvent evento, String campoClasse) {
+        RecordedClass classe = evento.hasField(campoClasse) ? evento.getClass(campoClasse) : null;
+        String chave = evento.getEventType().getName().substring(4) + " " + (classe != null ? classe.getName() : "?")
+                + " @ " + frameAplicacao(evento.getStackTrace());
+        atual.contencoes.computeIfAbsent(chave, k -> new Ponto()).registrar(evento.getDuration().toMillis());
+    }
+
+    /**
+     * Primeiro frame do nosso código na pilha; sem ele, o frame do topo
+     */
+    private static String frameAplicacao(RecordedStackTrace pilha) {
+        if (pilha == null || pilha.getFrames().isEmpty()) {
+            return "?";
+        }
+        for (RecordedFrame frame : pilha.getFrames()) {
+            if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(PACOTE_APLICACAO)) {
+                return descreverFrame(frame);
+            }
+        }
+        return descreverFrame(pilha.getFrames().get(0));
+    }
+
+    private static String descreverFrame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static Map<String, Object> descrever(Janela janela, int limite) {
+        Map<String, Object> descricao = new LinkedHashMap<>();
+        descricao.put("inicio", janela.inicio);
+        descricao.put("alocacoes", top(janela.alocacoes, limite, "amostras", "bytesEstimados", "maiorAmostraBytes"));
+        descricao.put("contencoes", top(janela.contencoes, limite, "esperas", "totalMs", "maiorEsperaMs"));
+        return descricao;
+    }
+
+    private static List<Map<String, Object>> top(Map<String, Ponto> pontos, int limite,
+                                                 String rotuloOcorrencias, String rotuloTotal, String rotuloMaximo) {
+        return pontos.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Ponto> e) -> e.getValue().total.sum()).reversed())
+                .limit(limite)
+                .map(e -> {
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("ponto", e.getKey());
+                    item.put(rotuloOcorrencias, e.getValue().ocorrencias.sum());
+                    item.put(rotuloTotal, e.getValue().total.sum());
+                    item.put(rotuloMaximo, e.getValue().maximo);
+                    return item;
+                })
+                .toList();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
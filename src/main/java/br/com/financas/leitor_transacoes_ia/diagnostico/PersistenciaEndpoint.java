@@ -0,0 +1,112 @@
+package br.com.financas.leitor_transacoes_ia.diagnostico;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Visibilidade da persistência (/actuator/persistencia): estatísticas do Hibernate desde o último reset
+ * (cargas e fetches de entidades e coleções, flushes, statements, consultas mais caras) e os comandos SQL lentos
+ * capturados pelo {@link MonitorComandosSql}. Muitos fetches de entidade/coleção em relação às consultas é o
+ * sinal de N+1. DELETE zera as estatísticas e a lista de lentos.
+ */
+@Component
+@Endpoint(id = "persistencia")
+@RequiredArgsConstructor
+public class PersistenciaEndpoint {
+
+    private static final int LIMITE_PADRAO = 10;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<MonitorComandosSql> monitorComandosSql;
+
+    @ReadOperation
+    public Map<String, Object> resumo(@Nullable Integer limite) {
+        int topo = limite != null && limite > 0 ? limite : LIMITE_PADRAO;
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("hibernate", hibernate(topo));
+        MonitorComandosSql monitor = monitorComandosSql.getIfAvailable();
+        if (monitor != null) {
+            Map<String, Object> lentos = new LinkedHashMap<>();
+            lentos.put("limiarMs", monitor.getLimiarLentoMs());
+            lentos.put("comandos", monitor.comandosLentos());
+            resumo.put("comandosLentos", lentos);
+        } else {
+            resumo.put("comandosLentos", Map.of("habilitado", false));
+        }
+        return resumo;
+    }
+
+    @DeleteOperation
+    public Map<String, Object> limpar() {
+        estatisticas().clear();
+        MonitorComandosSql monitor = monitorComandosSql.getIfAvailable();
+        if (monitor != null) {
+            monitor.limparComandosLentos();
+        }
+        return Map.of("status", "SUCESSO");
+    }
+
+    private Map<String, Object> hibernate(int topo) {
+        Statistics estatisticas = estatisticas();
+        Map<String, Object> hibernate = new LinkedHashMap<>();
+        hibernate.put("habilitado", estatisticas.isStatisticsEnabled());
+        if (!estatisticas.isStatisticsEnabled()) {
+            return hibernate;
+        }
+        hibernate.put("desde", estatisticas.getStart());
+        hibernate.put("sessoesAbertas", estatisticas.getSessionOpenCount());
+        hibernate.put("transacoes", estatisticas.getTransactionCount());
+        hibernate.put("flushes", estatisticas.getFlushCount());
+        hibernate.put("statementsPreparados", estatisticas.getPrepareStatementCount());
+        hibernate.put("consultas", estatisticas.getQueryExecutionCount());
+        hibernate.put("consultaMaisLentaMs", estatisticas.getQueryExecutionMaxTime());
+        hibernate.put("consultaMaisLenta", estatisticas.getQueryExecutionMaxTimeQueryString());
+
+        Map<String, Object> entidades = new LinkedHashMap<>();
+        entidades.put("cargas", estatisticas.getEntityLoadCount());
+        entidades.put("fetches", estatisticas.getEntityFetchCount());
+        entidades.put("insercoes", estatisticas.getEntityInsertCount());
+        entidades.put("atualizacoes", estatisticas.getEntityUpdateCount());
+        entidades.put("exclusoes", estatisticas.getEntityDeleteCount());
+        entidades.put("colecoesCarregadas", estatisticas.getCollectionLoadCount());
+        entidades.put("colecoesFetches", estatisticas.getCollectionFetchCount());
+        hibernate.put("entidades", entidades);
+
+        List<Map<String, Object>> consultas = Arrays.stream(estatisticas.getQueries())
+                .map(consulta -> Map.entry(consulta, estatisticas.getQueryStatistics(consulta)))
+                .sorted(Comparator.comparingLong((Map.Entry<String, QueryStatistics> e) ->
+                        e.getValue().getExecutionCount() * e.getValue().getExecutionAvgTime()).reversed())
+                .limit(topo)
+                .map(e -> {
+                    Map<String, Object> consulta = new LinkedHashMap<>();
+                    consulta.put("consulta", e.getKey());
+                    consulta.put("execucoes", e.getValue().getExecutionCount());
+                    consulta.put("linhas", e.getValue().getExecutionRowCount());
+                    consulta.put("mediaMs", e.getValue().getExecutionAvgTime());
+                    consulta.put("maximoMs", e.getValue().getExecutionMaxTime());
+                    return consulta;
+                })
+                .toList();
+        hibernate.put("consultasMaisCaras", consultas);
+        return hibernate;
+    }
+
+    private Statistics estatisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.financas.leitor_transacoes_ia.diagnostico;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Tempo até a aplicação ficar pronta, contado desde o início da JVM (inclui carga de classes, que é onde o
+ * CDS ajuda; o application.ready.time do Spring Boot começa só no SpringApplication.run). Publicado em
+ * aplicacao.inicio.pronto com as tags aot e cds, para comparar o empacotamento padrão com o inicio-rapido.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TempoInicializacao {
+
+    private final MeterRegistry meterRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrar(ApplicationReadyEvent evento) {
+        long prontoMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        boolean aot = AotDetector.useGeneratedArtifacts();
+        boolean cds = arquivoCdsEmUso();
+
+        Gauge.builder("aplicacao.inicio.pronto", () -> prontoMs / 1000.0)
+                .description("Segundos do início da JVM até a aplicação ficar pronta")
+                .baseUnit("seconds")
+                .tag("aot", String.valueOf(aot))
+                .tag("cds", String.valueOf(cds))
+                .register(meterRegistry);
+        log.info("Aplicação pronta em {} ms desde o início da JVM ({} ms no Spring; AOT: {}, CDS: {})",
+                prontoMs, evento.getTimeTaken().toMillis(), aot, cds);
+    }
+
+    /**
+     * Se a JVM subiu com um arquivo CDS da aplicação (-XX:SharedArchiveFile); o arquivo base do JDK não conta
+     */
+    private static boolean arquivoCdsEmUso() {
+        try {
+            HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return hotSpot != null && !hotSpot.getVMOption("SharedArchiveFile").getValue().isBlank();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package br.com.financas.leitor_transacoes_ia.fila;
+
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
+import br.com.financas.leitor_transacoes_ia.service.ConsumidorTransacoesService;
+import br.com.financas.leitor_transacoes_ia.service.LimitadorConcorrenciaConsumidor;
+import br.com.financas.leitor_transacoes_ia.service.ProcessamentoService;
+import br.com.financas.leitor_transacoes_ia.config.ModoExecucao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads que consomem a {@link FilaTransacoesLocal}. Cada documento é processado pelo
+ * {@link ConsumidorTransacoesService}, dentro do limite de concorrência adaptativo;
+ * falhas são retentadas no próprio worker e, esgotadas as tentativas, o processamento é marcado com erro
+ * (o equivalente à DLQ do modo sqs).
+ */
+@Component
+@ConditionalOnProperty(name = "fila.modo", havingValue = "local")
+@ConditionalOnExpression(ModoExecucao.WORKER)
+@RequiredArgsConstructor
+@Slf4j
+public class ConsumidorFilaLocal {
+
+    private static final long ESPERA_POLL_MS = 500;
+
+    private final FilaTransacoesLocal filaTransacoesLocal;
+    private final ConsumidorTransacoesService consumidorTransacoesService;
+    private final ProcessamentoService processamentoService;
+    private final LimitadorConcorrenciaConsumidor limitadorConcorrencia;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    @Value("${fila.local.threads:4}")
+    private int threads;
+
+    @Value("${fila.local.max-tentativas:5}")
+    private int maxTentativas;
+
+    @Value("${fila.local.espera-retentativa-ms:1000}")
+    private long esperaRetentativaMs;
+
+    private ExecutorService trabalhadores;
+    private Timer esperaNaFila;
+    private Counter falhasDefinitivas;
+    private volatile boolean ativo = true;
+
+    @PostConstruct
+    public void iniciar() {
+        esperaNaFila = Timer.builder("fila.local.espera")
+                .description("Tempo entre o commit do publicador e a retirada pelo consumidor")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        falhasDefinitivas = Counter.builder("fila.local.falhas")
+                .description("Documentos descartados após esgotar as tentativas")
+                .register(meterRegistry);
+
+        boolean virtuais = Threading.VIRTUAL.isActive(environment);
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = virtuais
+                ? new VirtualThreadTaskExecutor("fila-local-").getVirtualThreadFactory()
+                : r -> {
+                    Thread thread = new Thread(r, "fila-local-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        trabalhadores = Executors.newFixedThreadPool(threads, fabrica);
+        for (int i = 0; i < threads; i++) {
+            trabalhadores.execute(this::trabalhar);
+        }
+        log.info("Consumidor da fila em memória iniciado com {} threads{}", threads, virtuais ? " virtuais" : "");
+    }
+
+    private void trabalhar() {
+        while (ativo) {
+            try {
+                FilaTransacoesLocal.Entrega entrega = filaTransacoesLocal.retirar(ESPERA_POLL_MS);
+                if (entrega == null) {
+                    continue;
+                }
+                esperaNaFila.record(System.nanoTime() - entrega.enfileiradaEmNanos(), TimeUnit.NANOSECONDS);
+
+                limitadorConcorrencia.adquirir();
+                try {
+                    processar(entrega.parte(), entrega.contextoRastreamento());
+                } finally {
+                    limitadorConcorrencia.liberar();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Erro inesperado no consumidor da fila em memória: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void processar(TransacaoAIDTO parte, Map<String, String> contexto) throws InterruptedException {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                consumidorTransacoesService.processarParte(parte, contexto);
+                return;
+            } catch (Exception e) {
+                if (tentativa >= maxTentativas) {
+                    falhasDefinitivas.increment();
+                    log.error("Processamento {} descartado após {} tentativas: {}", parte.getProcessamentoId(), tentativa, e.getMessage());
+                    if (parte.getProcessamentoId() != null) {
+                        processamentoService.registrarFalhaDefinitiva(parte.getProcessamentoId(),
+                                "Falha ao processar as transações após esgotar as tentativas");
+                    }
+                    return;
+                }
+                log.warn("Tentativa {} do processamento {} falhou; nova tentativa em breve: {}", 
+                        tentativa, parte.getProcessamentoId(), e.getMessage());
+                Thread.sleep(esperaRetentativaMs * tentativa);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        trabalhadores.shutdown();
+        if (!trabalhadores.awaitTermination(30, TimeUnit.SECONDS)) {
+            trabalhadores.shutdownNow();
+        }
+        int pendentes = filaTransacoesLocal.tamanho();
+        if (pendentes > 0) {
+            log.warn("{} documentos na fila em memória não foram processados antes do encerramento", pendentes);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.financas.leitor_transacoes_ia.fila;
+
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
+import br.com.financas.leitor_transacoes_ia.service.CodecMensagemTransacoes;
+
+import java.util.List;
+
+/**
+ * Fila entre a classificação (API) e o consumidor que grava as transações.
+ * Implementações selecionadas por fila.modo: sqs (outbox + SQS, padrão) ou local (em memória, mesmo processo).
+ */
+public interface FilaTransacoes {
+
+    /**
+     * Documento pronto para enfileirar
+     *
+     * @param partes            Mensagens já codificadas (vazio quando a implementação não codifica antes)
+     * @param referenciaPayload Chave do payload no armazenamento (claim-check), ou null
+     */
+    record Preparado(TransacaoAIDTO documento, List<CodecMensagemTransacoes.MensagemCodificada> partes,
+                     String referenciaPayload) {
+    }
+
+    /**
+     * Faz o que dispensa transação (codificação e upload do claim-check). Chamado antes de abrir a transação
+     * do publicador, para que a conexão do pool não fique presa durante o upload
+     */
+    default Preparado preparar(TransacaoAIDTO documento) {
+        return new Preparado(documento, List.of(), null);
+    }
+
+    /**
+     * Enfileira as transações classificadas de um documento. Chamado dentro da transação do publicador:
+     * a entrega ao consumidor só acontece depois do commit
+     *
+     * @return quantidade de partes (mensagens) geradas
+     */
+    int enviar(Preparado preparado);
+
+    /**
+     * Desfaz o {@link #preparar} quando a transação do publicador não chega ao commit
+     */
+    default void descartar(Preparado preparado) {
+    }
+}
@@ -0,0 +1,134 @@
+package br.com.financas.leitor_transacoes_ia.fila;
+
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
+import br.com.financas.leitor_transacoes_ia.model.entity.Processamento;
+import br.com.financas.leitor_transacoes_ia.repository.ProcessamentoRepository;
+import br.com.financas.leitor_transacoes_ia.service.ContextoRastreamento;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fila em memória para desenvolvimento e implantações de um único nó: o documento classificado é entregue
+ * como objeto (sem serializar, dividir nem passar pela rede) ao {@link ConsumidorFilaLocal} do mesmo processo.
+ * A fila é limitada: se estiver cheia, quem publica espera até fila.local.timeout-envio-ms (backpressure).
+ * As mensagens não são persistidas; se o processo cair, os processamentos em fila ficam sem conclusão.
+ */
+@Component
+@ConditionalOnProperty(name = "fila.modo", havingValue = "local")
+@Slf4j
+public class FilaTransacoesLocal implements FilaTransacoes {
+
+    private final BlockingQueue<Entrega> fila;
+    private final ProcessamentoRepository processamentoRepository;
+    private final ContextoRastreamento contextoRastreamento;
+    private final TransactionTemplate transacaoPropria;
+    private final long timeoutEnvioMs;
+
+    record Entrega(TransacaoAIDTO parte, long enfileiradaEmNanos, Map<String, String> contextoRastreamento) {
+    }
+
+    public FilaTransacoesLocal(@Value("${fila.local.capacidade:1000}") int capacidade,
+                               @Value("${fila.local.timeout-envio-ms:5000}") long timeoutEnvioMs,
+                               @Value("${app.modo-execucao:all}") String modoExecucao,
+                               ProcessamentoRepository processamentoRepository,
+                               ContextoRastreamento contextoRastreamento,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        if (!"all".equals(modoExecucao)) {
+            // Em memória, quem publica e quem consome precisam estar no mesmo processo
+            throw new IllegalStateException("fila.modo=local exige app.modo-execucao=all (atual: " + modoExecucao + ")");
+        }
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.timeoutEnvioMs = timeoutEnvioMs;
+        this.processamentoRepository = processamentoRepository;
+        this.contextoRastreamento = contextoRastreamento;
+        this.transacaoPropria = new TransactionTemplate(transactionManager);
+        this.transacaoPropria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("fila.local.tamanho", fila, BlockingQueue::size)
+                .description("Documentos aguardando o consumidor na fila em memória")
+                .register(meterRegistry);
+        log.info("Fila de transações em memória (capacidade {})", capacidade);
+    }
+
+    @Override
+    public int enviar(Preparado preparado) {
+        TransacaoAIDTO documento = preparado.documento();
+        // Documento inteiro numa única parte: não há limite de tamanho de mensagem em memória
+        documento.setSequencia(1);
+        documento.setTotalPartes(1);
+        // Capturado na thread da requisição, antes do commit
+        Map<String, String> contexto = contextoRastreamento.capturar();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enfileirar(documento, contexto);
+                }
+            });
+        } else {
+            enfileirar(documento, contexto);
+        }
+        return 1;
+    }
+
+    /**
+     * Retira o próximo documento, esperando até o timeout
+     *
+     * @return null se a fila continuar vazia
+     */
+    Entrega retirar(long timeoutMs) throws InterruptedException {
+        return fila.poll(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    int tamanho() {
+        return fila.size();
+    }
+
+    private void enfileirar(TransacaoAIDTO documento, Map<String, String> contexto) {
+        boolean aceito;
+        try {
+            aceito = fila.offer(new Entrega(documento, System.nanoTime(), contexto), timeoutEnvioMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aceito = false;
+        }
+        if (!aceito) {
+            log.error("Fila em memória cheia; processamento {} não enfileirado", documento.getProcessamentoId());
+            marcarErro(documento.getProcessamentoId(), "Fila de processamento cheia; envie o arquivo novamente");
+        }
+    }
+
+    /**
+     * Transação própria: em afterCommit os recursos da transação do upload ainda estão vinculados,
+     * e um save ali entraria nela, já confirmada, sem nunca ser gravado
+     */
+    private void marcarErro(String processamentoId, String erro) {
+        if (processamentoId == null) {
+            return;
+        }
+        transacaoPropria.executeWithoutResult(status ->
+                processamentoRepository.findByProcessamentoId(processamentoId).ifPresent(processamento -> {
+                    processamento.setStatus(Processamento.StatusProcessamento.ERRO);
+                    processamento.setErro(erro);
+                    processamento.setDataFim(LocalDateTime.now());
+                    processamentoRepository.save(processamento);
+                }));
+    }
+}
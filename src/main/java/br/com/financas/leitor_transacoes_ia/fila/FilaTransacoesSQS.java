@@ -0,0 +1,163 @@
+package br.com.financas.leitor_transacoes_ia.fila;
+
+import br.com.financas.leitor_transacoes_ia.armazenamento.ArmazenamentoPayload;
+import br.com.financas.leitor_transacoes_ia.config.SQSConfig;
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoItemDTO;
+import br.com.financas.leitor_transacoes_ia.model.entity.MensagemOutbox;
+import br.com.financas.leitor_transacoes_ia.repository.MensagemOutboxRepository;
+import br.com.financas.leitor_transacoes_ia.service.CodecMensagemTransacoes;
+import br.com.financas.leitor_transacoes_ia.service.ContextoRastreamento;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fila SQS via outbox: o documento é dividido em partes que cabem numa mensagem (comprimidas quando
+ * vale a pena) ou, se for grande, vira uma referência ao payload no armazenamento (claim-check).
+ * A codificação e o upload do payload acontecem em {@link #preparar}, antes da transação do chamador;
+ * as mensagens são gravadas no outbox dentro dela e o
+ * {@link br.com.financas.leitor_transacoes_ia.service.RelayOutboxService} as envia depois do commit.
+ */
+@Component
+@ConditionalOnProperty(name = "fila.modo", havingValue = "sqs", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class FilaTransacoesSQS implements FilaTransacoes {
+
+    // Prefixo das chaves do claim-check (LimpezaPayloadsJob expira os órfãos sob ele)
+    public static final String PREFIXO_PAYLOAD = "transacoes/";
+
+    private final MensagemOutboxRepository mensagemOutboxRepository;
+    private final CodecMensagemTransacoes codecMensagemTransacoes;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ArmazenamentoPayload armazenamentoPayload;
+    private final ContextoRastreamento contextoRastreamento;
+
+    private static final String CLAIM_CHECK_AUTOMATICO = "automatico";
+    private static final String CLAIM_CHECK_SEMPRE = "sempre";
+
+    // desligado | automatico | sempre
+    @Value("${claim-check.modo:automatico}")
+    private String modoClaimCheck;
+
+    @Value("${claim-check.max-partes:5}")
+    private int maxPartesSemClaimCheck;
+
+    // Documentos acima deste total de transações vão para a fila de grandes
+    @Value("${sqs.raias.limite-transacoes-pequeno:500}")
+    private int limiteTransacoesPequeno;
+
+    /**
+     * Evento disparado ao gravar mensagens no outbox (o relay escuta após o commit)
+     */
+    public record MensagemRegistrada(int quantidade) {
+    }
+
+    @Override
+    public Preparado preparar(TransacaoAIDTO documento) {
+        return particionarOuReferenciar(documento);
+    }
+
+    @Override
+    public int enviar(Preparado preparado) {
+        TransacaoAIDTO documento = preparado.documento();
+        List<CodecMensagemTransacoes.MensagemCodificada> partes = preparado.partes();
+        String fila = filaDaRaia(documento);
+        // O consumidor continua o trace da requisição que publicou
+        String contexto = contextoRastreamento.serializar(contextoRastreamento.capturar());
+
+        List<MensagemOutbox> mensagens = new ArrayList<>(partes.size());
+        for (CodecMensagemTransacoes.MensagemCodificada parte : partes) {
+            mensagens.add(MensagemOutbox.builder()
+                    .fila(fila)
+                    .payload(parte.corpo())
+                    .codificacao(parte.codificacao())
+                    .contextoRastreamento(contexto)
+                    .processamentoId(documento.getProcessamentoId())
+                    .build());
+        }
+        mensagemOutboxRepository.saveAll(mensagens);
+
+        eventPublisher.publishEvent(new MensagemRegistrada(mensagens.size()));
+        log.info("Transações registradas no outbox em {} mensagem(ns) para {}", mensagens.size(), fila);
+        return mensagens.size();
+    }
+
+    /**
+     * Raia pelo custo estimado no consumidor: uma consulta de deduplicação e uma linha gravada por transação
+     */
+    private String filaDaRaia(TransacaoAIDTO documento) {
+        int totalTransacoes = documento.getTransacoes() != null ? documento.getTransacoes().size() : 0;
+        return totalTransacoes > limiteTransacoesPequeno ? SQSConfig.TRANSACOES_GRANDES_QUEUE : SQSConfig.TRANSACOES_QUEUE;
+    }
+
+    /**
+     * Claim-check: com modo "sempre", ou quando o documento não cabe em claim-check.max-partes mensagens
+     * (modo "automatico"), o payload vai para o armazenamento e a fila recebe só a referência
+     */
+    private Preparado particionarOuReferenciar(TransacaoAIDTO transacoes) {
+        if (CLAIM_CHECK_SEMPRE.equals(modoClaimCheck)) {
+            return publicarPorReferencia(transacoes);
+        }
+
+        try {
+            List<CodecMensagemTransacoes.MensagemCodificada> partes = codecMensagemTransacoes.particionar(transacoes);
+            if (CLAIM_CHECK_AUTOMATICO.equals(modoClaimCheck) && partes.size() > maxPartesSemClaimCheck) {
+                log.info("Documento exigiria {} mensagens; usando claim-check", partes.size());
+                return publicarPorReferencia(transacoes);
+            }
+            return new Preparado(transacoes, partes, null);
+        } catch (CodecMensagemTransacoes.TransacaoGrandeDemaisException e) {
+            if (!CLAIM_CHECK_AUTOMATICO.equals(modoClaimCheck)) {
+                throw e;
+            }
+            log.info("{}; usando claim-check", e.getMessage());
+            return publicarPorReferencia(transacoes);
+        }
+    }
+
+    private Preparado publicarPorReferencia(TransacaoAIDTO transacoes) {
+        List<TransacaoItemDTO> itens = transacoes.getTransacoes() != null ? transacoes.getTransacoes() : List.of();
+        String chave = PREFIXO_PAYLOAD + transacoes.getProcessamentoId() + "/" + UUID.randomUUID() + ".json.gz";
+
+        byte[] payload = codecMensagemTransacoes.comprimirItens(itens);
+        armazenamentoPayload.salvar(chave, payload);
+        log.info("Payload de {} transações ({} bytes) armazenado em {}", itens.size(), payload.length, chave);
+
+        CodecMensagemTransacoes.MensagemCodificada referencia = codecMensagemTransacoes.codificar(TransacaoAIDTO.builder()
+                .processamentoId(transacoes.getProcessamentoId())
+                .banco(transacoes.getBanco())
+                .moeda(transacoes.getMoeda())
+                .tipoDocumento(transacoes.getTipoDocumento())
+                .totalTransacoes(itens.size())
+                .sequencia(1)
+                .totalPartes(1)
+                .referenciaPayload(chave)
+                .build());
+        return new Preparado(transacoes, List.of(referencia), chave);
+    }
+
+    /**
+     * Remove o payload que nenhuma mensagem do outbox chegou a referenciar (o que escapar daqui,
+     * como uma queda entre o upload e o commit, o LimpezaPayloadsJob expira)
+     */
+    @Override
+    public void descartar(Preparado preparado) {
+        if (preparado.referenciaPayload() == null) {
+            return;
+        }
+        try {
+            armazenamentoPayload.remover(preparado.referenciaPayload());
+        } catch (Exception e) {
+            log.warn("Erro ao remover payload órfão {}: {}", preparado.referenciaPayload(), e.getMessage());
+        }
+    }
+}
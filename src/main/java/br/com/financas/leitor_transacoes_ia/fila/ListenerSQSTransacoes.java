@@ -0,0 +1,164 @@
+package br.com.financas.leitor_transacoes_ia.fila;
+
+import br.com.financas.leitor_transacoes_ia.config.SQSConfig;
+import br.com.financas.leitor_transacoes_ia.service.ConsumidorTransacoesService;
+import br.com.financas.leitor_transacoes_ia.service.ContextoRastreamento;
+import br.com.financas.leitor_transacoes_ia.service.LimitadorConcorrenciaConsumidor;
+import br.com.financas.leitor_transacoes_ia.config.ModoExecucao;
+import io.awspring.cloud.sqs.annotation.SqsListener;
+import io.awspring.cloud.sqs.listener.SqsHeaders;
+import io.awspring.cloud.sqs.listener.Visibility;
+import io.awspring.cloud.sqs.listener.acknowledgement.BatchAcknowledgement;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener da fila de transações no SQS: recebe lotes, processa as mensagens em paralelo
+ * e confirma manualmente só as que foram concluídas
+ */
+@Component
+@ConditionalOnProperty(name = "fila.modo", havingValue = "sqs", matchIfMissing = true)
+@ConditionalOnExpression(ModoExecucao.WORKER)
+@RequiredArgsConstructor
+@Slf4j
+public class ListenerSQSTransacoes {
+
+    private final ConsumidorTransacoesService consumidorTransacoesService;
+    private final LimitadorConcorrenciaConsumidor limitadorConcorrencia;
+    private final ContextoRastreamento contextoRastreamento;
+
+    private final ScheduledExecutorService agendadorVisibilidade = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sqs-visibilidade");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Qualifier(SQSConfig.EXECUTOR_CONSUMIDOR)
+    private final Executor executorConsumidor;
+
+    @Qualifier(SQSConfig.EXECUTOR_CONSUMIDOR_GRANDES)
+    private final Executor executorConsumidorGrandes;
+
+    @Value("${sqs.listener.visibilidade-segundos:60}")
+    private int visibilidadeSegundos;
+
+    @Value("${sqs.listener.extensao-visibilidade-segundos:30}")
+    private int intervaloExtensaoSegundos;
+
+    /**
+     * Consome um lote de mensagens do SQS, processando cada mensagem em paralelo no executor do consumidor,
+     * até o limite de concorrência ajustado pela saturação do pool do banco.
+     * Só as mensagens processadas com sucesso são confirmadas; as demais voltam à fila após o
+     * visibility timeout e, esgotadas as tentativas da redrive policy, vão para a DLQ.
+     * 
+     * @param mensagens Partes de documentos (JSON, ou JSON gzip em base64 conforme contentEncoding)
+     * @param confirmacao Confirmação manual das mensagens processadas
+     */
+    @SqsListener(value = SQSConfig.TRANSACOES_QUEUE, acknowledgementMode = "MANUAL")
+    public void processarTransacoes(List<Message<String>> mensagens, BatchAcknowledgement<String> confirmacao) {
+        processarLote(mensagens, confirmacao, executorConsumidor);
+    }
+
+    /**
+     * Raia de documentos grandes: concorrência e executor próprios, para que não ocupem
+     * as vagas dos documentos pequenos
+     */
+    // O container exige mensagens por poll <= concorrência, então o poll acompanha o limite da raia
+    @SqsListener(value = SQSConfig.TRANSACOES_GRANDES_QUEUE, acknowledgementMode = "MANUAL",
+            maxConcurrentMessages = "${sqs.listener.grandes.max-concurrent-messages:2}",
+            maxMessagesPerPoll = "${sqs.listener.grandes.max-concurrent-messages:2}")
+    public void processarTransacoesGrandes(List<Message<String>> mensagens, BatchAcknowledgement<String> confirmacao) {
+        processarLote(mensagens, confirmacao, executorConsumidorGrandes);
+    }
+
+    private void processarLote(List<Message<String>> mensagens, BatchAcknowledgement<String> confirmacao, Executor executor) {
+        List<Message<String>> processadas = Collections.synchronizedList(new ArrayList<>(mensagens.size()));
+        Set<Message<String>> emAndamento = ConcurrentHashMap.newKeySet();
+        emAndamento.addAll(mensagens);
+
+        ScheduledFuture<?> extensao = agendadorVisibilidade.scheduleAtFixedRate(
+                () -> estenderVisibilidade(emAndamento),
+                intervaloExtensaoSegundos, intervaloExtensaoSegundos, TimeUnit.SECONDS);
+        try {
+            List<CompletableFuture<Void>> tarefas = new ArrayList<>(mensagens.size());
+            for (Message<String> mensagem : mensagens) {
+                // Sem vaga no limite adaptativo, o listener espera aqui e o container para de buscar na fila
+                try {
+                    limitadorConcorrencia.adquirir();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Listener interrompido; {} mensagens do lote serão reentregues", mensagens.size() - tarefas.size());
+                    emAndamento.retainAll(mensagens.subList(0, tarefas.size()));
+                    break;
+                }
+                tarefas.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        processarMensagem(mensagem);
+                        processadas.add(mensagem);
+                    } catch (Exception e) {
+                        log.error("Mensagem {} não processada (será reentregue): {}", 
+                                mensagem.getHeaders().getId(), e.getMessage());
+                    } finally {
+                        emAndamento.remove(mensagem);
+                        limitadorConcorrencia.liberar();
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(tarefas.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            extensao.cancel(false);
+        }
+
+        if (!processadas.isEmpty()) {
+            confirmacao.acknowledge(processadas);
+        }
+        log.debug("Lote SQS: {} de {} mensagens confirmadas", processadas.size(), mensagens.size());
+    }
+
+    private void processarMensagem(Message<String> mensagem) {
+        String codificacao = mensagem.getHeaders().get(SQSConfig.ATRIBUTO_CODIFICACAO, String.class);
+        // Atributos de propagação gravados pelo relay: a parte entra no trace do upload
+        Map<String, String> contexto = contextoRastreamento.ler(nome -> mensagem.getHeaders().get(nome));
+        consumidorTransacoesService.processarMensagem(mensagem.getPayload(), codificacao, contexto);
+    }
+
+    /**
+     * Mantém invisíveis as mensagens ainda em processamento (partes grandes podem passar do timeout)
+     */
+    private void estenderVisibilidade(Set<Message<String>> emAndamento) {
+        for (Message<String> mensagem : emAndamento) {
+            Visibility visibilidade = mensagem.getHeaders().get(SqsHeaders.SQS_VISIBILITY_TIMEOUT_HEADER, Visibility.class);
+            if (visibilidade != null) {
+                visibilidade.changeToAsync(visibilidadeSegundos).exceptionally(e -> {
+                    log.warn("Erro ao estender visibilidade da mensagem: {}", e.getMessage());
+                    return null;
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        agendadorVisibilidade.shutdownNow();
+    }
+}
@@ -2,10 +2,17 @@ package br.com.financas.leitor_transacoes_ia.model.dto;
 
 import br.com.financas.leitor_transacoes_ia.controller.LeitorTransacoesController;
 import br.com.financas.leitor_transacoes_ia.model.entity.Processamento;
+import br.com.financas.leitor_transacoes_ia.model.projection.ProcessamentoProjecao;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -75,4 +82,56 @@ public class ProcessamentoRepresentationAssembler implements RepresentationModel
         
         return collectionModel;
     }
-}
\ No newline at end of file
+
+    /**
+     * Conversão de uma listagem projetada para CollectionModel com HATEOAS.
+     * Os links são montados uma vez por requisição; por linha só é preenchido o processamentoId.
+     * @param projecoes processamentos projetados
+     * @return CollectionModel<ProcessamentoDTO>
+     */
+    @NotNull
+    public CollectionModel<ProcessamentoDTO> toCollectionModelDeProjecoes(@NotNull List<ProcessamentoProjecao> projecoes) {
+        Link processamentos = linkTo(methodOn(LeitorTransacoesController.class).listarProcessamentos()).withSelfRel();
+        Link processamentosRel = processamentos.withRel("processamentos");
+        Link transacoes = linkTo(methodOn(LeitorTransacoesController.class).listarTransacoes()).withRel("transacoes");
+        String prefixo = processamentos.getHref() + "/";
+        
+        List<ProcessamentoDTO> dtos = new ArrayList<>(projecoes.size());
+        for (ProcessamentoProjecao projecao : projecoes) {
+            ProcessamentoDTO dto = ProcessamentoDTO.builder()
+                    .id(projecao.id())
+                    .processamentoId(projecao.processamentoId())
+                    .nomeArquivo(projecao.nomeArquivo())
+                    .banco(projecao.banco())
+                    .moeda(projecao.moeda())
+                    .tipoDocumento(projecao.tipoDocumento())
+                    .status(projecao.status())
+                    .progresso(projecao.progresso())
+                    .dataInicio(projecao.dataInicio())
+                    .dataFim(projecao.dataFim())
+                    .transacoesProcessadas(projecao.transacoesProcessadas())
+                    .transacoesSalvas(projecao.transacoesSalvas())
+                    .duplicatasIgnoradas(projecao.duplicatasIgnoradas())
+                    .tempoProcessamentoMs(projecao.tempoProcessamentoMs())
+                    .velocidadeProcessamento(projecao.velocidadeProcessamento())
+                    .mensagem(projecao.mensagem())
+                    .erro(projecao.erro())
+                    .createdAt(projecao.createdAt())
+                    .updatedAt(projecao.updatedAt())
+                    .build();
+            
+            String self = prefixo + UriUtils.encodePathSegment(projecao.processamentoId(), StandardCharsets.UTF_8);
+            dto.add(Link.of(self));
+            dto.add(processamentosRel);
+            dto.add(transacoes);
+            
+            // Link para cancelar se estiver pendente
+            if (projecao.status() == Processamento.StatusProcessamento.PENDENTE) {
+                dto.add(Link.of(self + "/cancelar", "cancelar"));
+            }
+            dtos.add(dto);
+        }
+        
+        return CollectionModel.of(dtos, processamentos, transacoes);
+    }
+}
@@ -0,0 +1,35 @@
+package br.com.financas.leitor_transacoes_ia.model.dto;
+
+import br.com.financas.leitor_transacoes_ia.model.entity.ResumoMensal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensalDTO {
+
+    private YearMonth mes;
+    private String banco;
+    private String categoria;
+    private String moeda;
+    private BigDecimal totalValor;
+    private Integer quantidade;
+
+    public static ResumoMensalDTO de(ResumoMensal resumo) {
+        return ResumoMensalDTO.builder()
+                .mes(YearMonth.from(resumo.getMes()))
+                .banco(resumo.getBanco())
+                .categoria(resumo.getCategoria())
+                .moeda(resumo.getMoeda())
+                .totalValor(resumo.getTotalValor())
+                .quantidade(resumo.getQuantidade())
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package br.com.financas.leitor_transacoes_ia.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,5 +19,10 @@ public class TransacaoAIDTO {
     private String moeda; // BRL, USD, EUR, etc.
     private String tipoDocumento; // EXTRATO, FATURA_CARTAO
     private Integer totalTransacoes;
+    private Integer sequencia; // Parte desta mensagem (1..totalPartes) quando o documento é dividido
+    private Integer totalPartes;
+    private String referenciaPayload; // Claim-check: chave do payload no armazenamento (transacoes vem vazio)
     private List<TransacaoItemDTO> transacoes;
+    @JsonIgnore
+    private UsoTokensIA usoTokens; // Só na API (medição de custo); não vai nas mensagens da fila
 }
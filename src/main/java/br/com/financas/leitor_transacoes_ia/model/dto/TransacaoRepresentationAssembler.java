@@ -2,10 +2,19 @@ package br.com.financas.leitor_transacoes_ia.model.dto;
 
 import br.com.financas.leitor_transacoes_ia.controller.LeitorTransacoesController;
 import br.com.financas.leitor_transacoes_ia.model.entity.Transacao;
+import br.com.financas.leitor_transacoes_ia.model.projection.TransacaoProjecao;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -63,4 +72,56 @@ public class TransacaoRepresentationAssembler implements RepresentationModelAsse
         
         return collectionModel;
     }
-}
\ No newline at end of file
+
+    /**
+     * Conversão de uma listagem projetada para CollectionModel com HATEOAS.
+     * Os links são montados uma vez por requisição; por linha só é preenchido o banco.
+     * @param projecoes transações projetadas
+     * @return CollectionModel<TransacaoDTO>
+     */
+    @NotNull
+    public CollectionModel<TransacaoDTO> toCollectionModelDeProjecoes(@NotNull List<TransacaoProjecao> projecoes) {
+        ModelosLinks links = new ModelosLinks();
+        
+        List<TransacaoDTO> dtos = new ArrayList<>(projecoes.size());
+        for (TransacaoProjecao projecao : projecoes) {
+            TransacaoDTO dto = TransacaoDTO.builder()
+                    .id(projecao.id())
+                    .data(projecao.data())
+                    .lancamento(projecao.lancamento())
+                    .detalhes(projecao.detalhes())
+                    .numeroDocumento(projecao.numeroDocumento())
+                    .valor(projecao.valor())
+                    .moeda(projecao.moeda())
+                    .tipoLancamento(projecao.tipoLancamento())
+                    .categoria(projecao.categoria())
+                    .banco(projecao.banco())
+                    .createdAt(projecao.createdAt())
+                    .updatedAt(projecao.updatedAt())
+                    .build();
+            
+            dto.add(links.transacoes);
+            dto.add(links.transacoesBanco(projecao.banco()));
+            dto.add(links.processamentos);
+            dtos.add(dto);
+        }
+        
+        return CollectionModel.of(dtos, links.self, links.processamentos);
+    }
+
+    /**
+     * Links pré-calculados para uma requisição (o host/base vem da requisição atual)
+     */
+    private static final class ModelosLinks {
+        private final Link self = linkTo(methodOn(LeitorTransacoesController.class).listarTransacoes()).withSelfRel();
+        private final Link transacoes = self.withRel("transacoes");
+        private final Link processamentos = linkTo(methodOn(LeitorTransacoesController.class).listarProcessamentos()).withRel("processamentos");
+        private final String prefixoBanco = self.getHref() + "/banco/";
+        private final Map<String, Link> porBanco = new HashMap<>();
+
+        Link transacoesBanco(String banco) {
+            return porBanco.computeIfAbsent(String.valueOf(banco), b -> Link.of(
+                    prefixoBanco + UriUtils.encodePathSegment(b, StandardCharsets.UTF_8), "transacoes-banco"));
+        }
+    }
+}
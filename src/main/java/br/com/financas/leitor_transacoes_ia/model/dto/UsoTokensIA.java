@@ -0,0 +1,44 @@
+package br.com.financas.leitor_transacoes_ia.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tokens consumidos por uma chamada à IA, como reportados pelo provider
+ * (ou estimados a partir do tamanho do texto quando a resposta não traz o uso)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsoTokensIA {
+
+    // Média aproximada para texto em português nos tokenizadores atuais
+    private static final int CARACTERES_POR_TOKEN = 4;
+
+    private String provider;
+    private String modelo;
+    private long tokensEntrada;
+    private long tokensSaida;
+    private long tokensCache; // Parte da entrada servida do cache de prompt do provider
+    private boolean estimado;
+
+    /**
+     * Estimativa pelo tamanho do prompt e da resposta
+     */
+    public static UsoTokensIA estimar(String provider, String modelo, String prompt, String resposta) {
+        return UsoTokensIA.builder()
+                .provider(provider)
+                .modelo(modelo)
+                .tokensEntrada(estimarTokens(prompt))
+                .tokensSaida(estimarTokens(resposta))
+                .estimado(true)
+                .build();
+    }
+
+    public static long estimarTokens(String texto) {
+        return texto == null || texto.isEmpty() ? 0 : (texto.length() + CARACTERES_POR_TOKEN - 1) / CARACTERES_POR_TOKEN;
+    }
+}
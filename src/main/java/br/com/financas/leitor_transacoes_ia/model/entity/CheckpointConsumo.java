@@ -0,0 +1,38 @@
+package br.com.financas.leitor_transacoes_ia.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ponto de retomada de uma parte de mensagem em consumo: índice do próximo item
+ * e estatísticas acumuladas até o último lote confirmado
+ */
+@Entity
+@Table(name = "checkpoints_consumo")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckpointConsumo {
+
+    @EmbeddedId
+    private MensagemProcessada.Chave chave;
+
+    @Column(name = "proximo_indice", nullable = false)
+    private Integer proximoIndice;
+
+    @Column(name = "transacoes_salvas", nullable = false)
+    private Integer transacoesSalvas;
+
+    @Column(name = "duplicatas_ignoradas", nullable = false)
+    private Integer duplicatasIgnoradas;
+
+    @Column(nullable = false)
+    private Integer erros;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+}
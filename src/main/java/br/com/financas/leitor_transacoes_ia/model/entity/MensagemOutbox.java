@@ -0,0 +1,79 @@
+package br.com.financas.leitor_transacoes_ia.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mensagem pendente de publicação no SQS (transactional outbox).
+ * Gravada na mesma transação do processamento e removida pelo relay após o envio.
+ */
+@Entity
+@Table(name = "outbox_mensagens")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MensagemOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String fila;
+
+    /**
+     * Classe do payload, enviada no atributo JavaType para o conversor do listener.
+     * Nula quando o listener recebe o corpo bruto e decodifica por conta própria.
+     */
+    @Column
+    private String tipo;
+
+    /**
+     * Codificação do corpo (atributo contentEncoding); nula para JSON puro
+     */
+    @Column(length = 20)
+    private String codificacao;
+
+    /**
+     * Cabeçalhos de propagação do trace (JSON), enviados como atributos da mensagem
+     */
+    @Column(name = "contexto_rastreamento", length = 1024)
+    private String contextoRastreamento;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String payload;
+
+    @Column(name = "processamento_id")
+    private String processamentoId;
+
+    @Column(nullable = false)
+    private Integer tentativas;
+
+    /**
+     * A mensagem só é lida pelo relay a partir deste instante (reserva durante o envio e backoff após falhas)
+     */
+    @Column(name = "proxima_tentativa", nullable = false)
+    private LocalDateTime proximaTentativa;
+
+    @Column(name = "ultimo_erro", length = 1000)
+    private String ultimoErro;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (tentativas == null) {
+            tentativas = 0;
+        }
+        if (proximaTentativa == null) {
+            proximaTentativa = createdAt;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.financas.leitor_transacoes_ia.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Registro (ledger) de parte de mensagem já consumida, para tornar reentregas do SQS no-ops.
+ * A chave é lógica (processamentoId + sequência) e não o MessageId do SQS,
+ * que muda quando o relay do outbox reenvia a mesma parte.
+ */
+@Entity
+@Table(name = "mensagens_processadas")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MensagemProcessada {
+
+    @EmbeddedId
+    private Chave chave;
+
+    @Column(name = "processado_em", nullable = false)
+    private LocalDateTime processadoEm;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+
+        @Column(name = "processamento_id", nullable = false)
+        private String processamentoId;
+
+        @Column(nullable = false)
+        private Integer sequencia;
+    }
+}
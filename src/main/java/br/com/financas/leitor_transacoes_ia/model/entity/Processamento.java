@@ -3,6 +3,7 @@ package br.com.financas.leitor_transacoes_ia.model.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -61,12 +62,39 @@ public class Processamento {
     @Column(name = "velocidade_processamento")
     private Double velocidadeProcessamento;
 
+    @Column(name = "partes_total")
+    private Integer partesTotal;
+
+    @Column(name = "partes_concluidas")
+    private Integer partesConcluidas;
+
     @Column(name = "mensagem")
     private String mensagem;
 
     @Column(name = "erro")
     private String erro;
 
+    @Column(name = "ai_provider")
+    private String aiProvider;
+
+    @Column(name = "ai_modelo")
+    private String aiModelo;
+
+    @Column(name = "tokens_entrada")
+    private Long tokensEntrada;
+
+    @Column(name = "tokens_saida")
+    private Long tokensSaida;
+
+    @Column(name = "tokens_cache")
+    private Long tokensCache;
+
+    @Column(name = "tokens_estimados")
+    private Boolean tokensEstimados;
+
+    @Column(name = "custo_estimado", precision = 14, scale = 6)
+    private BigDecimal custoEstimado;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -89,6 +117,12 @@ public class Processamento {
         if (this.progresso == null) {
             this.progresso = 0;
         }
+        if (this.partesTotal == null) {
+            this.partesTotal = 1;
+        }
+        if (this.partesConcluidas == null) {
+            this.partesConcluidas = 0;
+        }
     }
 
     @PreUpdate
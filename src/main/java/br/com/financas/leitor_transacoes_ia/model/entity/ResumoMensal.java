@@ -0,0 +1,50 @@
+package br.com.financas.leitor_transacoes_ia.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Totais mensais por usuário, banco, categoria e moeda.
+ * Mantido incrementalmente pelo consumidor a cada lote de transações salvas.
+ */
+@Entity
+@Table(name = "resumo_mensal")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "mes", nullable = false)
+    private LocalDate mes;
+
+    @Column(nullable = false)
+    private String banco;
+
+    @Column(nullable = false)
+    private String categoria;
+
+    @Column(name = "moeda", nullable = false, length = 10)
+    private String moeda;
+
+    @Column(name = "total_valor", nullable = false, precision = 17, scale = 2)
+    private BigDecimal totalValor;
+
+    @Column(nullable = false)
+    private Integer quantidade;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,30 @@
+package br.com.financas.leitor_transacoes_ia.model.projection;
+
+import br.com.financas.leitor_transacoes_ia.model.entity.Processamento;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção de leitura de Processamento para listagens (sem entidade gerenciada no contexto de persistência)
+ */
+public record ProcessamentoProjecao(
+        Long id,
+        String processamentoId,
+        String nomeArquivo,
+        String banco,
+        String moeda,
+        String tipoDocumento,
+        Processamento.StatusProcessamento status,
+        Integer progresso,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim,
+        Integer transacoesProcessadas,
+        Integer transacoesSalvas,
+        Integer duplicatasIgnoradas,
+        Long tempoProcessamentoMs,
+        Double velocidadeProcessamento,
+        String mensagem,
+        String erro,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
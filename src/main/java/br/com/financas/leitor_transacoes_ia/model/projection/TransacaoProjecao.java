@@ -0,0 +1,22 @@
+package br.com.financas.leitor_transacoes_ia.model.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projeção de leitura de Transacao para listagens (sem entidade gerenciada no contexto de persistência)
+ */
+public record TransacaoProjecao(
+        Long id,
+        LocalDate data,
+        String lancamento,
+        String detalhes,
+        String numeroDocumento,
+        BigDecimal valor,
+        String moeda,
+        String tipoLancamento,
+        String categoria,
+        String banco,
+        LocalDate createdAt,
+        LocalDate updatedAt) {
+}
@@ -0,0 +1,7 @@
+package br.com.financas.leitor_transacoes_ia.model.projection;
+
+/**
+ * Projeção com os campos textuais indexados pela busca de transações
+ */
+public record TransacaoTextoProjecao(Long id, String lancamento, String detalhes) {
+}
@@ -0,0 +1,16 @@
+package br.com.financas.leitor_transacoes_ia.model.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Uso de IA agregado por provider e modelo num período (tokens e custo estimado dos processamentos)
+ */
+public record UsoIAProjecao(
+        String provider,
+        String modelo,
+        Long documentos,
+        Long tokensEntrada,
+        Long tokensSaida,
+        Long tokensCache,
+        BigDecimal custoEstimado) {
+}
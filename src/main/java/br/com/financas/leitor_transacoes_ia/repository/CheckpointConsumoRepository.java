@@ -0,0 +1,52 @@
+package br.com.financas.leitor_transacoes_ia.repository;
+
+import br.com.financas.leitor_transacoes_ia.model.entity.CheckpointConsumo;
+import br.com.financas.leitor_transacoes_ia.model.entity.MensagemProcessada;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface CheckpointConsumoRepository extends JpaRepository<CheckpointConsumo, MensagemProcessada.Chave> {
+
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO checkpoints_consumo (processamento_id, sequencia, atualizado_em)
+            VALUES (:processamentoId, :sequencia, :agora)
+            """, nativeQuery = true)
+    int criarSeAusente(@Param("processamentoId") String processamentoId,
+                       @Param("sequencia") int sequencia,
+                       @Param("agora") LocalDateTime agora);
+
+    /**
+     * Avança o checkpoint só se ele ainda estiver onde este consumidor o deixou (fence contra
+     * uma entrega concorrente da mesma parte)
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE checkpoints_consumo
+            SET proximo_indice = :novoIndice, transacoes_salvas = :salvas, duplicatas_ignoradas = :duplicatas,
+                erros = :erros, atualizado_em = :agora
+            WHERE processamento_id = :processamentoId AND sequencia = :sequencia AND proximo_indice = :indiceEsperado
+            """, nativeQuery = true)
+    int avancar(@Param("processamentoId") String processamentoId,
+                @Param("sequencia") int sequencia,
+                @Param("indiceEsperado") int indiceEsperado,
+                @Param("novoIndice") int novoIndice,
+                @Param("salvas") int salvas,
+                @Param("duplicatas") int duplicatas,
+                @Param("erros") int erros,
+                @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query(value = "DELETE FROM checkpoints_consumo WHERE processamento_id = :processamentoId AND sequencia = :sequencia", nativeQuery = true)
+    int remover(@Param("processamentoId") String processamentoId, @Param("sequencia") int sequencia);
+
+    @Modifying
+    @Query(value = "DELETE FROM checkpoints_consumo WHERE atualizado_em < :limite LIMIT :lote", nativeQuery = true)
+    int removerAntigos(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+}
@@ -0,0 +1,50 @@
+package br.com.financas.leitor_transacoes_ia.repository;
+
+import br.com.financas.leitor_transacoes_ia.model.entity.MensagemOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MensagemOutboxRepository extends JpaRepository<MensagemOutbox, Long> {
+
+    /**
+     * Trava as próximas mensagens pendentes cuja tentativa já venceu; linhas já travadas por outra instância são puladas
+     */
+    @Query(value = """
+            SELECT * FROM outbox_mensagens
+            WHERE tentativas < :maxTentativas AND proxima_tentativa <= :agora
+            ORDER BY id
+            LIMIT :limite
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<MensagemOutbox> travarPendentes(@Param("maxTentativas") int maxTentativas,
+                                         @Param("agora") LocalDateTime agora,
+                                         @Param("limite") int limite);
+
+    /**
+     * Reserva as mensagens para o relay que vai enviá-las: as demais instâncias só as leem após o prazo
+     */
+    @Modifying
+    @Query("UPDATE MensagemOutbox m SET m.proximaTentativa = :ate WHERE m.id IN :ids")
+    int reservar(@Param("ids") List<Long> ids, @Param("ate") LocalDateTime ate);
+
+    @Modifying
+    @Query("""
+            UPDATE MensagemOutbox m
+            SET m.tentativas = :tentativas, m.ultimoErro = :erro, m.proximaTentativa = :proximaTentativa
+            WHERE m.id = :id
+            """)
+    int registrarFalha(@Param("id") Long id,
+                       @Param("tentativas") int tentativas,
+                       @Param("erro") String erro,
+                       @Param("proximaTentativa") LocalDateTime proximaTentativa);
+
+    @Query("SELECT COUNT(m) FROM MensagemOutbox m WHERE m.tentativas < :maxTentativas")
+    long countPendentes(@Param("maxTentativas") int maxTentativas);
+}
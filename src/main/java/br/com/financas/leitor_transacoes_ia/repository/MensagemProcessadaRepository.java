@@ -0,0 +1,31 @@
+package br.com.financas.leitor_transacoes_ia.repository;
+
+import br.com.financas.leitor_transacoes_ia.model.entity.MensagemProcessada;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface MensagemProcessadaRepository extends JpaRepository<MensagemProcessada, MensagemProcessada.Chave> {
+
+    /**
+     * Registra a parte; retorna 0 se ela já estava registrada (inclusive por uma entrega concorrente,
+     * cuja transação é aguardada pelo lock da chave)
+     */
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO mensagens_processadas (processamento_id, sequencia, processado_em)
+            VALUES (:processamentoId, :sequencia, :agora)
+            """, nativeQuery = true)
+    int registrar(@Param("processamentoId") String processamentoId,
+                  @Param("sequencia") int sequencia,
+                  @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query(value = "DELETE FROM mensagens_processadas WHERE processado_em < :limite LIMIT :lote", nativeQuery = true)
+    int removerAntigas(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+}
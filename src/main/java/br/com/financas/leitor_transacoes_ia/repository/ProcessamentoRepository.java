@@ -1,16 +1,25 @@
 package br.com.financas.leitor_transacoes_ia.repository;
 
 import br.com.financas.leitor_transacoes_ia.model.entity.Processamento;
+import br.com.financas.leitor_transacoes_ia.model.projection.ProcessamentoProjecao;
+import br.com.financas.leitor_transacoes_ia.model.projection.UsoIAProjecao;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Consultas rodam em transação somente leitura (roteadas para a réplica quando habilitada);
+ * dentro de uma transação de escrita, participam dela e usam o primário.
+ */
 @Repository
+@Transactional(readOnly = true)
 public interface ProcessamentoRepository extends JpaRepository<Processamento, Long> {
     
     Optional<Processamento> findByProcessamentoId(String processamentoId);
@@ -33,6 +42,35 @@ public interface ProcessamentoRepository extends JpaRepository<Processamento, Lo
     // Queries com filtro por userId (multi-tenancy)
     List<Processamento> findByUserId(String userId);
     
+    /**
+     * Listagem projetada por usuário (sem hidratar entidades)
+     */
+    @Query("""
+            SELECT new br.com.financas.leitor_transacoes_ia.model.projection.ProcessamentoProjecao(
+                p.id, p.processamentoId, p.nomeArquivo, p.banco, p.moeda, p.tipoDocumento, p.status, p.progresso,
+                p.dataInicio, p.dataFim, p.transacoesProcessadas, p.transacoesSalvas, p.duplicatasIgnoradas,
+                p.tempoProcessamentoMs, p.velocidadeProcessamento, p.mensagem, p.erro, p.createdAt, p.updatedAt)
+            FROM Processamento p
+            WHERE p.userId = :userId
+            """)
+    List<ProcessamentoProjecao> findProjetadosByUserId(@Param("userId") String userId);
+    
+    /**
+     * Tokens e custo estimado somados por provider/modelo nos processamentos do usuário criados em [inicio, fim)
+     */
+    @Query("""
+            SELECT new br.com.financas.leitor_transacoes_ia.model.projection.UsoIAProjecao(
+                p.aiProvider, p.aiModelo, COUNT(p), SUM(p.tokensEntrada), SUM(p.tokensSaida), SUM(p.tokensCache),
+                SUM(p.custoEstimado))
+            FROM Processamento p
+            WHERE p.userId = :userId AND p.createdAt >= :inicio AND p.createdAt < :fim AND p.aiProvider IS NOT NULL
+            GROUP BY p.aiProvider, p.aiModelo
+            ORDER BY p.aiProvider, p.aiModelo
+            """)
+    List<UsoIAProjecao> somarUsoIAPorUserId(@Param("userId") String userId,
+                                            @Param("inicio") LocalDateTime inicio,
+                                            @Param("fim") LocalDateTime fim);
+    
     Optional<Processamento> findByUserIdAndProcessamentoId(String userId, String processamentoId);
     
     List<Processamento> findByUserIdAndStatus(String userId, Processamento.StatusProcessamento status);
@@ -46,4 +84,42 @@ public interface ProcessamentoRepository extends JpaRepository<Processamento, Lo
     
     @Query("SELECT COUNT(p) FROM Processamento p WHERE p.userId = :userId AND p.status = :status")
     Long countByUserIdAndStatus(@Param("userId") String userId, @Param("status") Processamento.StatusProcessamento status);
+    
+    /**
+     * Passa para PROCESSANDO apenas na primeira parte consumida (as demais não reiniciam dataInicio)
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE Processamento p SET p.status = 'PROCESSANDO', p.dataInicio = :agora, p.updatedAt = :agora
+            WHERE p.processamentoId = :processamentoId AND p.status = 'PENDENTE'
+            """)
+    int marcarEmProcessamento(@Param("processamentoId") String processamentoId, @Param("agora") LocalDateTime agora);
+    
+    /**
+     * Soma as estatísticas de uma parte consumida de forma atômica (partes podem ser consumidas em paralelo)
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            UPDATE Processamento p SET
+                p.partesConcluidas = p.partesConcluidas + 1,
+                p.transacoesProcessadas = COALESCE(p.transacoesProcessadas, 0) + :processadas,
+                p.transacoesSalvas = COALESCE(p.transacoesSalvas, 0) + :salvas,
+                p.duplicatasIgnoradas = COALESCE(p.duplicatasIgnoradas, 0) + :duplicatas,
+                p.updatedAt = :agora
+            WHERE p.processamentoId = :processamentoId
+            """)
+    int acumularParteConcluida(@Param("processamentoId") String processamentoId,
+                               @Param("processadas") int processadas,
+                               @Param("salvas") int salvas,
+                               @Param("duplicatas") int duplicatas,
+                               @Param("agora") LocalDateTime agora);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Processamento p SET p.progresso = :progresso, p.updatedAt = :agora WHERE p.processamentoId = :processamentoId")
+    int atualizarProgresso(@Param("processamentoId") String processamentoId,
+                           @Param("progresso") int progresso,
+                           @Param("agora") LocalDateTime agora);
 }
@@ -0,0 +1,73 @@
+package br.com.financas.leitor_transacoes_ia.repository;
+
+import br.com.financas.leitor_transacoes_ia.model.entity.ResumoMensal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ResumoMensalRepository extends JpaRepository<ResumoMensal, Long> {
+
+    @Transactional(readOnly = true)
+    List<ResumoMensal> findByUserIdAndMesBetweenOrderByMesAscBancoAscCategoriaAsc(
+            String userId, LocalDate mesInicio, LocalDate mesFim);
+
+    /**
+     * Soma um delta ao total do mês (cria a linha se ainda não existir)
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO resumo_mensal (user_id, mes, banco, categoria, moeda, total_valor, quantidade)
+            VALUES (:userId, :mes, :banco, :categoria, :moeda, :valor, :quantidade)
+            ON DUPLICATE KEY UPDATE
+                total_valor = total_valor + VALUES(total_valor),
+                quantidade = quantidade + VALUES(quantidade)
+            """, nativeQuery = true)
+    int acumular(@Param("userId") String userId,
+                 @Param("mes") LocalDate mes,
+                 @Param("banco") String banco,
+                 @Param("categoria") String categoria,
+                 @Param("moeda") String moeda,
+                 @Param("valor") BigDecimal valor,
+                 @Param("quantidade") int quantidade);
+
+    @Modifying
+    @Query(value = "DELETE FROM resumo_mensal WHERE user_id = :userId", nativeQuery = true)
+    int removerPorUsuario(@Param("userId") String userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM resumo_mensal", nativeQuery = true)
+    int removerTodos();
+
+    /**
+     * Recalcula o resumo do usuário a partir da tabela transacoes (backfill)
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO resumo_mensal (user_id, mes, banco, categoria, moeda, total_valor, quantidade)
+            SELECT user_id, DATE_FORMAT(data, '%Y-%m-01'), COALESCE(banco, ''), COALESCE(categoria, 'OUTROS'), moeda, SUM(valor), COUNT(*)
+            FROM transacoes
+            WHERE user_id = :userId
+            GROUP BY user_id, DATE_FORMAT(data, '%Y-%m-01'), COALESCE(banco, ''), COALESCE(categoria, 'OUTROS'), moeda
+            """, nativeQuery = true)
+    int reconstruirPorUsuario(@Param("userId") String userId);
+
+    /**
+     * Recalcula o resumo de todos os usuários a partir da tabela transacoes (backfill)
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO resumo_mensal (user_id, mes, banco, categoria, moeda, total_valor, quantidade)
+            SELECT COALESCE(user_id, 'system'), DATE_FORMAT(data, '%Y-%m-01'), COALESCE(banco, ''), COALESCE(categoria, 'OUTROS'), moeda, SUM(valor), COUNT(*)
+            FROM transacoes
+            GROUP BY COALESCE(user_id, 'system'), DATE_FORMAT(data, '%Y-%m-01'), COALESCE(banco, ''), COALESCE(categoria, 'OUTROS'), moeda
+            """, nativeQuery = true)
+    int reconstruirTodos();
+}
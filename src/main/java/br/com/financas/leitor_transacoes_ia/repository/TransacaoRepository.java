@@ -1,19 +1,64 @@
 package br.com.financas.leitor_transacoes_ia.repository;
 
 import br.com.financas.leitor_transacoes_ia.model.entity.Transacao;
+import br.com.financas.leitor_transacoes_ia.model.projection.TransacaoProjecao;
+import br.com.financas.leitor_transacoes_ia.model.projection.TransacaoTextoProjecao;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Consultas rodam em transação somente leitura (roteadas para a réplica quando habilitada);
+ * dentro de uma transação de escrita, participam dela e usam o primário.
+ */
 @Repository
+@Transactional(readOnly = true)
 public interface TransacaoRepository extends JpaRepository<Transacao, Long> {
     
     List<Transacao> findByBanco(String banco);
     
+    /**
+     * Listagem projetada (sem hidratar entidades)
+     */
+    @Query("""
+            SELECT new br.com.financas.leitor_transacoes_ia.model.projection.TransacaoProjecao(
+                t.id, t.data, t.lancamento, t.detalhes, t.numeroDocumento, t.valor, t.moeda,
+                t.tipoLancamento, t.categoria, t.banco, t.createdAt, t.updatedAt)
+            FROM Transacao t
+            """)
+    List<TransacaoProjecao> findAllProjetadas();
+    
+    @Query("""
+            SELECT new br.com.financas.leitor_transacoes_ia.model.projection.TransacaoProjecao(
+                t.id, t.data, t.lancamento, t.detalhes, t.numeroDocumento, t.valor, t.moeda,
+                t.tipoLancamento, t.categoria, t.banco, t.createdAt, t.updatedAt)
+            FROM Transacao t
+            WHERE t.userId = :userId AND t.id IN :ids
+            """)
+    List<TransacaoProjecao> findProjetadasByUserIdAndIdIn(@Param("userId") String userId, @Param("ids") Collection<Long> ids);
+    
+    /**
+     * Textos para o índice de busca, paginados por id (keyset)
+     */
+    @Query("""
+            SELECT new br.com.financas.leitor_transacoes_ia.model.projection.TransacaoTextoProjecao(t.id, t.lancamento, t.detalhes)
+            FROM Transacao t
+            WHERE t.userId = :userId AND t.id > :idMinimo
+            ORDER BY t.id
+            """)
+    List<TransacaoTextoProjecao> findTextosByUserIdAndIdGreaterThan(@Param("userId") String userId,
+                                                                    @Param("idMinimo") Long idMinimo,
+                                                                    Pageable pagina);
+    
     List<Transacao> findByDataBetween(LocalDate dataInicio, LocalDate dataFim);
     
     List<Transacao> findByBancoAndDataBetween(String banco, LocalDate dataInicio, LocalDate dataFim);
@@ -0,0 +1,185 @@
+package br.com.financas.leitor_transacoes_ia.search;
+
+import br.com.financas.leitor_transacoes_ia.model.entity.Transacao;
+import br.com.financas.leitor_transacoes_ia.model.projection.TransacaoProjecao;
+import br.com.financas.leitor_transacoes_ia.model.projection.TransacaoTextoProjecao;
+import br.com.financas.leitor_transacoes_ia.repository.TransacaoRepository;
+import br.com.financas.leitor_transacoes_ia.security.UserContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Busca textual em lancamento/detalhes com um índice de trigramas em memória por usuário.
+ * O índice é construído sob demanda, atualizado pelo consumidor após cada lote salvo
+ * e, antes de cada busca, completado com as transações gravadas por outras instâncias
+ * (e relido por inteiro a cada busca.intervalo-reconciliacao-ms).
+ * Os índices menos usados são descartados (LRU) acima de busca.max-tenants.
+ */
+@Service
+@Slf4j
+public class BuscaTransacoesService {
+
+    private final TransacaoRepository transacaoRepository;
+    private final UserContext userContext;
+    private final Map<String, EntradaIndice> indices;
+
+    @Value("${busca.similaridade-minima:0.6}")
+    private double similaridadeMinima;
+
+    @Value("${busca.janela-recuperacao:500}")
+    private long janelaRecuperacao;
+
+    @Value("${busca.intervalo-atualizacao-ms:1000}")
+    private long intervaloAtualizacaoMs;
+
+    // A janela de ids é global (AUTO_INCREMENT de todos os usuários): um commit atrasado além dela
+    // só entra no índice na próxima reconciliação completa
+    @Value("${busca.intervalo-reconciliacao-ms:300000}")
+    private long intervaloReconciliacaoMs;
+
+    @Value("${busca.tamanho-pagina-carga:5000}")
+    private int tamanhoPaginaCarga;
+
+    public BuscaTransacoesService(TransacaoRepository transacaoRepository,
+                                  UserContext userContext,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${busca.max-tenants:100}") int maxTenants) {
+        this.transacaoRepository = transacaoRepository;
+        this.userContext = userContext;
+        this.indices = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, EntradaIndice> maisAntigo) {
+                return size() > maxTenants;
+            }
+        };
+
+        Gauge.builder("busca.indices", this, s -> s.totalIndices())
+                .description("Índices de busca de usuários carregados em memória")
+                .register(meterRegistry);
+    }
+
+    public record Resultado(double pontuacao, TransacaoProjecao transacao) {
+    }
+
+    /**
+     * Busca transações do usuário atual, ordenadas por relevância
+     */
+    public List<Resultado> buscar(String consulta, int limite) {
+        String userId = userContext.getCurrentUserId();
+        EntradaIndice entrada = obterEntrada(userId);
+        atualizar(userId, entrada, false);
+
+        List<IndiceTrigramas.Resultado> encontrados = entrada.indice.buscar(consulta, limite, similaridadeMinima);
+        if (encontrados.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, TransacaoProjecao> porId = transacaoRepository
+                .findProjetadasByUserIdAndIdIn(userId, encontrados.stream().map(IndiceTrigramas.Resultado::id).toList())
+                .stream()
+                .collect(Collectors.toMap(TransacaoProjecao::id, Function.identity()));
+
+        List<Resultado> resultados = new ArrayList<>(encontrados.size());
+        for (IndiceTrigramas.Resultado encontrado : encontrados) {
+            TransacaoProjecao transacao = porId.get(encontrado.id());
+            if (transacao != null) {
+                resultados.add(new Resultado(encontrado.pontuacao(), transacao));
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Atualização incremental após um lote salvo (só se o índice do usuário já estiver carregado)
+     */
+    public void indexar(String userId, List<Transacao> transacoes) {
+        EntradaIndice entrada;
+        synchronized (indices) {
+            entrada = indices.get(userId);
+        }
+        if (entrada == null) {
+            return;
+        }
+        for (Transacao transacao : transacoes) {
+            if (transacao.getId() != null) {
+                entrada.indice.adicionar(transacao.getId(), transacao.getLancamento(), transacao.getDetalhes());
+            }
+        }
+    }
+
+    private EntradaIndice obterEntrada(String userId) {
+        synchronized (indices) {
+            return indices.computeIfAbsent(userId, u -> new EntradaIndice());
+        }
+    }
+
+    private int totalIndices() {
+        synchronized (indices) {
+            return indices.size();
+        }
+    }
+
+    /**
+     * Completa o índice com as transações gravadas desde a última atualização.
+     * Relê uma janela de ids anteriores ao maior já indexado para cobrir commits fora de ordem
+     * e, periodicamente, todas as transações do usuário (a indexação ignora ids já presentes).
+     */
+    private void atualizar(String userId, EntradaIndice entrada, boolean forcar) {
+        // Lock explícito: a carga consulta o banco, e um synchronized prenderia a thread de plataforma no modo virtual
+        entrada.atualizacao.lock();
+        try {
+            long agora = System.currentTimeMillis();
+            if (!forcar && entrada.carregado && agora - entrada.ultimaAtualizacao < intervaloAtualizacaoMs) {
+                return;
+            }
+
+            long inicio = System.nanoTime();
+            boolean reconciliar = !entrada.carregado || agora - entrada.ultimaReconciliacao >= intervaloReconciliacaoMs;
+            long idMinimo = reconciliar ? 0 : Math.max(0, entrada.indice.getMaiorId() - janelaRecuperacao);
+            int carregadas = 0;
+            List<TransacaoTextoProjecao> pagina;
+            do {
+                pagina = transacaoRepository.findTextosByUserIdAndIdGreaterThan(userId, idMinimo, PageRequest.of(0, tamanhoPaginaCarga));
+                for (TransacaoTextoProjecao texto : pagina) {
+                    entrada.indice.adicionar(texto.id(), texto.lancamento(), texto.detalhes());
+                    idMinimo = texto.id();
+                }
+                carregadas += pagina.size();
+            } while (pagina.size() == tamanhoPaginaCarga);
+
+            if (!entrada.carregado) {
+                log.info("Índice de busca construído para usuário {}: {} transações em {} ms",
+                        userId, entrada.indice.getTotalDocumentos(), (System.nanoTime() - inicio) / 1_000_000);
+            } else if (carregadas > 0) {
+                log.debug("Índice de busca do usuário {} atualizado: {} transações lidas", userId, carregadas);
+            }
+            entrada.carregado = true;
+            entrada.ultimaAtualizacao = agora;
+            if (reconciliar) {
+                entrada.ultimaReconciliacao = agora;
+            }
+        } finally {
+            entrada.atualizacao.unlock();
+        }
+    }
+
+    private static final class EntradaIndice {
+        private final IndiceTrigramas indice = new IndiceTrigramas();
+        private final ReentrantLock atualizacao = new ReentrantLock();
+        private volatile boolean carregado;
+        private volatile long ultimaAtualizacao;
+        private volatile long ultimaReconciliacao;
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.financas.leitor_transacoes_ia.search;
+
+/**
+ * Conjunto de longs com endereçamento aberto (sem boxing), usado para saber se um id já foi indexado.
+ * Não é thread-safe: o IndiceTrigramas protege o acesso com seu lock.
+ */
+class ConjuntoLongs {
+
+    private static final long VAZIO = 0L;
+
+    private long[] tabela = new long[64];
+    private int tamanho;
+
+    /**
+     * @return true se o valor foi adicionado, false se já existia
+     */
+    boolean adicionar(long valor) {
+        if (valor == VAZIO) {
+            throw new IllegalArgumentException("Valor 0 não suportado");
+        }
+        if ((tamanho + 1) * 2 > tabela.length) {
+            redimensionar();
+        }
+        int mascara = tabela.length - 1;
+        int posicao = espalhar(valor) & mascara;
+        while (tabela[posicao] != VAZIO) {
+            if (tabela[posicao] == valor) {
+                return false;
+            }
+            posicao = (posicao + 1) & mascara;
+        }
+        tabela[posicao] = valor;
+        tamanho++;
+        return true;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    private void redimensionar() {
+        long[] antiga = tabela;
+        tabela = new long[antiga.length * 2];
+        int mascara = tabela.length - 1;
+        for (long valor : antiga) {
+            if (valor != VAZIO) {
+                int posicao = espalhar(valor) & mascara;
+                while (tabela[posicao] != VAZIO) {
+                    posicao = (posicao + 1) & mascara;
+                }
+                tabela[posicao] = valor;
+            }
+        }
+    }
+
+    private static int espalhar(long valor) {
+        long h = valor * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
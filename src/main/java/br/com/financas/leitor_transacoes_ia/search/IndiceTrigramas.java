@@ -0,0 +1,207 @@
+package br.com.financas.leitor_transacoes_ia.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas de um usuário (tenant).
+ * Cada transação vira um documento interno (índice int); as postings guardam esses índices
+ * em arrays primitivos e o id real da transação fica em docIds.
+ */
+public class IndiceTrigramas {
+
+    // Alfabeto normalizado: espaço, a-z e 0-9
+    private static final int TAMANHO_ALFABETO = 37;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Postings> postings = new HashMap<>();
+    private final ConjuntoLongs idsIndexados = new ConjuntoLongs();
+    private long[] docIds = new long[64];
+    private volatile int totalDocumentos;
+    private volatile long maiorId;
+
+    public record Resultado(long id, double pontuacao) {
+    }
+
+    /**
+     * Indexa a transação se ainda não estiver no índice
+     */
+    public void adicionar(long id, String lancamento, String detalhes) {
+        int[] trigramas = trigramasUnicos(lancamento + " " + (detalhes != null ? detalhes : ""));
+
+        lock.writeLock().lock();
+        try {
+            if (!idsIndexados.adicionar(id)) {
+                return;
+            }
+            if (totalDocumentos == docIds.length) {
+                docIds = Arrays.copyOf(docIds, docIds.length * 2);
+            }
+            int documento = totalDocumentos++;
+            docIds[documento] = id;
+            maiorId = Math.max(maiorId, id);
+
+            for (int trigrama : trigramas) {
+                postings.computeIfAbsent(trigrama, t -> new Postings()).adicionar(documento);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca por similaridade de trigramas.
+     *
+     * @param consulta Texto buscado
+     * @param limite Quantidade máxima de resultados
+     * @param similaridadeMinima Fração mínima dos trigramas da consulta presentes no documento (0..1)
+     * @return Resultados ordenados por pontuação (e, no empate, pela transação mais recente)
+     */
+    public List<Resultado> buscar(String consulta, int limite, double similaridadeMinima) {
+        int[] trigramasConsulta = trigramasUnicos(consulta);
+        if (trigramasConsulta.length == 0 || limite <= 0) {
+            return List.of();
+        }
+        int minimo = Math.max(1, (int) Math.ceil(trigramasConsulta.length * similaridadeMinima));
+
+        lock.readLock().lock();
+        try {
+            int[] contagens = new int[totalDocumentos];
+            for (int trigrama : trigramasConsulta) {
+                Postings lista = postings.get(trigrama);
+                if (lista == null) {
+                    continue;
+                }
+                for (int i = 0; i < lista.tamanho; i++) {
+                    contagens[lista.documentos[i]]++;
+                }
+            }
+
+            PriorityQueue<Integer> melhores = new PriorityQueue<>(limite + 1,
+                    (a, b) -> contagens[a] != contagens[b] ? Integer.compare(contagens[a], contagens[b]) : Long.compare(docIds[a], docIds[b]));
+            for (int documento = 0; documento < contagens.length; documento++) {
+                if (contagens[documento] < minimo) {
+                    continue;
+                }
+                melhores.offer(documento);
+                if (melhores.size() > limite) {
+                    melhores.poll();
+                }
+            }
+
+            List<Resultado> resultados = new ArrayList<>(melhores.size());
+            while (!melhores.isEmpty()) {
+                int documento = melhores.poll();
+                resultados.add(new Resultado(docIds[documento], (double) contagens[documento] / trigramasConsulta.length));
+            }
+            Collections.reverse(resultados);
+            return resultados;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getMaiorId() {
+        return maiorId;
+    }
+
+    public int getTotalDocumentos() {
+        return totalDocumentos;
+    }
+
+    /**
+     * Normaliza (minúsculas, sem acentos, só letras/dígitos) e gera os trigramas de cada palavra,
+     * com espaço de borda como no pg_trgm ("  p", " pa", "pad", "ada", "dar", "ar ")
+     */
+    static int[] trigramasUnicos(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return new int[0];
+        }
+        String normalizado = Normalizer.normalize(texto, Normalizer.Form.NFD).toLowerCase();
+
+        ConjuntoInts trigramas = new ConjuntoInts();
+        int c1 = 0;
+        int c2 = 0;
+        boolean emPalavra = false;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            int codigo = i < normalizado.length() ? codigo(normalizado.charAt(i)) : 0;
+            if (codigo < 0) {
+                continue; // marcas de acento (NFD) e pontuação ignoradas
+            }
+            if (codigo == 0) {
+                if (emPalavra) {
+                    trigramas.adicionar(trigrama(c1, c2, 0));
+                }
+                emPalavra = false;
+                c1 = 0;
+                c2 = 0;
+                continue;
+            }
+            trigramas.adicionar(trigrama(c1, c2, codigo));
+            emPalavra = true;
+            c1 = c2;
+            c2 = codigo;
+        }
+        return trigramas.paraArray();
+    }
+
+    private static int codigo(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        if (Character.isWhitespace(c) || c == '-' || c == '/' || c == '*' || c == '.' || c == ',') {
+            return 0;
+        }
+        return -1;
+    }
+
+    private static int trigrama(int c1, int c2, int c3) {
+        return (c1 * TAMANHO_ALFABETO + c2) * TAMANHO_ALFABETO + c3;
+    }
+
+    private static final class Postings {
+        private int[] documentos = new int[4];
+        private int tamanho;
+
+        void adicionar(int documento) {
+            if (tamanho == documentos.length) {
+                documentos = Arrays.copyOf(documentos, tamanho * 2);
+            }
+            documentos[tamanho++] = documento;
+        }
+    }
+
+    /**
+     * Conjunto de ints pequeno para deduplicar os trigramas de um texto
+     */
+    private static final class ConjuntoInts {
+        private int[] valores = new int[32];
+        private int tamanho;
+
+        void adicionar(int valor) {
+            for (int i = 0; i < tamanho; i++) {
+                if (valores[i] == valor) {
+                    return;
+                }
+            }
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            valores[tamanho++] = valor;
+        }
+
+        int[] paraArray() {
+            return Arrays.copyOf(valores, tamanho);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package br.com.financas.leitor_transacoes_ia.service;
 
 import br.com.financas.leitor_transacoes_ia.client.AIClient;
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
+import br.com.financas.leitor_transacoes_ia.security.UserContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -11,7 +13,10 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class AIClassificadorService {
     
+    @Lazy // Proxy: o cliente do provider só é criado na primeira classificação
     private final AIClient aiClient;
+    private final MedidorUsoIA medidorUsoIA;
+    private final UserContext userContext;
     
     /**
      * Processa um documento financeiro usando IA para extrair e classificar transações
@@ -31,6 +36,7 @@ public class AIClassificadorService {
             
             log.info("Classificação concluída. Total de transações: {}", 
                     resultado.getTotalTransacoes());
+            medidorUsoIA.registrar(userContext.getCurrentUserId(), resultado.getUsoTokens());
             
             return resultado;
         } catch (Exception e) {
@@ -0,0 +1,358 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.security.UserContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Divide a capacidade de extração + classificação com IA entre os usuários (tenants) com
+ * deficit round robin: cada usuário com trabalho na fila recebe, por rodada, um quantum
+ * (ai.agendador.quantum-bytes × peso) de crédito e só é atendido quando o crédito cobre o custo
+ * do próximo documento (tamanho do arquivo). Assim, quem envia muitos PDFs grandes não bloqueia
+ * os envios pequenos dos demais.
+ * Os documentos são separados por custo em duas raias com concorrência própria (pequenos até
+ * ai.agendador.limite-pequeno-bytes, e grandes), para que um CSV pequeno não espere atrás de PDFs enormes.
+ * Envelhecimento: um documento grande que aguarda mais que ai.agendador.envelhecimento-ms pode usar uma
+ * vaga ociosa da raia de pequenos, então os grandes não ficam parados sob carga contínua.
+ * Cada usuário tem ainda um máximo de documentos em processamento ao mesmo tempo (ai.agendador.max-em-voo-por-usuario).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AgendadorJustoIA {
+
+    private final UserContext userContext;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Raia, EstadoRaia> raias = new EnumMap<>(Raia.class);
+    private final Map<String, Integer> emVooPorUsuario = new HashMap<>();
+    private final Map<String, Integer> pesos = new HashMap<>();
+
+    @Value("${ai.agendador.max-concorrencia-pequenos:4}")
+    private int maxConcorrenciaPequenos;
+
+    @Value("${ai.agendador.max-concorrencia-grandes:4}")
+    private int maxConcorrenciaGrandes;
+
+    @Value("${ai.agendador.limite-pequeno-bytes:1048576}")
+    private long limitePequenoBytes;
+
+    @Value("${ai.agendador.envelhecimento-ms:30000}")
+    private long envelhecimentoMs;
+
+    @Value("${ai.agendador.max-em-voo-por-usuario:2}")
+    private int maxEmVooPorUsuario;
+
+    @Value("${ai.agendador.quantum-bytes:262144}")
+    private long quantumBytes;
+
+    // usuario:peso separados por vírgula; quem não está na lista tem peso 1
+    @Value("${ai.agendador.pesos:}")
+    private String pesosConfigurados;
+
+    @Value("${ai.agendador.espera-maxima-ms:120000}")
+    private long esperaMaximaMs;
+
+    @Value("${ai.agendador.retry-after-segundos:30}")
+    private long retryAfterSegundos;
+
+    public enum Raia {
+        PEQUENOS, GRANDES
+    }
+
+    /**
+     * Tempo de espera na fila acima de ai.agendador.espera-maxima-ms
+     */
+    public static class EsperaExcedidaException extends RuntimeException {
+        private final long retryAfterSegundos;
+
+        public EsperaExcedidaException(String userId, long esperaMs, long retryAfterSegundos) {
+            super("Capacidade de processamento com IA ocupada; usuário " + userId + " aguardou " + esperaMs + " ms");
+            this.retryAfterSegundos = retryAfterSegundos;
+        }
+
+        public long getRetryAfterSegundos() {
+            return retryAfterSegundos;
+        }
+    }
+
+    @PostConstruct
+    public void inicializar() {
+        for (String par : pesosConfigurados.split(",")) {
+            String[] partes = par.trim().split(":");
+            if (partes.length == 2) {
+                pesos.put(partes[0].trim(), Math.max(1, Integer.parseInt(partes[1].trim())));
+            }
+        }
+        raias.put(Raia.PEQUENOS, new EstadoRaia(maxConcorrenciaPequenos));
+        raias.put(Raia.GRANDES, new EstadoRaia(maxConcorrenciaGrandes));
+
+        for (Map.Entry<Raia, EstadoRaia> raia : raias.entrySet()) {
+            String nome = raia.getKey().name().toLowerCase();
+            EstadoRaia estado = raia.getValue();
+            Gauge.builder("ai.agendador.em-execucao", estado, e -> e.emExecucao)
+                    .description("Documentos em extração/classificação com IA")
+                    .tag("raia", nome)
+                    .register(meterRegistry);
+            Gauge.builder("ai.agendador.aguardando", estado, e -> e.aguardando)
+                    .description("Documentos aguardando vez para a IA")
+                    .tag("raia", nome)
+                    .register(meterRegistry);
+        }
+    }
+
+    public Raia classificar(long custo) {
+        return custo <= limitePequenoBytes ? Raia.PEQUENOS : Raia.GRANDES;
+    }
+
+    /**
+     * Executa a tarefa quando for a vez do usuário atual, bloqueando a thread até lá
+     *
+     * @param custo Custo estimado do documento (tamanho do arquivo em bytes)
+     * @param tarefa Extração + classificação
+     * @throws EsperaExcedidaException se a vez não chegar dentro de ai.agendador.espera-maxima-ms
+     */
+    public <T> T executar(long custo, Supplier<T> tarefa) {
+        String userId = userContext.getCurrentUserId();
+        Raia raia = classificar(custo);
+        EstadoRaia estado = raias.get(raia);
+        Ticket ticket = new Ticket(userId, Math.max(1, custo), lock.newCondition());
+
+        lock.lock();
+        try {
+            Inquilino inquilino = estado.inquilinos.computeIfAbsent(userId, Inquilino::new);
+            if (inquilino.fila.isEmpty()) {
+                estado.ativos.addLast(inquilino);
+            }
+            inquilino.fila.addLast(ticket);
+            estado.aguardando++;
+            despachar();
+
+            long limite = ticket.criadoEmNanos + TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+            long envelhecido = ticket.criadoEmNanos + TimeUnit.MILLISECONDS.toNanos(envelhecimentoMs);
+            while (ticket.raiaExecucao == null) {
+                long agora = System.nanoTime();
+                if (agora - limite >= 0) {
+                    cancelar(estado, inquilino, ticket);
+                    registrarEspera(raia, userId, ticket.criadoEmNanos);
+                    throw new EsperaExcedidaException(userId, esperaMaximaMs, retryAfterSegundos);
+                }
+                // Grandes acordam ao envelhecer para tentar uma vaga ociosa dos pequenos
+                long ate = raia == Raia.GRANDES && agora - envelhecido < 0 ? envelhecido : limite;
+                try {
+                    if (ticket.vez.awaitNanos(ate - agora) <= 0 && ate == envelhecido) {
+                        despachar();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancelar(estado, inquilino, ticket);
+                    throw new RuntimeException("Interrompido aguardando a vez para a IA", e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        registrarEspera(raia, userId, ticket.criadoEmNanos);
+        try {
+            return tarefa.get();
+        } finally {
+            concluir(ticket);
+        }
+    }
+
+    private void concluir(Ticket ticket) {
+        lock.lock();
+        try {
+            raias.get(ticket.raiaExecucao).emExecucao--;
+            emVooPorUsuario.computeIfPresent(ticket.userId, (u, emVoo) -> emVoo > 1 ? emVoo - 1 : null);
+            despachar();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera documentos enquanto houver vaga em cada raia, escolhendo o próximo usuário por DRR;
+     * vagas ociosas dos pequenos atendem grandes envelhecidos
+     */
+    private void despachar() {
+        EstadoRaia pequenos = raias.get(Raia.PEQUENOS);
+        EstadoRaia grandes = raias.get(Raia.GRANDES);
+        while (grandes.emExecucao < grandes.maxConcorrencia && liberarProximo(grandes, Raia.GRANDES)) {
+            // continua enquanto houver vaga e trabalho elegível
+        }
+        while (pequenos.emExecucao < pequenos.maxConcorrencia && liberarProximo(pequenos, Raia.PEQUENOS)) {
+            // continua enquanto houver vaga e trabalho elegível
+        }
+        long criadoAte = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(envelhecimentoMs);
+        while (pequenos.emExecucao < pequenos.maxConcorrencia && liberarEnvelhecido(grandes, criadoAte)) {
+            log.debug("Documento grande envelhecido liberado numa vaga de pequenos");
+        }
+    }
+
+    /**
+     * @param raiaExecucao Raia cuja vaga o documento vai ocupar
+     * @return false se não houver documento elegível
+     */
+    private boolean liberarProximo(EstadoRaia estado, Raia raiaExecucao) {
+        Inquilino escolhido = proximo(estado);
+        if (escolhido == null) {
+            return false;
+        }
+        escolhido.deficit -= escolhido.fila.peekFirst().custo;
+        liberar(estado, escolhido, raiaExecucao);
+        return true;
+    }
+
+    /**
+     * Libera numa vaga de pequenos o documento grande mais antigo entre os da frente de cada usuário elegível,
+     * se tiver sido criado até criadoAte. Fora do DRR: não mexe nos créditos nem na ordem da rodada.
+     *
+     * @return false se nenhum usuário elegível tiver documento envelhecido na frente
+     */
+    private boolean liberarEnvelhecido(EstadoRaia grandes, long criadoAte) {
+        Inquilino maisAntigo = null;
+        for (Inquilino inquilino : grandes.ativos) {
+            Ticket frente = inquilino.fila.peekFirst();
+            if (elegivel(inquilino) && frente.criadoEmNanos - criadoAte <= 0
+                    && (maisAntigo == null || frente.criadoEmNanos - maisAntigo.fila.peekFirst().criadoEmNanos < 0)) {
+                maisAntigo = inquilino;
+            }
+        }
+        if (maisAntigo == null) {
+            return false;
+        }
+        liberar(grandes, maisAntigo, Raia.PEQUENOS);
+        return true;
+    }
+
+    private void liberar(EstadoRaia estado, Inquilino escolhido, Raia raiaExecucao) {
+        Ticket ticket = escolhido.fila.pollFirst();
+        estado.aguardando--;
+        if (escolhido.fila.isEmpty()) {
+            // Sem trabalho pendente o crédito não acumula (regra do DRR)
+            estado.ativos.remove(escolhido);
+            estado.inquilinos.remove(escolhido.userId);
+        }
+        emVooPorUsuario.merge(ticket.userId, 1, Integer::sum);
+        raias.get(raiaExecucao).emExecucao++;
+        ticket.raiaExecucao = raiaExecucao;
+        ticket.vez.signal();
+    }
+
+    /**
+     * Próximo usuário elegível (abaixo do limite por usuário) cujo crédito cobre o documento da frente.
+     * Se nenhum tiver crédito, avança de uma vez as rodadas necessárias para o primeiro que tiver.
+     */
+    private Inquilino proximo(EstadoRaia estado) {
+        long rodadasNecessarias = Long.MAX_VALUE;
+        for (int i = 0; i < estado.ativos.size(); i++) {
+            Inquilino inquilino = estado.ativos.peekFirst();
+            if (elegivel(inquilino)) {
+                long falta = inquilino.fila.peekFirst().custo - inquilino.deficit;
+                if (falta <= 0) {
+                    return inquilino;
+                }
+                rodadasNecessarias = Math.min(rodadasNecessarias, (falta + inquilino.quantum() - 1) / inquilino.quantum());
+            }
+            // Vai para o fim da rodada
+            estado.ativos.addLast(estado.ativos.pollFirst());
+        }
+        if (rodadasNecessarias == Long.MAX_VALUE) {
+            return null; // ninguém aguardando, ou todos no limite de documentos em processamento
+        }
+        for (Inquilino inquilino : estado.ativos) {
+            if (elegivel(inquilino)) {
+                inquilino.deficit += rodadasNecessarias * inquilino.quantum();
+            }
+        }
+        return proximo(estado);
+    }
+
+    private boolean elegivel(Inquilino inquilino) {
+        return emVooPorUsuario.getOrDefault(inquilino.userId, 0) < maxEmVooPorUsuario;
+    }
+
+    private void cancelar(EstadoRaia estado, Inquilino inquilino, Ticket ticket) {
+        if (ticket.raiaExecucao != null) {
+            // Liberado junto com o timeout/interrupção: devolve a vaga
+            concluir(ticket);
+            return;
+        }
+        estado.aguardando--;
+        inquilino.fila.remove(ticket);
+        if (inquilino.fila.isEmpty()) {
+            estado.ativos.remove(inquilino);
+            estado.inquilinos.remove(inquilino.userId);
+        }
+    }
+
+    private void registrarEspera(Raia raia, String userId, long inicio) {
+        Timer.builder("ai.agendador.espera")
+                .description("Tempo na fila do agendador antes da extração/classificação com IA")
+                .tag("usuario", userId)
+                .tag("raia", raia.name().toLowerCase())
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    private static final class EstadoRaia {
+        private final int maxConcorrencia;
+        private final Map<String, Inquilino> inquilinos = new HashMap<>();
+        // Usuários com documentos aguardando, na ordem da rodada
+        private final Deque<Inquilino> ativos = new ArrayDeque<>();
+        private int emExecucao;
+        private int aguardando;
+
+        private EstadoRaia(int maxConcorrencia) {
+            this.maxConcorrencia = maxConcorrencia;
+        }
+    }
+
+    private final class Inquilino {
+        private final String userId;
+        private final Deque<Ticket> fila = new ArrayDeque<>();
+        private long deficit;
+
+        private Inquilino(String userId) {
+            this.userId = userId;
+        }
+
+        private long quantum() {
+            return quantumBytes * pesos.getOrDefault(userId, 1);
+        }
+    }
+
+    private static final class Ticket {
+        private final String userId;
+        private final long custo;
+        private final Condition vez;
+        private final long criadoEmNanos = System.nanoTime();
+        private Raia raiaExecucao;
+
+        private Ticket(String userId, long custo, Condition vez) {
+            this.userId = userId;
+            this.custo = custo;
+            this.vez = vez;
+        }
+    }
+}
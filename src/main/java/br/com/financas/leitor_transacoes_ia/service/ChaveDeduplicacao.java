@@ -0,0 +1,26 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoItemDTO;
+
+/**
+ * Chave de deduplicação de uma transação, com a mesma regra usada nas consultas ao banco:
+ * número de documento quando disponível, senão todos os campos descritivos.
+ */
+public final class ChaveDeduplicacao {
+
+    private ChaveDeduplicacao() {
+    }
+
+    public static boolean temNumeroDocumento(TransacaoItemDTO item) {
+        return item.getNumeroDocumento() != null && !item.getNumeroDocumento().trim().isEmpty()
+                && !item.getNumeroDocumento().equals("null");
+    }
+
+    public static String de(TransacaoItemDTO item, String banco) {
+        String valor = item.getValor() != null ? item.getValor().stripTrailingZeros().toPlainString() : null;
+        if (temNumeroDocumento(item)) {
+            return "D|" + item.getData() + "|" + item.getNumeroDocumento() + "|" + valor + "|" + banco;
+        }
+        return "L|" + item.getData() + "|" + item.getLancamento() + "|" + valor + "|" + banco + "|" + item.getDetalhes();
+    }
+}
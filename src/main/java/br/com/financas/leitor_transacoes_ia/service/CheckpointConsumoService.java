@@ -0,0 +1,103 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.model.entity.CheckpointConsumo;
+import br.com.financas.leitor_transacoes_ia.model.entity.MensagemProcessada;
+import br.com.financas.leitor_transacoes_ia.repository.CheckpointConsumoRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoints de consumo por parte (processamentoId + sequência): a cada lote confirmado
+ * o índice do próximo item é gravado na mesma transação, e uma reentrega retoma dali
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CheckpointConsumoService {
+
+    private final CheckpointConsumoRepository checkpointConsumoRepository;
+
+    /**
+     * Outra entrega da mesma parte avançou o checkpoint; esta entrega é abortada (rollback do lote)
+     */
+    public static class CheckpointConcorrenteException extends RuntimeException {
+        public CheckpointConcorrenteException(String processamentoId, int sequencia) {
+            super("Checkpoint da parte " + sequencia + " do processamento " + processamentoId + " foi avançado por outra entrega");
+        }
+    }
+
+    /**
+     * Posição desta entrega na parte; só muda após o commit do avanço no banco
+     */
+    @Getter
+    public static class Checkpoint {
+        private final String processamentoId;
+        private final int sequencia;
+        private int proximoIndice;
+        private int transacoesSalvas;
+        private int duplicatasIgnoradas;
+        private int erros;
+
+        private Checkpoint(CheckpointConsumo registro) {
+            this.processamentoId = registro.getChave().getProcessamentoId();
+            this.sequencia = registro.getChave().getSequencia();
+            this.proximoIndice = registro.getProximoIndice();
+            this.transacoesSalvas = registro.getTransacoesSalvas();
+            this.duplicatasIgnoradas = registro.getDuplicatasIgnoradas();
+            this.erros = registro.getErros();
+        }
+    }
+
+    /**
+     * Carrega (ou cria) o checkpoint da parte (transação de escrita, logo no primário)
+     */
+    @Transactional
+    public Checkpoint carregar(String processamentoId, int sequencia) {
+        checkpointConsumoRepository.criarSeAusente(processamentoId, sequencia, LocalDateTime.now());
+        CheckpointConsumo registro = checkpointConsumoRepository
+                .findById(new MensagemProcessada.Chave(processamentoId, sequencia))
+                .orElseThrow(() -> new RuntimeException("Checkpoint não encontrado: " + processamentoId + "/" + sequencia));
+        return new Checkpoint(registro);
+    }
+
+    /**
+     * Avança o checkpoint dentro da transação do lote salvo
+     *
+     * @throws CheckpointConcorrenteException se outra entrega já avançou o checkpoint
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void avancar(Checkpoint checkpoint, int novoIndice, int salvas, int duplicatas, int erros) {
+        int atualizados = checkpointConsumoRepository.avancar(checkpoint.processamentoId, checkpoint.sequencia,
+                checkpoint.proximoIndice, novoIndice, salvas, duplicatas, erros, LocalDateTime.now());
+        if (atualizados == 0) {
+            throw new CheckpointConcorrenteException(checkpoint.processamentoId, checkpoint.sequencia);
+        }
+        // Só após o commit: se o lote falhar depois daqui, o fallback item a item ainda espera o índice anterior
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                checkpoint.proximoIndice = novoIndice;
+                checkpoint.transacoesSalvas = salvas;
+                checkpoint.duplicatasIgnoradas = duplicatas;
+                checkpoint.erros = erros;
+                log.debug("Checkpoint {}/{} avançado para {}", checkpoint.processamentoId, checkpoint.sequencia, novoIndice);
+            }
+        });
+    }
+
+    /**
+     * Avança o checkpoint numa transação própria (após salvar um lote item a item)
+     */
+    @Transactional
+    public void avancarIsolado(Checkpoint checkpoint, int novoIndice, int salvas, int duplicatas, int erros) {
+        avancar(checkpoint, novoIndice, salvas, duplicatas, erros);
+    }
+}
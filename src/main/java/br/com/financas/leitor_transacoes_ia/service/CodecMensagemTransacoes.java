@@ -0,0 +1,243 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.config.SQSConfig;
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoItemDTO;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Divide documentos em partes que cabem numa mensagem SQS e codifica/decodifica o corpo
+ * (JSON puro para payloads pequenos, JSON gzip em base64 acima de sqs.mensagem.compressao-minima-bytes).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CodecMensagemTransacoes {
+
+    // Placeholder usado ao medir uma parte antes de saber o total (o valor real nunca é maior)
+    private static final int SEQUENCIA_MAXIMA = Integer.MAX_VALUE;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${sqs.mensagem.tamanho-maximo-bytes:240000}")
+    private int tamanhoMaximoBytes;
+
+    @Value("${sqs.mensagem.max-transacoes-por-parte:1000}")
+    private int maxTransacoesPorParte;
+
+    @Value("${sqs.mensagem.compressao-minima-bytes:1024}")
+    private int compressaoMinimaBytes;
+
+    public record MensagemCodificada(String corpo, String codificacao, int sequencia, int totalPartes) {
+    }
+
+    public static class TransacaoGrandeDemaisException extends RuntimeException {
+        public TransacaoGrandeDemaisException(String mensagem) {
+            super(mensagem);
+        }
+    }
+
+    /**
+     * Divide o documento em partes (mesmo processamentoId, sequencia/totalPartes preenchidos)
+     * cujo corpo codificado cabe no limite de mensagem
+     */
+    public List<MensagemCodificada> particionar(TransacaoAIDTO documento) {
+        List<TransacaoItemDTO> itens = documento.getTransacoes() != null ? documento.getTransacoes() : List.of();
+
+        List<List<TransacaoItemDTO>> grupos = new ArrayList<>();
+        for (int i = 0; i < itens.size(); i += maxTransacoesPorParte) {
+            grupos.add(itens.subList(i, Math.min(i + maxTransacoesPorParte, itens.size())));
+        }
+        if (grupos.isEmpty()) {
+            grupos.add(List.of());
+        }
+
+        // Caso comum: o documento inteiro cabe numa mensagem e é codificado uma única vez
+        if (grupos.size() == 1) {
+            MensagemCodificada unica = codificar(parte(documento, grupos.get(0), 1, 1));
+            if (cabe(unica)) {
+                return List.of(unica);
+            }
+        }
+
+        List<List<TransacaoItemDTO>> partes = new ArrayList<>();
+        for (List<TransacaoItemDTO> grupo : grupos) {
+            dividirAteCaber(documento, grupo, partes);
+        }
+
+        List<MensagemCodificada> mensagens = new ArrayList<>(partes.size());
+        for (int i = 0; i < partes.size(); i++) {
+            mensagens.add(codificar(parte(documento, partes.get(i), i + 1, partes.size())));
+        }
+        log.info("Documento dividido em {} partes ({} transações)", partes.size(), itens.size());
+        return mensagens;
+    }
+
+    /**
+     * Decodifica o corpo recebido do SQS conforme o atributo de codificação
+     */
+    public TransacaoAIDTO decodificar(String corpo, String codificacao) {
+        try {
+            if (codificacao == null || codificacao.isBlank()) {
+                return objectMapper.readValue(corpo, TransacaoAIDTO.class);
+            }
+            if (SQSConfig.CODIFICACAO_GZIP.equals(codificacao)) {
+                byte[] comprimido = Base64.getDecoder().decode(corpo);
+                try (InputStream entrada = new GZIPInputStream(new ByteArrayInputStream(comprimido))) {
+                    return objectMapper.readValue(entrada, TransacaoAIDTO.class);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao decodificar mensagem de transações", e);
+        }
+        throw new RuntimeException("Codificação de mensagem não suportada: " + codificacao);
+    }
+
+    /**
+     * Serializa as transações como um array JSON comprimido (payload do claim-check)
+     */
+    public byte[] comprimirItens(List<TransacaoItemDTO> itens) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            objectMapper.writeValue(gzip, itens);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao comprimir transações", e);
+        }
+        return saida.toByteArray();
+    }
+
+    /**
+     * Lê em streaming um payload gerado por {@link #comprimirItens}: uma transação por vez,
+     * sem materializar o documento inteiro em memória
+     */
+    public LeitorItens lerItens(InputStream comprimido) {
+        try {
+            return new LeitorItens(objectMapper, new GZIPInputStream(comprimido));
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao abrir payload de transações", e);
+        }
+    }
+
+    public static final class LeitorItens implements Iterator<TransacaoItemDTO>, Closeable {
+
+        private final ObjectMapper objectMapper;
+        private final JsonParser parser;
+        private Boolean temProximo;
+
+        private LeitorItens(ObjectMapper objectMapper, InputStream entrada) throws IOException {
+            this.objectMapper = objectMapper;
+            this.parser = objectMapper.getFactory().createParser(entrada);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                parser.close();
+                throw new IOException("Payload de transações não é um array JSON");
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (temProximo == null) {
+                try {
+                    temProximo = parser.nextToken() == JsonToken.START_OBJECT;
+                } catch (IOException e) {
+                    throw new RuntimeException("Erro ao ler payload de transações", e);
+                }
+            }
+            return temProximo;
+        }
+
+        @Override
+        public TransacaoItemDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            temProximo = null;
+            try {
+                return objectMapper.readValue(parser, TransacaoItemDTO.class);
+            } catch (IOException e) {
+                throw new RuntimeException("Erro ao ler payload de transações", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    /**
+     * Codifica uma única mensagem, sem dividir (ex.: a referência de um claim-check)
+     */
+    public MensagemCodificada codificar(TransacaoAIDTO parte) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(parte);
+            int sequencia = parte.getSequencia() != null ? parte.getSequencia() : 1;
+            int totalPartes = parte.getTotalPartes() != null ? parte.getTotalPartes() : 1;
+            if (json.length < compressaoMinimaBytes) {
+                return new MensagemCodificada(new String(json, StandardCharsets.UTF_8), null, sequencia, totalPartes);
+            }
+
+            ByteArrayOutputStream saida = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+                gzip.write(json);
+            }
+            return new MensagemCodificada(Base64.getEncoder().encodeToString(saida.toByteArray()),
+                    SQSConfig.CODIFICACAO_GZIP, sequencia, totalPartes);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao codificar mensagem de transações", e);
+        }
+    }
+
+    private void dividirAteCaber(TransacaoAIDTO documento, List<TransacaoItemDTO> grupo, List<List<TransacaoItemDTO>> partes) {
+        if (cabe(codificar(parte(documento, grupo, SEQUENCIA_MAXIMA, SEQUENCIA_MAXIMA)))) {
+            partes.add(grupo);
+            return;
+        }
+        if (grupo.size() <= 1) {
+            throw new TransacaoGrandeDemaisException("Transação excede o tamanho máximo de mensagem SQS (" + tamanhoMaximoBytes + " bytes)");
+        }
+        int meio = grupo.size() / 2;
+        dividirAteCaber(documento, grupo.subList(0, meio), partes);
+        dividirAteCaber(documento, grupo.subList(meio, grupo.size()), partes);
+    }
+
+    private boolean cabe(MensagemCodificada mensagem) {
+        // Base64 é ASCII; JSON puro pode ter acentos, então mede em bytes UTF-8
+        int tamanho = mensagem.codificacao() != null
+                ? mensagem.corpo().length()
+                : mensagem.corpo().getBytes(StandardCharsets.UTF_8).length;
+        return tamanho <= tamanhoMaximoBytes;
+    }
+
+    private static TransacaoAIDTO parte(TransacaoAIDTO documento, List<TransacaoItemDTO> itens, int sequencia, int totalPartes) {
+        return TransacaoAIDTO.builder()
+                .processamentoId(documento.getProcessamentoId())
+                .banco(documento.getBanco())
+                .moeda(documento.getMoeda())
+                .tipoDocumento(documento.getTipoDocumento())
+                .totalTransacoes(itens.size())
+                .sequencia(sequencia)
+                .totalPartes(totalPartes)
+                .transacoes(itens)
+                .build();
+    }
+}
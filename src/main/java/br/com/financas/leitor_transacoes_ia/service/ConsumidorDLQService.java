@@ -0,0 +1,79 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.config.SQSConfig;
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
+import br.com.financas.leitor_transacoes_ia.config.ModoExecucao;
+import io.awspring.cloud.sqs.annotation.SqsListener;
+import io.awspring.cloud.sqs.listener.Visibility;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lê a DLQ: mensagens que esgotaram as tentativas da redrive policy
+ * marcam o processamento como ERRO (em vez de deixá-lo parado em PROCESSANDO).
+ * As mensagens nunca são confirmadas, então continuam na DLQ para inspeção e reprocessamento
+ * (redrive para a fila de origem); após cada leitura ficam ocultas por sqs.dlq.intervalo-releitura-segundos.
+ */
+@Service
+@ConditionalOnProperty(name = "fila.modo", havingValue = "sqs", matchIfMissing = true)
+@ConditionalOnExpression(ModoExecucao.WORKER)
+@Slf4j
+public class ConsumidorDLQService {
+
+    private final ProcessamentoService processamentoService;
+    private final CodecMensagemTransacoes codecMensagemTransacoes;
+    private final Counter mensagensMortas;
+
+    // Máximo do SQS: 12 horas
+    @Value("${sqs.dlq.intervalo-releitura-segundos:43200}")
+    private int intervaloReleituraSegundos;
+
+    public ConsumidorDLQService(ProcessamentoService processamentoService,
+                                CodecMensagemTransacoes codecMensagemTransacoes,
+                                MeterRegistry meterRegistry) {
+        this.processamentoService = processamentoService;
+        this.codecMensagemTransacoes = codecMensagemTransacoes;
+        this.mensagensMortas = Counter.builder("sqs.dlq.mensagens")
+                .description("Partes que foram para a DLQ (contadas ao marcar o processamento com ERRO)")
+                .register(meterRegistry);
+    }
+
+    @SqsListener(value = SQSConfig.DLQ_QUEUE, acknowledgementMode = "MANUAL")
+    public void processarMensagemMorta(String corpo,
+                                       @Header(name = SQSConfig.ATRIBUTO_CODIFICACAO, required = false) String codificacao,
+                                       Visibility visibilidade) {
+        try {
+            registrar(corpo, codificacao);
+        } finally {
+            // Sem confirmar: a mensagem fica na DLQ, só adiada para a próxima leitura
+            visibilidade.changeToAsync(intervaloReleituraSegundos).exceptionally(e -> {
+                log.warn("Erro ao adiar a releitura da mensagem na DLQ: {}", e.getMessage());
+                return null;
+            });
+        }
+    }
+
+    private void registrar(String corpo, String codificacao) {
+        TransacaoAIDTO parte;
+        try {
+            parte = codecMensagemTransacoes.decodificar(corpo, codificacao);
+        } catch (Exception e) {
+            log.error("Mensagem ilegível na DLQ: {}", e.getMessage());
+            return;
+        }
+
+        if (parte.getProcessamentoId() != null
+                && processamentoService.registrarFalhaDefinitiva(parte.getProcessamentoId(),
+                        "Falha ao processar a parte " + parte.getSequencia() + "/" + parte.getTotalPartes() + " após esgotar as tentativas")) {
+            mensagensMortas.increment();
+            log.error("Parte {}/{} do processamento {} foi para a DLQ", 
+                    parte.getSequencia(), parte.getTotalPartes(), parte.getProcessamentoId());
+        }
+    }
+}
@@ -1,77 +1,198 @@
 package br.com.financas.leitor_transacoes_ia.service;
 
-import br.com.financas.leitor_transacoes_ia.config.SQSConfig;
+import br.com.financas.leitor_transacoes_ia.armazenamento.ArmazenamentoPayload;
+import br.com.financas.leitor_transacoes_ia.config.RoteamentoDataSource;
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoItemDTO;
 import br.com.financas.leitor_transacoes_ia.model.entity.Transacao;
-import br.com.financas.leitor_transacoes_ia.model.entity.Processamento;
 import br.com.financas.leitor_transacoes_ia.repository.TransacaoRepository;
-import io.awspring.cloud.sqs.annotation.SqsListener;
+import br.com.financas.leitor_transacoes_ia.search.BuscaTransacoesService;
+import br.com.financas.leitor_transacoes_ia.service.MetricasPipeline.Etapa;
+import br.com.financas.leitor_transacoes_ia.config.ModoExecucao;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
+@ConditionalOnExpression(ModoExecucao.WORKER)
 @RequiredArgsConstructor
 @Slf4j
 public class ConsumidorTransacoesService {
     
     private final TransacaoRepository transacaoRepository;
     private final ProcessamentoService processamentoService;
+    private final PersistenciaTransacoesService persistenciaTransacoesService;
+    private final BuscaTransacoesService buscaTransacoesService;
+    private final CodecMensagemTransacoes codecMensagemTransacoes;
+    private final ArmazenamentoPayload armazenamentoPayload;
+    private final CheckpointConsumoService checkpointConsumoService;
+    private final LimitadorConcorrenciaConsumidor limitadorConcorrencia;
+    private final MeterRegistry meterRegistry;
+    private final MetricasPipeline metricasPipeline;
+    private final ContextoRastreamento contextoRastreamento;
+    
+    @Value("${consumidor.tamanho-lote:100}")
+    private int tamanhoLote;
+    
+    /**
+     * Processa uma mensagem de transações como recebida da fila
+     *
+     * @param corpo Parte do documento (JSON, ou JSON gzip em base64 conforme contentEncoding)
+     * @param codificacao Valor do atributo contentEncoding (null = JSON puro)
+     * @param contexto Cabeçalhos de propagação do trace de quem publicou (vazio = novo trace)
+     * @throws RuntimeException se a parte não puder ser concluída (a mensagem deve ser reentregue)
+     */
+    public void processarMensagem(String corpo, String codificacao, Map<String, String> contexto) {
+        contextoRastreamento.continuar(contexto, "consumir-parte",
+                () -> processarParteNoContexto(codecMensagemTransacoes.decodificar(corpo, codificacao)));
+    }
+    
+    /**
+     * Processa uma parte já decodificada (a fila em memória entrega o objeto sem serializar)
+     *
+     * @param contexto Cabeçalhos de propagação do trace de quem publicou (vazio = novo trace)
+     * @throws RuntimeException se a parte não puder ser concluída (a mensagem deve ser reentregue)
+     */
+    public void processarParte(TransacaoAIDTO transacoesAI, Map<String, String> contexto) {
+        contextoRastreamento.continuar(contexto, "consumir-parte", () -> processarParteNoContexto(transacoesAI));
+    }
+    
+    private void processarParteNoContexto(TransacaoAIDTO transacoesAI) {
+        // Reentrega de parte já concluída: confirma sem reprocessar (nem abrir o payload do claim-check)
+        int sequencia = transacoesAI.getSequencia() != null ? transacoesAI.getSequencia() : 1;
+        if (transacoesAI.getProcessamentoId() != null
+                && processamentoService.parteJaProcessada(transacoesAI.getProcessamentoId(), sequencia)) {
+            meterRegistry.counter("consumidor.reentregas.ignoradas").increment();
+            log.info("Parte {} do processamento {} já processada; reentrega ignorada", sequencia, transacoesAI.getProcessamentoId());
+            return;
+        }
+        
+        // Deduplicação e status precisam enxergar as escritas recentes: nunca ler da réplica aqui
+        if (transacoesAI.getReferenciaPayload() != null) {
+            RoteamentoDataSource.noPrimario(() -> processarPorReferencia(transacoesAI));
+        } else {
+            List<TransacaoItemDTO> itens = transacoesAI.getTransacoes() != null ? transacoesAI.getTransacoes() : List.of();
+            RoteamentoDataSource.noPrimario(() -> processar(transacoesAI, itens.iterator()));
+        }
+    }
+    
+    /**
+     * Claim-check: lê o payload do armazenamento em streaming e o remove quando esta entrega conclui a parte.
+     * Uma entrega concorrente descartada não remove: a vencedora pode estar lendo o payload ou precisar dele
+     * numa reentrega. Payloads de partes que não concluem (DLQ) expiram em LimpezaPayloadsJob.
+     */
+    private void processarPorReferencia(TransacaoAIDTO referencia) {
+        String chave = referencia.getReferenciaPayload();
+        boolean concluida;
+        try (CodecMensagemTransacoes.LeitorItens itens = codecMensagemTransacoes.lerItens(armazenamentoPayload.abrir(chave))) {
+            concluida = processar(referencia, itens);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao ler payload " + chave, e);
+        }
+        if (!concluida) {
+            return;
+        }
+        
+        try {
+            armazenamentoPayload.remover(chave);
+        } catch (Exception e) {
+            log.warn("Erro ao remover payload {}: {}", chave, e.getMessage());
+        }
+    }
     
     /**
-     * Consome transações do SQS e salva no banco de dados
-     * 
-     * @param transacoesAI Transações classificadas pela IA
+     * Processa uma parte do documento de forma independente; as estatísticas são somadas
+     * no processamento e a última parte a terminar conclui o processamento.
+     *
+     * @param transacoesAI Cabeçalho da parte (banco, processamentoId, sequencia...)
+     * @param itens Transações da parte, consumidas uma a uma
+     * @return true se esta entrega concluiu a parte; false se uma entrega concorrente avançou primeiro
+     * @throws RuntimeException se a parte não puder ser concluída (a mensagem não é confirmada)
      */
-    @SqsListener(value = SQSConfig.TRANSACOES_QUEUE)
-    public void processarTransacoes(TransacaoAIDTO transacoesAI) {
+    private boolean processar(TransacaoAIDTO transacoesAI, Iterator<TransacaoItemDTO> itens) {
         String processamentoId = transacoesAI.getProcessamentoId();
-        log.info("Processando {} transações do banco: {} - Processamento ID: {}", 
-                transacoesAI.getTotalTransacoes(), transacoesAI.getBanco(), processamentoId);
+        String banco = transacoesAI.getBanco();
+        String tipoDocumento = transacoesAI.getTipoDocumento();
+        int sequencia = transacoesAI.getSequencia() != null ? transacoesAI.getSequencia() : 1;
+        int totalPartes = transacoesAI.getTotalPartes() != null ? transacoesAI.getTotalPartes() : 1;
+        log.info("Processando {} transações do banco: {} - Processamento ID: {} (parte {}/{})", 
+                transacoesAI.getTotalTransacoes(), transacoesAI.getBanco(), processamentoId, sequencia, totalPartes);
         
         try {
             // Obter userId do processamento
             String userId = null;
             if (processamentoId != null) {
-                var processamento = processamentoService.buscarPorId(processamentoId);
+                var processamento = processamentoService.buscarParaConsumo(processamentoId);
                 if (processamento.isPresent()) {
                     userId = processamento.get().getUserId();
                 }
             }
             
-            // Atualizar status para PROCESSANDO
+            // Atualizar status para PROCESSANDO (primeira parte)
             if (processamentoId != null) {
-                processamentoService.atualizarStatus(processamentoId, Processamento.StatusProcessamento.PROCESSANDO);
+                metricasPipeline.medir(Etapa.ATUALIZACAO_STATUS, banco, tipoDocumento,
+                        () -> processamentoService.iniciarConsumo(processamentoId));
             }
             
-            int sucessos = 0;
-            int erros = 0;
-            int duplicatas = 0;
-            int totalTransacoes = transacoesAI.getTransacoes().size();
+            // Retomada: uma entrega anterior desta parte pode ter confirmado lotes antes de cair
+            CheckpointConsumoService.Checkpoint checkpoint = processamentoId != null
+                    ? checkpointConsumoService.carregar(processamentoId, sequencia)
+                    : null;
+            int inicio = checkpoint != null ? checkpoint.getProximoIndice() : 0;
+            int sucessos = checkpoint != null ? checkpoint.getTransacoesSalvas() : 0;
+            int erros = checkpoint != null ? checkpoint.getErros() : 0;
+            int duplicatas = checkpoint != null ? checkpoint.getDuplicatasIgnoradas() : 0;
+            int processadas = 0;
+            int totalTransacoes = transacoesAI.getTotalTransacoes() != null ? transacoesAI.getTotalTransacoes() : 0;
+            String userIdTransacao = userId != null ? userId : "system"; // Fallback para system se não encontrar userId
+            if (inicio > 0) {
+                log.info("Retomando parte {}/{} de {} a partir do item {}", sequencia, totalPartes, processamentoId, inicio);
+            }
+            
+            List<Transacao> lote = new ArrayList<>(tamanhoLote);
+            Set<String> chavesDoDocumento = new HashSet<>();
             
-            for (int i = 0; i < transacoesAI.getTransacoes().size(); i++) {
-                TransacaoItemDTO item = transacoesAI.getTransacoes().get(i);
+            while (itens.hasNext()) {
+                TransacaoItemDTO item = itens.next();
+                processadas++;
+                
+                if (processadas <= inicio) {
+                    // Já confirmado por uma entrega anterior: só reconstrói a deduplicação do documento
+                    chavesDoDocumento.add(ChaveDeduplicacao.de(item, transacoesAI.getBanco()));
+                    continue;
+                }
                 
                 try {
-                    // Atualizar progresso
-                    if (processamentoId != null) {
-                        int progresso = (int) ((i + 1) * 100.0 / totalTransacoes);
-                        processamentoService.atualizarProgresso(processamentoId, progresso);
+                    // Duplicata dentro do próprio documento (ainda não gravada no banco)
+                    if (!chavesDoDocumento.add(ChaveDeduplicacao.de(item, transacoesAI.getBanco()))) {
+                        duplicatas++;
+                        log.warn("Transação duplicada no documento ignorada: {} - {} - {} - {}", 
+                                item.getData(), item.getLancamento(), item.getValor(), transacoesAI.getBanco());
+                        continue;
                     }
                     
                     // Verificar se já existe uma transação similar
-                    if (transacaoJaExiste(item, transacoesAI.getBanco(), userId)) {
+                    String userIdConsulta = userId;
+                    if (metricasPipeline.medir(Etapa.DEDUPLICACAO, banco, tipoDocumento,
+                            () -> transacaoJaExiste(item, banco, userIdConsulta))) {
                         duplicatas++;
                         log.warn("Transação duplicada ignorada: {} - {} - {} - {}", 
                                 item.getData(), item.getLancamento(), item.getValor(), transacoesAI.getBanco());
                         continue;
                     }
                     
-                    Transacao transacao = Transacao.builder()
+                    lote.add(Transacao.builder()
                             .data(item.getData())
                             .lancamento(item.getLancamento())
                             .detalhes(item.getDetalhes())
@@ -81,39 +202,150 @@ public class ConsumidorTransacoesService {
                             .tipoLancamento(item.getTipoLancamento())
                             .categoria(item.getCategoria())
                             .banco(transacoesAI.getBanco())
-                            .userId(userId != null ? userId : "system") // Fallback para system se não encontrar userId
-                            .build();
-                    
-                    transacaoRepository.save(transacao);
-                    sucessos++;
-                    log.debug("Transação salva: {} - {} - {}", 
-                            item.getData(), item.getLancamento(), item.getValor());
+                            .userId(userIdTransacao)
+                            .build());
                     
                 } catch (Exception e) {
                     erros++;
-                    log.error("Erro ao salvar transação individual: {} - {} - {} - Erro: {}", 
+                    log.error("Erro ao preparar transação individual: {} - {} - {} - Erro: {}", 
                             item.getData(), item.getLancamento(), item.getValor(), e.getMessage());
                     // Continua processando as outras transações
                 }
+                
+                if (lote.size() >= tamanhoLote) {
+                    int indice = processadas;
+                    int progresso = totalPartes == 1 && totalTransacoes > 0 ? (int) (indice * 100.0 / totalTransacoes) : -1;
+                    int salvas = salvarLote(lote, checkpoint, indice, sucessos, duplicatas, erros, progresso, transacoesAI);
+                    sucessos += salvas;
+                    erros += lote.size() - salvas;
+                    lote.clear();
+                }
             }
             
-            // Atualizar estatísticas finais
-            if (processamentoId != null) {
-                processamentoService.atualizarEstatisticas(processamentoId, totalTransacoes, sucessos, duplicatas);
-                processamentoService.atualizarStatus(processamentoId, Processamento.StatusProcessamento.CONCLUIDO);
+            // Último lote + ledger + estatísticas da parte numa única transação
+            // (a última parte conclui o processamento)
+            if (processamentoId == null) {
+                int salvas = salvarLote(lote, null, processadas, sucessos, duplicatas, erros, -1, transacoesAI);
+                sucessos += salvas;
+                erros += lote.size() - salvas;
+            } else if (concluirParte(transacoesAI, lote, processadas, sucessos, duplicatas)) {
+                sucessos += lote.size();
+            } else {
+                // Lote final falhou junto: salva item a item e conclui a parte em seguida
+                int salvas = salvarItemAItem(lote);
+                sucessos += salvas;
+                erros += lote.size() - salvas;
+                long inicioStatus = System.nanoTime();
+                processamentoService.registrarParteConcluida(processamentoId, sequencia, processadas, sucessos, duplicatas);
+                metricasPipeline.registrar(Etapa.ATUALIZACAO_STATUS, banco, tipoDocumento, inicioStatus, true);
             }
             
-            log.info("Processamento concluído - Total: {}, Sucessos: {}, Erros: {}, Duplicatas: {}", 
-                    totalTransacoes, sucessos, erros, duplicatas);
+            log.info("Parte {}/{} concluída - Total: {}, Sucessos: {}, Erros: {}, Duplicatas: {}", 
+                    sequencia, totalPartes, processadas, sucessos, erros, duplicatas);
+            return true;
             
+        } catch (ProcessamentoService.ParteJaProcessadaException | CheckpointConsumoService.CheckpointConcorrenteException e) {
+            // Entrega concorrente da mesma parte avançou primeiro; esta é descartada (rollback) e confirmada
+            log.info("{} (entrega duplicada descartada)", e.getMessage());
+            return false;
         } catch (Exception e) {
-            log.error("Erro geral no processamento: {}", e.getMessage(), e);
-            
-            // Marcar como erro se houver processamentoId
-            if (processamentoId != null) {
-                processamentoService.adicionarErro(processamentoId, e.getMessage());
+            // Sem marcar ERRO aqui: a mensagem será reentregue; o status só vira ERRO quando ela chega à DLQ
+            log.error("Erro geral no processamento (parte {}/{} de {}): {}", sequencia, totalPartes, processamentoId, e.getMessage(), e);
+            throw e instanceof RuntimeException runtime ? runtime : new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * Salva o último lote e registra a parte (ledger + estatísticas) na mesma transação
+     *
+     * @return false se o lote não pôde ser salvo em bloco (o chamador faz o fallback item a item)
+     */
+    private boolean concluirParte(TransacaoAIDTO parte, List<Transacao> loteFinal, int processadas, int sucessos, int duplicatas) {
+        int sequencia = parte.getSequencia() != null ? parte.getSequencia() : 1;
+        int salvasNaParte = sucessos + loteFinal.size();
+        try {
+            metricasPipeline.medir(Etapa.INSERCAO, parte.getBanco(), parte.getTipoDocumento(),
+                    () -> limitadorConcorrencia.medirCommit(() -> persistenciaTransacoesService.salvarLote(loteFinal, 
+                            () -> processamentoService.registrarParteConcluida(
+                                    parte.getProcessamentoId(), sequencia, processadas, salvasNaParte, duplicatas))));
+        } catch (ProcessamentoService.ParteJaProcessadaException e) {
+            throw e;
+        } catch (Exception e) {
+            if (loteFinal.isEmpty()) {
+                throw e;
+            }
+            log.warn("Erro ao salvar lote final de {} transações, tentando individualmente: {}", loteFinal.size(), e.getMessage());
+            return false;
+        }
+        indexarParaBusca(loteFinal);
+        return true;
+    }
+    
+    /**
+     * Salva o lote numa única transação (transações + resumo mensal + checkpoint + progresso).
+     * Se o lote falhar, tenta item a item para isolar a transação com problema e só então avança o checkpoint.
+     *
+     * @param indice Itens da parte já tratados após este lote (novo índice do checkpoint)
+     * @param progresso Progresso a gravar junto, ou -1 para não alterar
+     * @param parte Parte de origem (tags banco/tipo_documento da métrica de inserção)
+     * @return quantidade de transações salvas
+     */
+    private int salvarLote(List<Transacao> lote, CheckpointConsumoService.Checkpoint checkpoint,
+                           int indice, int sucessos, int duplicatas, int erros, int progresso, TransacaoAIDTO parte) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        try {
+            metricasPipeline.medir(Etapa.INSERCAO, parte.getBanco(), parte.getTipoDocumento(),
+                    () -> limitadorConcorrencia.medirCommit(() -> persistenciaTransacoesService.salvarLote(lote, () -> {
+                        if (checkpoint != null) {
+                            checkpointConsumoService.avancar(checkpoint, indice, sucessos + lote.size(), duplicatas, erros);
+                            if (progresso >= 0) {
+                                processamentoService.atualizarProgressoConsumo(checkpoint.getProcessamentoId(), progresso);
+                            }
+                        }
+                    })));
+            log.debug("Lote de {} transações salvo", lote.size());
+            indexarParaBusca(lote);
+            return lote.size();
+        } catch (CheckpointConsumoService.CheckpointConcorrenteException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("Erro ao salvar lote de {} transações, tentando individualmente: {}", lote.size(), e.getMessage());
+        }
+        
+        int salvas = salvarItemAItem(lote);
+        if (checkpoint != null) {
+            checkpointConsumoService.avancarIsolado(checkpoint, indice, sucessos + salvas, duplicatas, erros + lote.size() - salvas);
+        }
+        return salvas;
+    }
+    
+    private int salvarItemAItem(List<Transacao> lote) {
+        List<Transacao> salvas = new ArrayList<>(lote.size());
+        for (Transacao transacao : lote) {
+            try {
+                persistenciaTransacoesService.salvarLote(List.of(transacao));
+                salvas.add(transacao);
+            } catch (Exception e) {
+                log.error("Erro ao salvar transação individual: {} - {} - {} - Erro: {}", 
+                        transacao.getData(), transacao.getLancamento(), transacao.getValor(), e.getMessage());
             }
         }
+        indexarParaBusca(salvas);
+        return salvas.size();
+    }
+    
+    private void indexarParaBusca(List<Transacao> salvas) {
+        if (salvas.isEmpty()) {
+            return;
+        }
+        try {
+            buscaTransacoesService.indexar(salvas.get(0).getUserId(), salvas);
+        } catch (Exception e) {
+            // O índice se recupera sozinho na próxima busca (leitura incremental do banco)
+            log.warn("Erro ao atualizar índice de busca: {}", e.getMessage());
+        }
     }
     
     /**
@@ -124,8 +356,7 @@ public class ConsumidorTransacoesService {
     private boolean transacaoJaExiste(TransacaoItemDTO item, String banco, String userId) {
         try {
             // Se tem número de documento, verifica por ele (mais preciso)
-            if (item.getNumeroDocumento() != null && !item.getNumeroDocumento().trim().isEmpty() 
-                && !item.getNumeroDocumento().equals("null")) {
+            if (ChaveDeduplicacao.temNumeroDocumento(item)) {
                 
                 return transacaoRepository.findByUserIdAndDataAndNumeroDocumentoAndValorAndBanco(
                         userId != null ? userId : "system",
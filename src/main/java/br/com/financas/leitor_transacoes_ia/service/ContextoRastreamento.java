@@ -0,0 +1,112 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Propaga o contexto de rastreamento (trace/span) pela fila: quem publica captura os cabeçalhos do
+ * span atual (traceparent etc.), que viajam como atributos da mensagem, e o consumidor continua o mesmo
+ * trace num span filho. Sem tracing configurado, tudo vira no-op.
+ */
+@Component
+@Slf4j
+public class ContextoRastreamento {
+
+    private static final TypeReference<Map<String, String>> TIPO_MAPA = new TypeReference<>() {
+    };
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+    private final ObjectMapper objectMapper;
+
+    public ContextoRastreamento(ObjectProvider<Tracer> tracer, ObjectProvider<Propagator> propagator, ObjectMapper objectMapper) {
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+        this.propagator = propagator.getIfAvailable(() -> Propagator.NOOP);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Cabeçalhos de propagação do span atual (vazio se não houver span ou se ele não for amostrado)
+     */
+    public Map<String, String> capturar() {
+        Span atual = tracer.currentSpan();
+        Map<String, String> cabecalhos = new HashMap<>();
+        if (atual != null) {
+            propagator.inject(atual.context(), cabecalhos, Map::put);
+        }
+        return cabecalhos;
+    }
+
+    /**
+     * Lê da mensagem recebida só os cabeçalhos que o propagador conhece
+     *
+     * @param cabecalho Acesso aos atributos/cabeçalhos da mensagem por nome
+     */
+    public Map<String, String> ler(Function<String, Object> cabecalho) {
+        Map<String, String> cabecalhos = new HashMap<>();
+        for (String campo : propagator.fields()) {
+            Object valor = cabecalho.apply(campo);
+            if (valor != null) {
+                cabecalhos.put(campo, valor.toString());
+            }
+        }
+        return cabecalhos;
+    }
+
+    /**
+     * Executa a ação num span de consumo filho do contexto recebido (ou raiz, se vier vazio)
+     */
+    public void continuar(Map<String, String> cabecalhos, String nome, Runnable acao) {
+        Map<String, String> recebidos = cabecalhos != null ? cabecalhos : Map.of();
+        Span span = propagator.extract(recebidos, Map::get)
+                .name(nome)
+                .kind(Span.Kind.CONSUMER)
+                .start();
+        try (Tracer.SpanInScope escopo = tracer.withSpan(span)) {
+            acao.run();
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Forma gravada no outbox (null quando não há contexto)
+     */
+    public String serializar(Map<String, String> cabecalhos) {
+        if (cabecalhos == null || cabecalhos.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(cabecalhos);
+        } catch (JsonProcessingException e) {
+            log.warn("Erro ao serializar contexto de rastreamento: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public Map<String, String> desserializar(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(valor, TIPO_MAPA);
+        } catch (JsonProcessingException e) {
+            log.warn("Contexto de rastreamento inválido no outbox: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Controle de admissão dos uploads por orçamento de memória: cada /processar reserva uma estimativa
+ * dos bytes que vai ocupar no heap (arquivo, modelo do PDFBox, texto extraído, prompt e resposta da IA).
+ * Enquanto espera a vez na fila da IA só o arquivo fica reservado; o restante é reservado ao ser admitido,
+ * antes da extração ({@link Reserva#completar}). Sem orçamento livre, a requisição espera até admissao.espera-maxima-ms e, se ainda
+ * não couber, é recusada (429 com Retry-After) em vez de arriscar um OutOfMemoryError.
+ */
+@Service
+@Slf4j
+public class ControleAdmissaoMemoria {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition liberado = lock.newCondition();
+    private final long orcamentoBytes;
+    private final Counter recusas;
+    private long bytesEmUso;
+
+    @Value("${admissao.fator-pdf:8}")
+    private double fatorPdf;
+
+    @Value("${admissao.fator-csv:6}")
+    private double fatorCsv;
+
+    @Value("${admissao.bytes-fixos-por-requisicao:2097152}")
+    private long bytesFixos;
+
+    @Value("${admissao.espera-maxima-ms:5000}")
+    private long esperaMaximaMs;
+
+    @Value("${admissao.retry-after-segundos:10}")
+    private long retryAfterSegundos;
+
+    /**
+     * @param orcamentoBytes Orçamento global; se 0, usa admissao.fracao-heap do heap máximo
+     */
+    public ControleAdmissaoMemoria(@Value("${admissao.orcamento-bytes:0}") long orcamentoBytes,
+                                   @Value("${admissao.fracao-heap:0.5}") double fracaoHeap,
+                                   MeterRegistry meterRegistry) {
+        this.orcamentoBytes = orcamentoBytes > 0 ? orcamentoBytes : (long) (Runtime.getRuntime().maxMemory() * fracaoHeap);
+        this.recusas = Counter.builder("admissao.memoria.recusas")
+                .description("Uploads recusados por falta de orçamento de memória")
+                .register(meterRegistry);
+        Gauge.builder("admissao.memoria.bytes-em-uso", this, c -> c.bytesEmUso)
+                .description("Bytes estimados reservados pelas requisições em andamento")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("admissao.memoria.orcamento", this, c -> c.orcamentoBytes)
+                .description("Orçamento de memória para uploads em andamento")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        log.info("Orçamento de memória para uploads: {} MB", this.orcamentoBytes / 1024 / 1024);
+    }
+
+    /**
+     * Orçamento recusado após a espera máxima
+     */
+    public static class MemoriaEsgotadaException extends RuntimeException {
+        private final long retryAfterSegundos;
+
+        public MemoriaEsgotadaException(long bytes, long retryAfterSegundos) {
+            super("Sem orçamento de memória para uma requisição de " + bytes + " bytes estimados");
+            this.retryAfterSegundos = retryAfterSegundos;
+        }
+
+        public long getRetryAfterSegundos() {
+            return retryAfterSegundos;
+        }
+    }
+
+    /**
+     * Reserva liberada ao fechar (use em try-with-resources)
+     */
+    public final class Reserva implements AutoCloseable {
+        private final long tamanhoArquivo;
+        private long bytes;
+        private boolean fechada;
+
+        private Reserva(long tamanhoArquivo, long bytes) {
+            this.tamanhoArquivo = tamanhoArquivo;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Amplia a reserva do arquivo para a estimativa completa do processamento, esperando até
+         * admissao.espera-maxima-ms
+         *
+         * @throws MemoriaEsgotadaException se o orçamento não ficar disponível a tempo
+         */
+        public void completar(String tipoArquivo) {
+            long adicional = estimar(tamanhoArquivo, tipoArquivo) - bytes;
+            if (adicional > 0) {
+                aguardar(adicional);
+                bytes += adicional;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (fechada) {
+                return;
+            }
+            fechada = true;
+            liberar(bytes);
+        }
+    }
+
+    /**
+     * Reserva só o arquivo recebido, para o tempo de espera na fila da IA; amplie com {@link Reserva#completar}
+     * ao ser admitido
+     *
+     * @throws MemoriaEsgotadaException se o orçamento não ficar disponível a tempo
+     */
+    public Reserva reservarArquivo(long tamanhoArquivo) {
+        long bytes = Math.min(orcamentoBytes, tamanhoArquivo);
+        aguardar(bytes);
+        return new Reserva(tamanhoArquivo, bytes);
+    }
+
+    private long estimar(long tamanhoArquivo, String tipoArquivo) {
+        double fator = "application/pdf".equals(tipoArquivo) ? fatorPdf : fatorCsv;
+        // Uma requisição maior que o orçamento inteiro ainda pode rodar, sozinha
+        return Math.min(orcamentoBytes, bytesFixos + (long) (tamanhoArquivo * fator));
+    }
+
+    private void aguardar(long bytes) {
+        lock.lock();
+        try {
+            long restanteNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+            while (bytesEmUso + bytes > orcamentoBytes) {
+                if (restanteNanos <= 0) {
+                    recusas.increment();
+                    log.warn("Upload recusado: {} bytes estimados, {} de {} em uso", bytes, bytesEmUso, orcamentoBytes);
+                    throw new MemoriaEsgotadaException(bytes, retryAfterSegundos);
+                }
+                try {
+                    restanteNanos = liberado.awaitNanos(restanteNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MemoriaEsgotadaException(bytes, retryAfterSegundos);
+                }
+            }
+            bytesEmUso += bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void liberar(long bytes) {
+        lock.lock();
+        try {
+            bytesEmUso -= bytes;
+            liberado.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
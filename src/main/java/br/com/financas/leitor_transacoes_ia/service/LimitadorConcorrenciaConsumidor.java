@@ -0,0 +1,190 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.config.ModoExecucao;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Limita quantas mensagens o consumidor processa ao mesmo tempo conforme a folga do pool do primário,
+ * que é compartilhado com as leituras da API.
+ * A cada intervalo lê pelo Micrometer as conexões ativas/pendentes do Hikari e a latência de commit
+ * dos lotes: com o pool saturado o limite cai pela metade; com folga e demanda, sobe de um em um
+ * (AIMD), sempre entre min e max. Enquanto não há vaga, a thread do listener fica bloqueada e
+ * o container deixa de buscar mensagens na fila.
+ * Usa ReentrantLock em vez de synchronized/wait: no modo de threads virtuais, esperar num monitor
+ * prende a thread de plataforma que carrega a virtual.
+ */
+@Component
+@ConditionalOnExpression(ModoExecucao.WORKER)
+@RequiredArgsConstructor
+@Slf4j
+public class LimitadorConcorrenciaConsumidor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${consumidor.controle-fluxo.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${consumidor.controle-fluxo.min:1}")
+    private int minimo;
+
+    @Value("${consumidor.controle-fluxo.max:${sqs.listener.max-concurrent-messages:10}}")
+    private int maximo;
+
+    @Value("${consumidor.controle-fluxo.pool:primario}")
+    private String pool;
+
+    @Value("${consumidor.controle-fluxo.max-conexoes-pendentes:0}")
+    private int maxConexoesPendentes;
+
+    @Value("${consumidor.controle-fluxo.uso-maximo-pool:0.8}")
+    private double usoMaximoPool;
+
+    @Value("${consumidor.controle-fluxo.latencia-commit-maxima-ms:500}")
+    private long latenciaCommitMaximaMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition vagaLiberada = lock.newCondition();
+
+    private Timer commits;
+    private int limite;
+    private int emUso;
+    private long commitsAnteriores;
+    private double tempoCommitsAnteriorMs;
+
+    @PostConstruct
+    public void inicializar() {
+        maximo = Math.max(1, maximo);
+        minimo = Math.max(1, Math.min(minimo, maximo));
+        limite = maximo;
+
+        commits = Timer.builder("consumidor.lote.commit")
+                .description("Tempo para salvar e confirmar um lote de transações no consumidor")
+                .register(meterRegistry);
+        Gauge.builder("consumidor.concorrencia.limite", this, l -> l.getLimite())
+                .description("Mensagens que o consumidor pode processar ao mesmo tempo")
+                .register(meterRegistry);
+        Gauge.builder("consumidor.concorrencia.em-uso", this, l -> l.getEmUso())
+                .description("Mensagens em processamento no consumidor")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Bloqueia até haver vaga dentro do limite atual
+     *
+     * @throws InterruptedException se a thread do listener for interrompida (ex.: shutdown)
+     */
+    public void adquirir() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (emUso >= limite) {
+                vagaLiberada.await();
+            }
+            emUso++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void liberar() {
+        lock.lock();
+        try {
+            emUso--;
+            vagaLiberada.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Executa o salvamento de um lote medindo a latência até o commit
+     */
+    public <T> T medirCommit(Supplier<T> salvamento) {
+        return commits.record(salvamento);
+    }
+
+    public int getLimite() {
+        lock.lock();
+        try {
+            return limite;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getEmUso() {
+        lock.lock();
+        try {
+            return emUso;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${consumidor.controle-fluxo.intervalo-ms:1000}")
+    public void ajustar() {
+        if (!habilitado) {
+            return;
+        }
+        double ativas = valorDoPool("hikaricp.connections.active");
+        double maximoConexoes = valorDoPool("hikaricp.connections.max");
+        double pendentes = valorDoPool("hikaricp.connections.pending");
+        double latenciaCommitMs = latenciaCommitNoIntervaloMs();
+
+        boolean saturado = pendentes > maxConexoesPendentes
+                || (maximoConexoes > 0 && ativas / maximoConexoes >= usoMaximoPool)
+                || latenciaCommitMs > latenciaCommitMaximaMs;
+
+        lock.lock();
+        try {
+            int anterior = limite;
+            if (saturado) {
+                limite = Math.max(minimo, limite / 2);
+            } else if (emUso >= limite) {
+                // Só cresce se a vaga atual estiver sendo usada
+                limite = Math.min(maximo, limite + 1);
+            }
+            if (limite != anterior) {
+                log.debug("Limite do consumidor: {} -> {} (pool {}: ativas={}, pendentes={}, commit={} ms)",
+                        anterior, limite, pool, ativas, pendentes, Math.round(latenciaCommitMs));
+                vagaLiberada.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Média da latência de commit desde o último ajuste (0 se nenhum lote foi salvo)
+     */
+    private double latenciaCommitNoIntervaloMs() {
+        long total = commits.count();
+        double tempoTotalMs = commits.totalTime(TimeUnit.MILLISECONDS);
+        long novos = total - commitsAnteriores;
+        double media = novos > 0 ? (tempoTotalMs - tempoCommitsAnteriorMs) / novos : 0;
+        commitsAnteriores = total;
+        tempoCommitsAnteriorMs = tempoTotalMs;
+        return media;
+    }
+
+    /**
+     * Valor atual de uma métrica hikaricp.* do pool monitorado (0 se o pool ainda não registrou métricas)
+     */
+    private double valorDoPool(String metrica) {
+        Gauge gauge = meterRegistry.find(metrica).tag("pool", pool).gauge();
+        return gauge != null ? gauge.value() : 0;
+    }
+}
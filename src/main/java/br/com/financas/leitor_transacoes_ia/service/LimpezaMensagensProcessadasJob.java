@@ -0,0 +1,63 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.repository.CheckpointConsumoRepository;
+import br.com.financas.leitor_transacoes_ia.repository.MensagemProcessadaRepository;
+import br.com.financas.leitor_transacoes_ia.config.ModoExecucao;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+/**
+ * Remove do ledger as partes mais antigas que ledger.ttl-horas, e os checkpoints de partes
+ * que nunca concluíram (ex.: foram para a DLQ) sem atualização no mesmo período.
+ * O TTL deve ser maior que a retenção da fila e da DLQ, de onde as mensagens podem ser reprocessadas.
+ */
+@Component
+@ConditionalOnExpression(ModoExecucao.WORKER)
+@RequiredArgsConstructor
+@Slf4j
+public class LimpezaMensagensProcessadasJob {
+
+    private final MensagemProcessadaRepository mensagemProcessadaRepository;
+    private final CheckpointConsumoRepository checkpointConsumoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${ledger.ttl-horas:336}")
+    private long ttlHoras;
+
+    @Value("${ledger.tamanho-lote-limpeza:5000}")
+    private int tamanhoLote;
+
+    @Scheduled(cron = "${ledger.limpeza-cron:0 30 3 * * *}")
+    public void limpar() {
+        LocalDateTime limite = LocalDateTime.now().minusHours(ttlHoras);
+        try {
+            int registros = removerEmLotes(() -> mensagemProcessadaRepository.removerAntigas(limite, tamanhoLote));
+            int checkpoints = removerEmLotes(() -> checkpointConsumoRepository.removerAntigos(limite, tamanhoLote));
+            log.info("Limpeza do ledger de mensagens concluída: {} registros e {} checkpoints anteriores a {} removidos", 
+                    registros, checkpoints, limite);
+        } catch (Exception e) {
+            log.error("Erro na limpeza do ledger de mensagens: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Em lotes curtos, para não segurar locks nem gerar uma transação enorme
+     */
+    private int removerEmLotes(IntSupplier removerLote) {
+        int total = 0;
+        int removidas;
+        do {
+            removidas = transactionTemplate.execute(status -> removerLote.getAsInt());
+            total += removidas;
+        } while (removidas == tamanhoLote);
+        return total;
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.armazenamento.ArmazenamentoPayload;
+import br.com.financas.leitor_transacoes_ia.config.ModoExecucao;
+import br.com.financas.leitor_transacoes_ia.fila.FilaTransacoesSQS;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Expira payloads do claim-check mais antigos que claim-check.ttl-horas: os de partes que foram para a DLQ
+ * (mantidos para o reprocessamento) e os de remoções que falharam.
+ * O TTL deve ser maior que a retenção da DLQ, como o do ledger.
+ */
+@Component
+@ConditionalOnProperty(name = "fila.modo", havingValue = "sqs", matchIfMissing = true)
+@ConditionalOnExpression(ModoExecucao.WORKER)
+@RequiredArgsConstructor
+@Slf4j
+public class LimpezaPayloadsJob {
+
+    private final ArmazenamentoPayload armazenamentoPayload;
+
+    @Value("${claim-check.ttl-horas:336}")
+    private long ttlHoras;
+
+    @Scheduled(cron = "${claim-check.limpeza-cron:0 45 3 * * *}")
+    public void limpar() {
+        Instant limite = Instant.now().minus(Duration.ofHours(ttlHoras));
+        try {
+            int removidos = armazenamentoPayload.removerAnterioresA(FilaTransacoesSQS.PREFIXO_PAYLOAD, limite);
+            log.info("Limpeza do claim-check concluída: {} payloads anteriores a {} removidos", removidos, limite);
+        } catch (Exception e) {
+            log.error("Erro na limpeza do claim-check: {}", e.getMessage(), e);
+        }
+    }
+}
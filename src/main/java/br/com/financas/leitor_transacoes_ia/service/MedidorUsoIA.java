@@ -0,0 +1,72 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.model.dto.UsoTokensIA;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Medição do consumo de tokens da IA: contadores ai.tokens (tipo entrada | saida | cache) e
+ * ai.custo.estimado por usuário, provider e modelo, com o custo calculado pelos preços de ai.custo.*
+ * (por milhão de tokens; tokens de cache são cobrados pelo preço de cache em vez do de entrada).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MedidorUsoIA {
+
+    private static final BigDecimal UM_MILHAO = BigDecimal.valueOf(1_000_000);
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ai.custo.entrada-por-milhao:0}")
+    private BigDecimal precoEntrada;
+
+    @Value("${ai.custo.saida-por-milhao:0}")
+    private BigDecimal precoSaida;
+
+    @Value("${ai.custo.cache-por-milhao:0}")
+    private BigDecimal precoCache;
+
+    /**
+     * Exporta o uso de uma chamada nos contadores do usuário
+     */
+    public void registrar(String userId, UsoTokensIA uso) {
+        if (uso == null) {
+            return;
+        }
+        incrementar("entrada", userId, uso, uso.getTokensEntrada());
+        incrementar("saida", userId, uso, uso.getTokensSaida());
+        incrementar("cache", userId, uso, uso.getTokensCache());
+        Counter.builder("ai.custo.estimado")
+                .description("Custo estimado das chamadas à IA pelos preços configurados")
+                .tags("usuario", userId, "provider", uso.getProvider(), "modelo", uso.getModelo())
+                .register(meterRegistry)
+                .increment(calcularCusto(uso).doubleValue());
+        log.debug("Uso de IA ({}/{}): entrada={}, saida={}, cache={}, estimado={}", uso.getProvider(), uso.getModelo(),
+                uso.getTokensEntrada(), uso.getTokensSaida(), uso.getTokensCache(), uso.isEstimado());
+    }
+
+    public BigDecimal calcularCusto(UsoTokensIA uso) {
+        long entradaSemCache = Math.max(0, uso.getTokensEntrada() - uso.getTokensCache());
+        return precoEntrada.multiply(BigDecimal.valueOf(entradaSemCache))
+                .add(precoCache.multiply(BigDecimal.valueOf(uso.getTokensCache())))
+                .add(precoSaida.multiply(BigDecimal.valueOf(uso.getTokensSaida())))
+                .divide(UM_MILHAO, 6, RoundingMode.HALF_UP);
+    }
+
+    private void incrementar(String tipo, String userId, UsoTokensIA uso, long tokens) {
+        Counter.builder("ai.tokens")
+                .description("Tokens consumidos nas chamadas à IA")
+                .tags("tipo", tipo, "usuario", userId, "provider", uso.getProvider(), "modelo", uso.getModelo(),
+                        "estimado", String.valueOf(uso.isEstimado()))
+                .register(meterRegistry)
+                .increment(tokens);
+    }
+}
@@ -0,0 +1,153 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Tempo de cada etapa do pipeline (pipeline.etapa), da validação do upload à atualização de status no consumidor,
+ * com tags etapa, provider, modelo, banco, tipo_documento e resultado (sucesso | erro) e buckets de SLO
+ * (pipeline.metricas.slo-ms) para histogramas no Prometheus/Grafana. banco e tipo_documento vêm do upload, então
+ * só assumem valores conhecidos (pipeline.metricas.bancos e os tipos de documento); o resto vira "outro".
+ * As etapas medidas com {@link #medir} também viram spans filhos do trace atual (pipeline.&lt;etapa&gt;).
+ */
+@Component
+public class MetricasPipeline {
+
+    private static final String SUCESSO = "sucesso";
+    private static final String ERRO = "erro";
+    private static final String OUTRO = "outro";
+    private static final String DESCONHECIDO = "desconhecido";
+    private static final Set<String> TIPOS_DOCUMENTO = Set.of("EXTRATO", "FATURA_CARTAO");
+
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+
+    @Value("${ai.provider:placeholder}")
+    private String provider;
+
+    @Value("${ai.model:padrao}")
+    private String modelo;
+
+    @Value("${pipeline.metricas.slo-ms:50,100,250,500,1000,2500,5000,10000,30000,60000}")
+    private long[] sloMs;
+
+    @Value("${pipeline.metricas.bancos:NUBANK,ITAU,BRADESCO,SANTANDER,BANCO DO BRASIL,CAIXA,INTER,C6,BTG,XP}")
+    private List<String> bancosConfigurados;
+
+    private Set<String> bancos;
+
+    public MetricasPipeline(MeterRegistry meterRegistry, ObjectProvider<Tracer> tracer) {
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+    }
+
+    @PostConstruct
+    void carregarBancos() {
+        bancos = bancosConfigurados.stream()
+                .map(MetricasPipeline::padronizar)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public enum Etapa {
+        VALIDACAO, EXTRACAO, PROMPT, CHAMADA_IA, PARSE_RESPOSTA, PUBLICACAO, DEDUPLICACAO, INSERCAO, ATUALIZACAO_STATUS;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Mede a ação num span próprio; exceções são registradas com resultado=erro e propagadas
+     */
+    public <T> T medir(Etapa etapa, String banco, String tipoDocumento, Supplier<T> acao) {
+        Span span = tracer.nextSpan()
+                .name("pipeline." + etapa.tag())
+                .tag("banco", tagBanco(banco))
+                .tag("tipo_documento", tagTipoDocumento(tipoDocumento))
+                .start();
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try (Tracer.SpanInScope escopo = tracer.withSpan(span)) {
+            T resultado = acao.get();
+            sucesso = true;
+            return resultado;
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+            registrar(etapa, banco, tipoDocumento, inicio, sucesso);
+        }
+    }
+
+    public void medir(Etapa etapa, String banco, String tipoDocumento, Runnable acao) {
+        medir(etapa, banco, tipoDocumento, () -> {
+            acao.run();
+            return null;
+        });
+    }
+
+    /**
+     * Registra uma etapa medida pelo chamador (para trechos com retornos antecipados)
+     *
+     * @param inicioNanos Valor de System.nanoTime() no início da etapa
+     */
+    public void registrar(Etapa etapa, String banco, String tipoDocumento, long inicioNanos, boolean sucesso) {
+        Timer.builder("pipeline.etapa")
+                .description("Tempo de cada etapa do pipeline de documentos")
+                .tags(Tags.of(
+                        "etapa", etapa.tag(),
+                        "provider", provider,
+                        "modelo", modelo,
+                        "banco", tagBanco(banco),
+                        "tipo_documento", tagTipoDocumento(tipoDocumento),
+                        "resultado", sucesso ? SUCESSO : ERRO))
+                .serviceLevelObjectives(Arrays.stream(sloMs).mapToObj(Duration::ofMillis).toArray(Duration[]::new))
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicioNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * banco vem do usuário: fora da lista configurada vira "outro", para o número de séries não crescer com o input
+     */
+    private String tagBanco(String banco) {
+        if (banco == null || banco.isBlank()) {
+            return DESCONHECIDO;
+        }
+        String padronizado = padronizar(banco);
+        return bancos.contains(padronizado) ? padronizado : OUTRO;
+    }
+
+    private static String tagTipoDocumento(String tipoDocumento) {
+        if (tipoDocumento == null || tipoDocumento.isBlank()) {
+            return DESCONHECIDO;
+        }
+        String padronizado = padronizar(tipoDocumento);
+        return TIPOS_DOCUMENTO.contains(padronizado) ? padronizado : OUTRO;
+    }
+
+    /**
+     * Maiúsculas, sem acentos e sem espaços sobrando ("Itaú " e "ITAU" são o mesmo banco)
+     */
+    private static String padronizar(String valor) {
+        String semAcentos = Normalizer.normalize(valor.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return semAcentos.replaceAll("\\s+", " ").toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.model.entity.Transacao;
+import br.com.financas.leitor_transacoes_ia.repository.TransacaoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PersistenciaTransacoesService {
+
+    private final TransacaoRepository transacaoRepository;
+    private final ResumoMensalService resumoMensalService;
+
+    /**
+     * Salva um lote de transações e atualiza o resumo mensal na mesma transação
+     *
+     * @param transacoes Transações já deduplicadas
+     * @return Transações salvas
+     */
+    @Transactional
+    public List<Transacao> salvarLote(List<Transacao> transacoes) {
+        List<Transacao> salvas = transacaoRepository.saveAll(transacoes);
+        resumoMensalService.acumular(salvas);
+
+        log.debug("Lote salvo: {} transações", salvas.size());
+        return salvas;
+    }
+
+    /**
+     * Salva um lote e executa, na mesma transação, o registro de progresso do consumidor
+     * (checkpoint, ou ledger + estatísticas no último lote): ou ambos ficam gravados, ou nada
+     */
+    @Transactional
+    public List<Transacao> salvarLote(List<Transacao> transacoes, Runnable naMesmaTransacao) {
+        List<Transacao> salvas = salvarLote(transacoes);
+        naMesmaTransacao.run();
+        return salvas;
+    }
+}
@@ -1,12 +1,23 @@
 package br.com.financas.leitor_transacoes_ia.service;
 
+import br.com.financas.leitor_transacoes_ia.config.RoteamentoDataSource;
+import br.com.financas.leitor_transacoes_ia.fila.FilaTransacoes;
+import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
+import br.com.financas.leitor_transacoes_ia.model.dto.UsoTokensIA;
+import br.com.financas.leitor_transacoes_ia.model.entity.MensagemProcessada;
 import br.com.financas.leitor_transacoes_ia.model.entity.Processamento;
+import br.com.financas.leitor_transacoes_ia.model.projection.ProcessamentoProjecao;
+import br.com.financas.leitor_transacoes_ia.model.projection.UsoIAProjecao;
+import br.com.financas.leitor_transacoes_ia.repository.CheckpointConsumoRepository;
+import br.com.financas.leitor_transacoes_ia.repository.MensagemProcessadaRepository;
 import br.com.financas.leitor_transacoes_ia.repository.ProcessamentoRepository;
 import br.com.financas.leitor_transacoes_ia.security.UserContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,13 +31,25 @@ public class ProcessamentoService {
 
     private final ProcessamentoRepository processamentoRepository;
     private final UserContext userContext;
+    private final PublicadorSQSService publicadorSQSService;
+    private final MedidorUsoIA medidorUsoIA;
+    private final MensagemProcessadaRepository mensagemProcessadaRepository;
+    private final CheckpointConsumoRepository checkpointConsumoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${datasource.replica.enabled:false}")
+    private boolean replicaHabilitada;
 
     /**
      * Cria um novo processamento
      */
     @Transactional
     public Processamento criarProcessamento(String nomeArquivo, String banco, String moeda, String tipoDocumento) {
-        String processamentoId = UUID.randomUUID().toString();
+        return novoProcessamento(UUID.randomUUID().toString(), nomeArquivo, banco, moeda, tipoDocumento);
+    }
+
+    private Processamento novoProcessamento(String processamentoId, String nomeArquivo, String banco, String moeda,
+                                            String tipoDocumento) {
         String userId = userContext.getCurrentUserId();
         
         Processamento processamento = Processamento.builder()
@@ -47,6 +70,46 @@ public class ProcessamentoService {
         return saved;
     }
 
+    /**
+     * Cria o processamento e registra a publicação das transações classificadas na mesma transação
+     * (outbox): ou os dois ficam gravados, ou nenhum. A codificação e o upload do claim-check vêm antes,
+     * fora da transação, para não segurar uma conexão do primário durante o upload
+     */
+    public Processamento criarProcessamento(String nomeArquivo, String banco, String moeda, String tipoDocumento,
+                                            TransacaoAIDTO transacoesClassificadas) {
+        transacoesClassificadas.setProcessamentoId(UUID.randomUUID().toString());
+        FilaTransacoes.Preparado preparado = publicadorSQSService.preparar(transacoesClassificadas);
+        try {
+            return transactionTemplate.execute(status -> registrarPublicacao(nomeArquivo, banco, moeda, tipoDocumento, preparado));
+        } catch (RuntimeException e) {
+            publicadorSQSService.descartar(preparado);
+            throw e;
+        }
+    }
+
+    private Processamento registrarPublicacao(String nomeArquivo, String banco, String moeda, String tipoDocumento,
+                                              FilaTransacoes.Preparado preparado) {
+        TransacaoAIDTO transacoesClassificadas = preparado.documento();
+        Processamento processamento = novoProcessamento(transacoesClassificadas.getProcessamentoId(),
+                nomeArquivo, banco, moeda, tipoDocumento);
+        
+        int partes = publicadorSQSService.publicarTransacoes(preparado, banco, tipoDocumento);
+        processamento.setPartesTotal(partes);
+        
+        UsoTokensIA uso = transacoesClassificadas.getUsoTokens();
+        if (uso != null) {
+            processamento.setAiProvider(uso.getProvider());
+            processamento.setAiModelo(uso.getModelo());
+            processamento.setTokensEntrada(uso.getTokensEntrada());
+            processamento.setTokensSaida(uso.getTokensSaida());
+            processamento.setTokensCache(uso.getTokensCache());
+            processamento.setTokensEstimados(uso.isEstimado());
+            processamento.setCustoEstimado(medidorUsoIA.calcularCusto(uso));
+        }
+        
+        return processamento;
+    }
+
     /**
      * Atualiza o status de um processamento
      */
@@ -83,6 +146,93 @@ public class ProcessamentoService {
         throw new RuntimeException("Processamento não encontrado: " + processamentoId);
     }
 
+    /**
+     * Parte já registrada no ledger (reentrega do SQS)
+     */
+    public static class ParteJaProcessadaException extends RuntimeException {
+        public ParteJaProcessadaException(String processamentoId, int sequencia) {
+            super("Parte " + sequencia + " do processamento " + processamentoId + " já foi processada");
+        }
+    }
+
+    /**
+     * Verificação O(1) no ledger antes de processar uma parte (sempre no primário)
+     */
+    public boolean parteJaProcessada(String processamentoId, int sequencia) {
+        return RoteamentoDataSource.noPrimario(() -> mensagemProcessadaRepository.existsById(
+                new MensagemProcessada.Chave(processamentoId, sequencia)));
+    }
+
+    /**
+     * Marca o início do consumo (só tem efeito na primeira parte a chegar)
+     */
+    @Transactional
+    public void iniciarConsumo(String processamentoId) {
+        if (processamentoRepository.marcarEmProcessamento(processamentoId, LocalDateTime.now()) > 0) {
+            log.info("Status atualizado: {} - {}", processamentoId, Processamento.StatusProcessamento.PROCESSANDO);
+        }
+    }
+
+    /**
+     * Progresso do consumo (sem usuário no contexto); participa da transação do lote
+     */
+    @Transactional
+    public void atualizarProgressoConsumo(String processamentoId, int progresso) {
+        processamentoRepository.atualizarProgresso(processamentoId, progresso, LocalDateTime.now());
+    }
+
+    /**
+     * Registra uma parte consumida no ledger (removendo seu checkpoint) e soma suas estatísticas; quando a última parte chega
+     * o processamento é concluído.
+     * O incremento é atômico e a linha fica travada até o commit, então só quem aplica o último
+     * incremento (ou um concorrente que já o enxerga) conclui.
+     */
+    @Transactional
+    public Processamento registrarParteConcluida(String processamentoId, int sequencia, int processadas, int salvas, int duplicatas) {
+        // Ledger na mesma transação: se a parte já foi registrada, nada desta entrega é gravado
+        if (mensagemProcessadaRepository.registrar(processamentoId, sequencia, LocalDateTime.now()) == 0) {
+            throw new ParteJaProcessadaException(processamentoId, sequencia);
+        }
+        checkpointConsumoRepository.remover(processamentoId, sequencia);
+        
+        if (processamentoRepository.acumularParteConcluida(processamentoId, processadas, salvas, duplicatas, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Processamento não encontrado: " + processamentoId);
+        }
+        
+        Processamento processamento = processamentoRepository.findByProcessamentoId(processamentoId)
+                .orElseThrow(() -> new RuntimeException("Processamento não encontrado: " + processamentoId));
+        
+        int total = processamento.getPartesTotal() != null ? processamento.getPartesTotal() : 1;
+        if (processamento.getPartesConcluidas() < total) {
+            processamento.setProgresso(processamento.getPartesConcluidas() * 100 / total);
+            log.debug("Parte concluída: {} - {}/{}", processamentoId, processamento.getPartesConcluidas(), total);
+            return processamentoRepository.save(processamento);
+        }
+        
+        if (processamento.getStatus() == Processamento.StatusProcessamento.ERRO
+                || processamento.getStatus() == Processamento.StatusProcessamento.CANCELADO) {
+            log.warn("Última parte de {} consumida, mas o processamento está em {}", processamentoId, processamento.getStatus());
+            return processamento;
+        }
+        
+        LocalDateTime agora = LocalDateTime.now();
+        processamento.setStatus(Processamento.StatusProcessamento.CONCLUIDO);
+        processamento.setProgresso(100);
+        processamento.setDataFim(agora);
+        if (processamento.getDataInicio() != null) {
+            long tempoMs = java.time.Duration.between(processamento.getDataInicio(), agora).toMillis();
+            processamento.setTempoProcessamentoMs(tempoMs);
+            if (tempoMs > 0) {
+                processamento.setVelocidadeProcessamento(processamento.getTransacoesProcessadas() / (tempoMs / 1000.0));
+            }
+        }
+        
+        Processamento saved = processamentoRepository.save(processamento);
+        log.info("Processamento {} concluído ({} partes) - Processadas: {}, Salvas: {}, Duplicatas: {}", 
+                processamentoId, total, saved.getTransacoesProcessadas(), saved.getTransacoesSalvas(), saved.getDuplicatasIgnoradas());
+        return saved;
+    }
+
     /**
      * Atualiza o progresso de um processamento
      */
@@ -172,11 +322,74 @@ public class ProcessamentoService {
     }
 
     /**
-     * Busca processamento por ID (do usuário atual)
+     * Lista os processamentos do usuário atual como projeção (listagens)
+     */
+    public List<ProcessamentoProjecao> listarProcessamentosProjetados() {
+        String userId = userContext.getCurrentUserId();
+        return processamentoRepository.findProjetadosByUserId(userId);
+    }
+
+    /**
+     * Uso de IA do usuário atual por provider e modelo, nos processamentos criados no intervalo [inicio, fim)
+     */
+    public List<UsoIAProjecao> listarUsoIA(LocalDateTime inicio, LocalDateTime fim) {
+        String userId = userContext.getCurrentUserId();
+        return processamentoRepository.somarUsoIAPorUserId(userId, inicio, fim);
+    }
+
+    /**
+     * Busca processamento por ID (do usuário atual).
+     * Com réplica de leitura, processamentos ainda não finalizados (ou não replicados)
+     * são relidos do primário para não exibir um status atrasado.
      */
     public Optional<Processamento> buscarPorId(String processamentoId) {
         String userId = userContext.getCurrentUserId();
-        return processamentoRepository.findByUserIdAndProcessamentoId(userId, processamentoId);
+        Optional<Processamento> processamento = processamentoRepository.findByUserIdAndProcessamentoId(userId, processamentoId);
+        
+        if (replicaHabilitada && (processamento.isEmpty() || !isFinalizado(processamento.get()))) {
+            return RoteamentoDataSource.noPrimario(() -> processamentoRepository.findByUserIdAndProcessamentoId(userId, processamentoId));
+        }
+        
+        return processamento;
+    }
+
+    /**
+     * Busca processamento para o consumidor SQS (sem usuário no contexto; sempre no primário)
+     */
+    public Optional<Processamento> buscarParaConsumo(String processamentoId) {
+        return RoteamentoDataSource.noPrimario(() -> processamentoRepository.findByProcessamentoId(processamentoId));
+    }
+
+    /**
+     * Marca o processamento como ERRO quando uma de suas mensagens esgota as tentativas (DLQ).
+     * Processamentos já finalizados não mudam (a mesma mensagem é lida de novo enquanto estiver na DLQ).
+     *
+     * @return true se o processamento foi marcado agora
+     */
+    @Transactional
+    public boolean registrarFalhaDefinitiva(String processamentoId, String erro) {
+        Optional<Processamento> encontrado = processamentoRepository.findByProcessamentoId(processamentoId);
+        if (encontrado.isEmpty()) {
+            log.warn("Processamento {} da mensagem na DLQ não encontrado", processamentoId);
+            return false;
+        }
+        Processamento processamento = encontrado.get();
+        if (isFinalizado(processamento)) {
+            return false;
+        }
+        processamento.setStatus(Processamento.StatusProcessamento.ERRO);
+        processamento.setErro(erro);
+        processamento.setDataFim(LocalDateTime.now());
+        processamento.setUpdatedAt(LocalDateTime.now());
+        processamentoRepository.save(processamento);
+        log.error("Erro adicionado ao processamento {}: {}", processamentoId, erro);
+        return true;
+    }
+
+    private boolean isFinalizado(Processamento processamento) {
+        return processamento.getStatus() == Processamento.StatusProcessamento.CONCLUIDO
+                || processamento.getStatus() == Processamento.StatusProcessamento.ERRO
+                || processamento.getStatus() == Processamento.StatusProcessamento.CANCELADO;
     }
 
     /**
@@ -1,32 +1,49 @@
 package br.com.financas.leitor_transacoes_ia.service;
 
-import br.com.financas.leitor_transacoes_ia.config.SQSConfig;
+import br.com.financas.leitor_transacoes_ia.fila.FilaTransacoes;
 import br.com.financas.leitor_transacoes_ia.model.dto.TransacaoAIDTO;
-import io.awspring.cloud.sqs.operations.SqsTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Publica as transações classificadas na {@link FilaTransacoes} configurada (fila.modo):
+ * SQS via outbox, ou a fila em memória do próprio processo.
+ * Em ambos os casos a entrega ao consumidor só acontece depois do commit do chamador.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PublicadorSQSService {
     
-    private final SqsTemplate sqsTemplate;
+    private final FilaTransacoes filaTransacoes;
     
     /**
-     * Publica transações classificadas no SQS
+     * Codifica as transações (e faz o upload do claim-check, se for o caso); chamar antes de abrir a transação
      */
-    public void publicarTransacoes(TransacaoAIDTO transacoes, String banco, String tipoDocumento) {
-        log.info("Publicando {} transações no SQS. Banco: {}, Tipo: {}", 
-                transacoes.getTotalTransacoes(), banco, tipoDocumento);
+    public FilaTransacoes.Preparado preparar(TransacaoAIDTO transacoes) {
+        return filaTransacoes.preparar(transacoes);
+    }
+
+    /**
+     * Registra as transações classificadas para publicação na fila
+     *
+     * @return quantidade de partes (mensagens) geradas
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int publicarTransacoes(FilaTransacoes.Preparado preparado, String banco, String tipoDocumento) {
+        log.info("Registrando {} transações para publicação. Banco: {}, Tipo: {}", 
+                preparado.documento().getTotalTransacoes(), banco, tipoDocumento);
         
-        try {
-            sqsTemplate.send(SQSConfig.TRANSACOES_QUEUE, transacoes);
-            log.info("Transações publicadas com sucesso no SQS");
-        } catch (Exception e) {
-            log.error("Erro ao publicar transações no SQS: {}", e.getMessage(), e);
-            throw new RuntimeException("Erro ao publicar transações no SQS", e);
-        }
+        return filaTransacoes.enviar(preparado);
+    }
+
+    /**
+     * Desfaz o {@link #preparar} quando a transação que registraria a publicação não foi confirmada
+     */
+    public void descartar(FilaTransacoes.Preparado preparado) {
+        filaTransacoes.descartar(preparado);
     }
 }
@@ -0,0 +1,32 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfill do resumo mensal na inicialização.
+ * Habilitar com resumo.reconstruir-na-inicializacao=true (ex.: após importar dados antigos).
+ */
+@Component
+@ConditionalOnProperty(name = "resumo.reconstruir-na-inicializacao", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ReconstrucaoResumoMensalJob implements ApplicationRunner {
+
+    private final ResumoMensalService resumoMensalService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Iniciando reconstrução do resumo mensal");
+        try {
+            int linhas = resumoMensalService.reconstruirTodos();
+            log.info("Reconstrução do resumo mensal concluída. Linhas: {}", linhas);
+        } catch (Exception e) {
+            log.error("Erro ao reconstruir resumo mensal: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.config.SQSConfig;
+import br.com.financas.leitor_transacoes_ia.fila.FilaTransacoesSQS;
+import br.com.financas.leitor_transacoes_ia.model.entity.MensagemOutbox;
+import br.com.financas.leitor_transacoes_ia.model.entity.Processamento;
+import br.com.financas.leitor_transacoes_ia.repository.MensagemOutboxRepository;
+import br.com.financas.leitor_transacoes_ia.repository.ProcessamentoRepository;
+import br.com.financas.leitor_transacoes_ia.config.ModoExecucao;
+import io.awspring.cloud.sqs.listener.SqsHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drena o outbox para o SQS com SendMessageBatch (até 10 mensagens / 256 KB por chamada).
+ * É acionado após o commit de cada mensagem registrada e, como rede de segurança, periodicamente.
+ * As linhas são travadas com FOR UPDATE SKIP LOCKED e reservadas numa transação curta, então várias instâncias
+ * podem drenar em paralelo; o envio acontece fora da transação e o resultado é gravado numa segunda transação.
+ * Falhas reagendam a mensagem com backoff exponencial. A entrega é at-least-once: se a instância cair entre
+ * o envio e o registro, a reserva expira e a mensagem é reenviada.
+ */
+@Service
+@ConditionalOnProperty(name = "fila.modo", havingValue = "sqs", matchIfMissing = true)
+@ConditionalOnExpression(ModoExecucao.API)
+@Slf4j
+public class RelayOutboxService {
+
+    private static final int MAX_MENSAGENS_POR_LOTE = 10;
+    private static final int MAX_BYTES_POR_LOTE = 256 * 1024;
+
+    private final MensagemOutboxRepository mensagemOutboxRepository;
+    private final ProcessamentoRepository processamentoRepository;
+    private final SqsAsyncClient sqsAsyncClient;
+    private final ContextoRastreamento contextoRastreamento;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean drenagemAgendada = new AtomicBoolean();
+    private final Map<String, String> urlsFilas = new ConcurrentHashMap<>();
+    private final AtomicLong pendentes = new AtomicLong();
+
+    private final Counter mensagensPublicadas;
+    private final Counter falhasPublicacao;
+    private final Timer atrasoPublicacao;
+
+    @Value("${outbox.tamanho-lote:100}")
+    private int tamanhoLote;
+
+    @Value("${outbox.max-tentativas:10}")
+    private int maxTentativas;
+
+    @Value("${outbox.timeout-envio-ms:10000}")
+    private long timeoutEnvioMs;
+
+    // Deve cobrir o envio de um lote inteiro (até tamanho-lote / 10 chamadas de timeout-envio-ms)
+    @Value("${outbox.prazo-reserva-ms:120000}")
+    private long prazoReservaMs;
+
+    @Value("${outbox.backoff-inicial-ms:1000}")
+    private long backoffInicialMs;
+
+    @Value("${outbox.backoff-maximo-ms:300000}")
+    private long backoffMaximoMs;
+
+    public RelayOutboxService(MensagemOutboxRepository mensagemOutboxRepository,
+                              ProcessamentoRepository processamentoRepository,
+                              SqsAsyncClient sqsAsyncClient,
+                              ContextoRastreamento contextoRastreamento,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.mensagemOutboxRepository = mensagemOutboxRepository;
+        this.processamentoRepository = processamentoRepository;
+        this.sqsAsyncClient = sqsAsyncClient;
+        this.contextoRastreamento = contextoRastreamento;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.mensagensPublicadas = Counter.builder("outbox.mensagens.publicadas")
+                .description("Mensagens do outbox entregues ao SQS")
+                .register(meterRegistry);
+        this.falhasPublicacao = Counter.builder("outbox.mensagens.falhas")
+                .description("Tentativas de envio ao SQS que falharam")
+                .register(meterRegistry);
+        this.atrasoPublicacao = Timer.builder("outbox.atraso")
+                .description("Tempo entre o registro no outbox e a entrega ao SQS")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("outbox.mensagens.pendentes", pendentes, AtomicLong::get)
+                .description("Mensagens pendentes no outbox (última verificação)")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void aoRegistrarMensagem(FilaTransacoesSQS.MensagemRegistrada evento) {
+        agendarDrenagem();
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.intervalo-ms:5000}")
+    public void drenarPeriodicamente() {
+        agendarDrenagem();
+    }
+
+    /**
+     * Agenda uma drenagem; sinais recebidos enquanto uma já está agendada são agrupados
+     */
+    public void agendarDrenagem() {
+        if (drenagemAgendada.compareAndSet(false, true)) {
+            executor.execute(this::drenar);
+        }
+    }
+
+    private void drenar() {
+        drenagemAgendada.set(false);
+        try {
+            int processadas;
+            do {
+                List<MensagemOutbox> reservadas = transactionTemplate.execute(status -> reservarLote());
+                processadas = reservadas.size();
+                if (processadas > 0) {
+                    enviarReservadas(reservadas);
+                }
+            } while (processadas == tamanhoLote);
+            pendentes.set(mensagemOutboxRepository.countPendentes(maxTentativas));
+        } catch (Exception e) {
+            log.error("Erro ao drenar outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Trava e reserva o próximo lote; a transação termina antes de qualquer chamada ao SQS
+     */
+    private List<MensagemOutbox> reservarLote() {
+        LocalDateTime agora = LocalDateTime.now();
+        List<MensagemOutbox> mensagens = mensagemOutboxRepository.travarPendentes(maxTentativas, agora, tamanhoLote);
+        if (!mensagens.isEmpty()) {
+            mensagemOutboxRepository.reservar(mensagens.stream().map(MensagemOutbox::getId).toList(),
+                    agora.plus(Duration.ofMillis(prazoReservaMs)));
+        }
+        return mensagens;
+    }
+
+    private void enviarReservadas(List<MensagemOutbox> mensagens) {
+        List<Long> enviadas = new ArrayList<>(mensagens.size());
+        Map<MensagemOutbox, String> falhas = new LinkedHashMap<>();
+        for (List<MensagemOutbox> lote : agruparEmLotes(mensagens)) {
+            enviarLote(lote, enviadas, falhas);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!enviadas.isEmpty()) {
+                mensagemOutboxRepository.deleteAllByIdInBatch(enviadas);
+            }
+            falhas.forEach(this::registrarFalha);
+        });
+        log.debug("Outbox drenado: {} de {} mensagens enviadas", enviadas.size(), mensagens.size());
+    }
+
+    /**
+     * Agrupa por fila respeitando os limites do SendMessageBatch
+     */
+    private List<List<MensagemOutbox>> agruparEmLotes(List<MensagemOutbox> mensagens) {
+        Map<String, List<MensagemOutbox>> porFila = new LinkedHashMap<>();
+        for (MensagemOutbox mensagem : mensagens) {
+            porFila.computeIfAbsent(mensagem.getFila(), f -> new ArrayList<>()).add(mensagem);
+        }
+
+        List<List<MensagemOutbox>> lotes = new ArrayList<>();
+        for (List<MensagemOutbox> daFila : porFila.values()) {
+            List<MensagemOutbox> atual = new ArrayList<>(MAX_MENSAGENS_POR_LOTE);
+            int bytesAtual = 0;
+            for (MensagemOutbox mensagem : daFila) {
+                int bytes = tamanhoEmBytes(mensagem);
+                if (!atual.isEmpty() && (atual.size() == MAX_MENSAGENS_POR_LOTE || bytesAtual + bytes > MAX_BYTES_POR_LOTE)) {
+                    lotes.add(atual);
+                    atual = new ArrayList<>(MAX_MENSAGENS_POR_LOTE);
+                    bytesAtual = 0;
+                }
+                atual.add(mensagem);
+                bytesAtual += bytes;
+            }
+            if (!atual.isEmpty()) {
+                lotes.add(atual);
+            }
+        }
+        return lotes;
+    }
+
+    private void enviarLote(List<MensagemOutbox> lote, List<Long> enviadas, Map<MensagemOutbox, String> falhas) {
+        Map<String, MensagemOutbox> porEntrada = new HashMap<>();
+        List<SendMessageBatchRequestEntry> entradas = new ArrayList<>(lote.size());
+        for (MensagemOutbox mensagem : lote) {
+            String idEntrada = String.valueOf(mensagem.getId());
+            porEntrada.put(idEntrada, mensagem);
+            entradas.add(SendMessageBatchRequestEntry.builder()
+                    .id(idEntrada)
+                    .messageBody(mensagem.getPayload())
+                    .messageAttributes(atributos(mensagem))
+                    .build());
+        }
+
+        String fila = lote.get(0).getFila();
+        try {
+            SendMessageBatchResponse resposta = sqsAsyncClient.sendMessageBatch(req -> req
+                            .queueUrl(urlDaFila(fila))
+                            .entries(entradas))
+                    .get(timeoutEnvioMs, TimeUnit.MILLISECONDS);
+
+            LocalDateTime agora = LocalDateTime.now();
+            resposta.successful().forEach(sucesso -> {
+                MensagemOutbox mensagem = porEntrada.get(sucesso.id());
+                enviadas.add(mensagem.getId());
+                mensagensPublicadas.increment();
+                atrasoPublicacao.record(Duration.between(mensagem.getCreatedAt(), agora));
+            });
+            for (BatchResultErrorEntry falha : resposta.failed()) {
+                falhas.put(porEntrada.get(falha.id()), falha.code() + ": " + falha.message());
+            }
+        } catch (Exception e) {
+            log.warn("Erro ao enviar lote de {} mensagens para {}: {}", lote.size(), fila, e.getMessage());
+            lote.forEach(mensagem -> falhas.put(mensagem, e.getMessage()));
+        }
+    }
+
+    /**
+     * Conta a tentativa e reagenda com backoff exponencial; ao esgotar as tentativas o processamento é marcado com erro
+     */
+    private void registrarFalha(MensagemOutbox mensagem, String erro) {
+        falhasPublicacao.increment();
+        int tentativas = mensagem.getTentativas() + 1;
+        long esperaMs = Math.min(backoffMaximoMs, backoffInicialMs << Math.min(tentativas - 1, 20));
+        mensagemOutboxRepository.registrarFalha(mensagem.getId(), tentativas,
+                erro != null && erro.length() > 1000 ? erro.substring(0, 1000) : erro,
+                LocalDateTime.now().plus(Duration.ofMillis(esperaMs)));
+
+        if (tentativas >= maxTentativas) {
+            log.error("Mensagem {} do outbox descartada após {} tentativas: {}", mensagem.getId(), tentativas, erro);
+            if (mensagem.getProcessamentoId() != null) {
+                processamentoRepository.findByProcessamentoId(mensagem.getProcessamentoId()).ifPresent(processamento -> {
+                    processamento.setStatus(Processamento.StatusProcessamento.ERRO);
+                    processamento.setErro("Falha ao publicar no SQS: " + erro);
+                    processamento.setDataFim(LocalDateTime.now());
+                    processamentoRepository.save(processamento);
+                });
+            }
+        }
+    }
+
+    private String urlDaFila(String fila) {
+        return urlsFilas.computeIfAbsent(fila, nome -> sqsAsyncClient.getQueueUrl(req -> req.queueName(nome)).join().queueUrl());
+    }
+
+    private Map<String, MessageAttributeValue> atributos(MensagemOutbox mensagem) {
+        Map<String, MessageAttributeValue> atributos = new HashMap<>();
+        if (mensagem.getTipo() != null) {
+            atributos.put(SqsHeaders.SQS_DEFAULT_TYPE_HEADER, atributoTexto(mensagem.getTipo()));
+        }
+        if (mensagem.getCodificacao() != null) {
+            atributos.put(SQSConfig.ATRIBUTO_CODIFICACAO, atributoTexto(mensagem.getCodificacao()));
+        }
+        contextoRastreamento.desserializar(mensagem.getContextoRastreamento())
+                .forEach((nome, valor) -> atributos.put(nome, atributoTexto(valor)));
+        return atributos;
+    }
+
+    private static MessageAttributeValue atributoTexto(String valor) {
+        return MessageAttributeValue.builder().dataType("String").stringValue(valor).build();
+    }
+
+    private int tamanhoEmBytes(MensagemOutbox mensagem) {
+        int tamanho = mensagem.getPayload().getBytes(StandardCharsets.UTF_8).length;
+        for (Map.Entry<String, MessageAttributeValue> atributo : atributos(mensagem).entrySet()) {
+            tamanho += atributo.getKey().length() + atributo.getValue().stringValue().length() + "String".length();
+        }
+        return tamanho;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+}
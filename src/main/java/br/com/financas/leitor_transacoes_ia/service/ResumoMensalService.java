@@ -0,0 +1,99 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.model.entity.ResumoMensal;
+import br.com.financas.leitor_transacoes_ia.model.entity.Transacao;
+import br.com.financas.leitor_transacoes_ia.repository.ResumoMensalRepository;
+import br.com.financas.leitor_transacoes_ia.security.UserContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumoMensalService {
+
+    private static final String CATEGORIA_PADRAO = "OUTROS";
+
+    private final ResumoMensalRepository resumoMensalRepository;
+    private final UserContext userContext;
+
+    /**
+     * Acumula um lote de transações recém-inseridas no resumo mensal.
+     * Deve ser chamado dentro da mesma transação que salvou o lote.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acumular(List<Transacao> transacoes) {
+        Map<ChaveResumo, Delta> deltas = new HashMap<>();
+        for (Transacao transacao : transacoes) {
+            ChaveResumo chave = new ChaveResumo(
+                    transacao.getUserId(),
+                    transacao.getData().withDayOfMonth(1),
+                    transacao.getBanco() != null ? transacao.getBanco() : "",
+                    transacao.getCategoria() != null ? transacao.getCategoria() : CATEGORIA_PADRAO,
+                    transacao.getMoeda() != null ? transacao.getMoeda() : "BRL");
+            deltas.computeIfAbsent(chave, k -> new Delta()).somar(transacao.getValor());
+        }
+
+        // Uma linha por (usuário, mês, banco, categoria, moeda) do lote, não por transação
+        deltas.forEach((chave, delta) -> resumoMensalRepository.acumular(
+                chave.userId(), chave.mes(), chave.banco(), chave.categoria(), chave.moeda(),
+                delta.valor, delta.quantidade));
+
+        log.debug("Resumo mensal atualizado: {} transações em {} linhas", transacoes.size(), deltas.size());
+    }
+
+    /**
+     * Lista o resumo mensal do usuário atual no intervalo de meses (inclusivo)
+     */
+    public List<ResumoMensal> listar(YearMonth inicio, YearMonth fim) {
+        String userId = userContext.getCurrentUserId();
+        return resumoMensalRepository.findByUserIdAndMesBetweenOrderByMesAscBancoAscCategoriaAsc(
+                userId, inicio.atDay(1), fim.atDay(1));
+    }
+
+    /**
+     * Recalcula o resumo do usuário atual a partir das transações salvas
+     */
+    @Transactional
+    public int reconstruir() {
+        String userId = userContext.getCurrentUserId();
+        int removidas = resumoMensalRepository.removerPorUsuario(userId);
+        int criadas = resumoMensalRepository.reconstruirPorUsuario(userId);
+        log.info("Resumo mensal reconstruído para usuário {} - Removidas: {}, Criadas: {}", userId, removidas, criadas);
+        return criadas;
+    }
+
+    /**
+     * Recalcula o resumo de todos os usuários a partir das transações salvas
+     */
+    @Transactional
+    public int reconstruirTodos() {
+        int removidas = resumoMensalRepository.removerTodos();
+        int criadas = resumoMensalRepository.reconstruirTodos();
+        log.info("Resumo mensal reconstruído - Removidas: {}, Criadas: {}", removidas, criadas);
+        return criadas;
+    }
+
+    private record ChaveResumo(String userId, LocalDate mes, String banco, String categoria, String moeda) {
+    }
+
+    private static class Delta {
+        private BigDecimal valor = BigDecimal.ZERO;
+        private int quantidade;
+
+        void somar(BigDecimal valorTransacao) {
+            valor = valor.add(valorTransacao);
+            quantidade++;
+        }
+    }
+}
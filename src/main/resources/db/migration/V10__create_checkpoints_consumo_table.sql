@@ -0,0 +1,19 @@
+-- Migration V10: Create checkpoints_consumo table
+-- Progress of a message part being consumed, advanced in the same transaction as each saved batch;
+-- a redelivered part resumes from proximo_indice. The row is removed when the part is recorded in the ledger.
+
+CREATE TABLE IF NOT EXISTS checkpoints_consumo (
+    processamento_id VARCHAR(255) NOT NULL,
+    sequencia INT NOT NULL,
+    proximo_indice INT NOT NULL DEFAULT 0,
+    transacoes_salvas INT NOT NULL DEFAULT 0,
+    duplicatas_ignoradas INT NOT NULL DEFAULT 0,
+    erros INT NOT NULL DEFAULT 0,
+    atualizado_em TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (processamento_id, sequencia),
+    INDEX idx_checkpoints_consumo_data (atualizado_em)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Comments about indexes:
+-- PRIMARY: checkpoint lookup/advance per part
+-- idx_checkpoints_consumo_data: cleanup of checkpoints from parts that never completed (TTL job)
@@ -0,0 +1,17 @@
+-- Migration V11: AI token usage per processamento
+-- Tokens reported by the provider for the classification call (or estimated from text size when
+-- the response has no usage), with the cost estimated at the prices configured at the time
+
+ALTER TABLE processamentos
+    ADD COLUMN ai_provider VARCHAR(50) NULL,
+    ADD COLUMN ai_modelo VARCHAR(100) NULL,
+    ADD COLUMN tokens_entrada BIGINT NULL,
+    ADD COLUMN tokens_saida BIGINT NULL,
+    ADD COLUMN tokens_cache BIGINT NULL,
+    ADD COLUMN tokens_estimados BIT(1) NULL,
+    ADD COLUMN custo_estimado DECIMAL(14,6) NULL;
+
+ALTER TABLE processamentos ADD INDEX idx_processamentos_user_created (user_id, created_at);
+
+-- Comments about indexes:
+-- idx_processamentos_user_created: per-user AI usage over a time range (/uso-ia)
@@ -0,0 +1,6 @@
+-- Migration V12: Trace context on outbox messages
+-- Propagation headers (traceparent etc.) captured when the message is recorded; the relay sends them
+-- as SQS message attributes so the consumer continues the upload's trace
+
+ALTER TABLE outbox_mensagens
+    ADD COLUMN contexto_rastreamento VARCHAR(1024) NULL AFTER codificacao;
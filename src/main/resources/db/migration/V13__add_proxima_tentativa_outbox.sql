@@ -0,0 +1,11 @@
+-- Migration V13: Retry schedule for outbox messages
+-- The relay only picks rows whose proxima_tentativa has passed: it is pushed forward while a relay is sending
+-- (claim) and, after a failed send, by an exponential backoff
+
+ALTER TABLE outbox_mensagens
+    ADD COLUMN proxima_tentativa TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) AFTER tentativas;
+
+CREATE INDEX idx_outbox_proxima_tentativa ON outbox_mensagens (proxima_tentativa, id);
+
+-- Comments about indexes:
+-- idx_outbox_proxima_tentativa: Relay scan of rows due for a (re)try (SELECT ... FOR UPDATE SKIP LOCKED)
@@ -0,0 +1,30 @@
+-- Migration V5: Create resumo_mensal rollup table
+-- Keeps per-user monthly totals by banco/categoria/moeda, maintained incrementally by the consumer
+
+CREATE TABLE IF NOT EXISTS resumo_mensal (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id VARCHAR(255) NOT NULL,
+    mes DATE NOT NULL,
+    banco VARCHAR(100) NOT NULL,
+    categoria VARCHAR(100) NOT NULL,
+    moeda VARCHAR(10) NOT NULL DEFAULT 'BRL',
+    total_valor DECIMAL(17,2) NOT NULL DEFAULT 0,
+    quantidade INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_resumo_mensal (user_id, mes, banco, categoria, moeda)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Comments about indexes:
+-- uk_resumo_mensal: Upsert key and range scans by user/month for the summary endpoint
+
+-- Backfill from existing transactions
+INSERT INTO resumo_mensal (user_id, mes, banco, categoria, moeda, total_valor, quantidade)
+SELECT COALESCE(user_id, 'system'),
+       DATE_FORMAT(data, '%Y-%m-01'),
+       COALESCE(banco, ''),
+       COALESCE(categoria, 'OUTROS'),
+       moeda,
+       SUM(valor),
+       COUNT(*)
+FROM transacoes
+GROUP BY COALESCE(user_id, 'system'), DATE_FORMAT(data, '%Y-%m-01'), COALESCE(banco, ''), COALESCE(categoria, 'OUTROS'), moeda;
@@ -0,0 +1,9 @@
+-- Migration V6: Create replica_heartbeat table
+-- Single-row heartbeat written on the primary and read on the replica to estimate replication lag
+
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    id INT PRIMARY KEY,
+    batida TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO replica_heartbeat (id, batida) VALUES (1, CURRENT_TIMESTAMP(6));
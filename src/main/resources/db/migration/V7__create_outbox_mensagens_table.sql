@@ -0,0 +1,17 @@
+-- Migration V7: Create outbox_mensagens table
+-- Messages to SQS written in the same transaction as the processamento; drained by the outbox relay
+
+CREATE TABLE IF NOT EXISTS outbox_mensagens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    fila VARCHAR(255) NOT NULL,
+    tipo VARCHAR(255) NOT NULL,
+    payload LONGTEXT NOT NULL,
+    processamento_id VARCHAR(255),
+    tentativas INT NOT NULL DEFAULT 0,
+    ultimo_erro VARCHAR(1000),
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    INDEX idx_outbox_tentativas (tentativas, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Comments about indexes:
+-- idx_outbox_tentativas: Relay scan of pending rows in insertion order (SELECT ... FOR UPDATE SKIP LOCKED)
@@ -0,0 +1,11 @@
+-- Migration V8: Split SQS messages into parts
+-- Outbox rows may carry a raw (listener-decoded) body with a content encoding;
+-- processamentos track how many parts were published and how many were consumed
+
+ALTER TABLE outbox_mensagens
+    MODIFY COLUMN tipo VARCHAR(255) NULL,
+    ADD COLUMN codificacao VARCHAR(20) NULL AFTER payload;
+
+ALTER TABLE processamentos
+    ADD COLUMN partes_total INT NOT NULL DEFAULT 1 AFTER progresso,
+    ADD COLUMN partes_concluidas INT NOT NULL DEFAULT 0 AFTER partes_total;
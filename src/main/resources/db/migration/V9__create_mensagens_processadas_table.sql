@@ -0,0 +1,15 @@
+-- Migration V9: Create mensagens_processadas ledger
+-- One row per consumed message part, written in the same transaction as the part's last batch;
+-- redeliveries of a recorded part are acknowledged without reprocessing. Old rows are purged by TTL.
+
+CREATE TABLE IF NOT EXISTS mensagens_processadas (
+    processamento_id VARCHAR(255) NOT NULL,
+    sequencia INT NOT NULL,
+    processado_em TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (processamento_id, sequencia),
+    INDEX idx_mensagens_processadas_data (processado_em)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Comments about indexes:
+-- PRIMARY: O(1) redelivery check and INSERT IGNORE fence
+-- idx_mensagens_processadas_data: TTL cleanup
@@ -0,0 +1,216 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.security.UserContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AgendadorJustoIATest {
+
+    private static final long PEQUENO = 100;
+    private static final long GRANDE = 2 * 1024 * 1024;
+
+    private final ThreadLocal<String> usuarioAtual = new ThreadLocal<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+    private final List<String> ordemExecucao = new CopyOnWriteArrayList<>();
+    private AgendadorJustoIA agendador;
+
+    @BeforeEach
+    void criarAgendador() {
+        UserContext userContext = mock(UserContext.class);
+        when(userContext.getCurrentUserId()).thenAnswer(invocacao -> usuarioAtual.get());
+        agendador = new AgendadorJustoIA(userContext, meterRegistry);
+        configurar("maxConcorrenciaPequenos", 1);
+        configurar("maxConcorrenciaGrandes", 1);
+        configurar("limitePequenoBytes", 1024 * 1024L);
+        configurar("envelhecimentoMs", 60_000L);
+        configurar("maxEmVooPorUsuario", 10);
+        configurar("quantumBytes", PEQUENO);
+        configurar("pesosConfigurados", "");
+        configurar("esperaMaximaMs", 60_000L);
+    }
+
+    @AfterEach
+    void encerrar() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void alternaUsuariosPorDeficitRoundRobin() throws Exception {
+        agendador.inicializar();
+        CountDownLatch bloqueio = new CountDownLatch(1);
+        Future<?> ocupante = enviar("ocupante", PEQUENO, bloqueio);
+        aguardarEmExecucao("pequenos", 1);
+
+        List<Future<?>> envios = new ArrayList<>();
+        for (String usuario : List.of("a", "a", "a", "b")) {
+            envios.add(enviar(usuario, PEQUENO, null));
+            aguardarFila("pequenos", envios.size());
+        }
+        bloqueio.countDown();
+        ocupante.get(5, TimeUnit.SECONDS);
+        for (Future<?> envio : envios) {
+            envio.get(5, TimeUnit.SECONDS);
+        }
+
+        // Um quantum por rodada cobre um documento: b é atendido logo após o primeiro de a
+        assertThat(ordemExecucao).containsExactly("ocupante", "a", "b", "a", "a");
+    }
+
+    @Test
+    void respeitaLimiteDeDocumentosEmProcessamentoPorUsuario() throws Exception {
+        configurar("maxConcorrenciaPequenos", 2);
+        configurar("maxEmVooPorUsuario", 1);
+        agendador.inicializar();
+        CountDownLatch bloqueioA = new CountDownLatch(1);
+        CountDownLatch bloqueioB = new CountDownLatch(1);
+
+        Future<?> primeiroA = enviar("a", PEQUENO, bloqueioA);
+        aguardarEmExecucao("pequenos", 1);
+        Future<?> segundoA = enviar("a", PEQUENO, null);
+        aguardarFila("pequenos", 1);
+        Future<?> primeiroB = enviar("b", PEQUENO, bloqueioB);
+        aguardarEmExecucao("pequenos", 2);
+
+        // A vaga livre foi para b; o segundo de a espera o primeiro terminar
+        aguardarExecucoes(2);
+        assertThat(ordemExecucao).containsExactlyInAnyOrder("a", "b");
+        assertThat(valor("ai.agendador.aguardando", "pequenos")).isEqualTo(1);
+
+        bloqueioA.countDown();
+        primeiroA.get(5, TimeUnit.SECONDS);
+        segundoA.get(5, TimeUnit.SECONDS);
+        bloqueioB.countDown();
+        primeiroB.get(5, TimeUnit.SECONDS);
+        assertThat(ordemExecucao).hasSize(3).endsWith("a");
+    }
+
+    @Test
+    void grandeEnvelhecidoUsaVagaDePequenosMesmoForaDaVezNoDrr() throws Exception {
+        configurar("envelhecimentoMs", 1000L);
+        configurar("quantumBytes", 100 * GRANDE);
+        agendador.inicializar();
+        CountDownLatch bloqueioOcupante = new CountDownLatch(1);
+        CountDownLatch bloqueioA = new CountDownLatch(1);
+        Future<?> ocupante = enviar("ocupante", GRANDE, bloqueioOcupante);
+        aguardarEmExecucao("grandes", 1);
+
+        // a fica à frente na rodada do DRR, com crédito; o documento da frente de a é mais novo que o de b
+        long inicio = System.nanoTime();
+        Future<?> primeiroA = enviar("a", GRANDE, bloqueioA);
+        aguardarFila("grandes", 1);
+        dormirAte(inicio, 300);
+        Future<?> antigoB = enviar("b", GRANDE, null);
+        aguardarFila("grandes", 2);
+        dormirAte(inicio, 600);
+        Future<?> recenteA = enviar("a", GRANDE, null);
+        aguardarFila("grandes", 3);
+
+        // O primeiro de a envelhece e ocupa a vaga dos pequenos até depois de o de b envelhecer
+        aguardarExecucoes(2);
+        dormirAte(inicio, 1450);
+        bloqueioA.countDown();
+        primeiroA.get(5, TimeUnit.SECONDS);
+        antigoB.get(5, TimeUnit.SECONDS);
+        recenteA.get(5, TimeUnit.SECONDS);
+
+        // O de b sai antes do segundo de a, embora o DRR escolhesse a
+        assertThat(ordemExecucao).containsExactly("ocupante", "a", "b", "a");
+        bloqueioOcupante.countDown();
+        ocupante.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void cancelaAposEsperaMaximaEDevolveALugarNaFila() throws Exception {
+        configurar("esperaMaximaMs", 200L);
+        agendador.inicializar();
+        CountDownLatch bloqueio = new CountDownLatch(1);
+        Future<?> ocupante = enviar("ocupante", PEQUENO, bloqueio);
+        aguardarEmExecucao("pequenos", 1);
+
+        Future<?> expirado = enviar("a", PEQUENO, null);
+        assertThatThrownBy(() -> expirado.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(AgendadorJustoIA.EsperaExcedidaException.class);
+        assertThat(valor("ai.agendador.aguardando", "pequenos")).isZero();
+
+        bloqueio.countDown();
+        ocupante.get(5, TimeUnit.SECONDS);
+        enviar("a", PEQUENO, null).get(5, TimeUnit.SECONDS);
+        assertThat(ordemExecucao).containsExactly("ocupante", "a");
+        assertThat(valor("ai.agendador.em-execucao", "pequenos")).isZero();
+    }
+
+    private Future<?> enviar(String usuario, long custo, CountDownLatch bloqueio) {
+        return threads.submit(() -> {
+            usuarioAtual.set(usuario);
+            return agendador.executar(custo, () -> {
+                ordemExecucao.add(usuario);
+                if (bloqueio != null) {
+                    try {
+                        bloqueio.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return usuario;
+            });
+        });
+    }
+
+    private void aguardarFila(String raia, int aguardando) throws InterruptedException {
+        aguardar("ai.agendador.aguardando", raia, aguardando);
+    }
+
+    private void aguardarEmExecucao(String raia, int emExecucao) throws InterruptedException {
+        aguardar("ai.agendador.em-execucao", raia, emExecucao);
+    }
+
+    private void dormirAte(long inicio, long milissegundos) throws InterruptedException {
+        long restante = inicio + TimeUnit.MILLISECONDS.toNanos(milissegundos) - System.nanoTime();
+        if (restante > 0) {
+            TimeUnit.NANOSECONDS.sleep(restante);
+        }
+    }
+
+    private void aguardarExecucoes(int quantidade) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ordemExecucao.size() < quantidade && System.nanoTime() - limite < 0) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void aguardar(String metrica, String raia, int esperado) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (valor(metrica, raia) != esperado) {
+            if (System.nanoTime() - limite > 0) {
+                throw new AssertionError(metrica + " da raia " + raia + " não chegou a " + esperado);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private double valor(String metrica, String raia) {
+        return meterRegistry.get(metrica).tag("raia", raia).gauge().value();
+    }
+
+    private void configurar(String campo, Object valor) {
+        ReflectionTestUtils.setField(agendador, campo, valor);
+    }
+}
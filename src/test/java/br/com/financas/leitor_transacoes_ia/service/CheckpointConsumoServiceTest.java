@@ -0,0 +1,130 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import br.com.financas.leitor_transacoes_ia.model.entity.CheckpointConsumo;
+import br.com.financas.leitor_transacoes_ia.model.entity.MensagemProcessada;
+import br.com.financas.leitor_transacoes_ia.repository.CheckpointConsumoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CheckpointConsumoServiceTest {
+
+    private static final String PROCESSAMENTO = "proc-1";
+
+    private final CheckpointConsumoRepository repository = mock(CheckpointConsumoRepository.class);
+    private final CheckpointConsumoService service = new CheckpointConsumoService(repository);
+    private final TransacoesEmMemoria transactionManager = new TransacoesEmMemoria();
+    private final TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+    private CheckpointConsumoService.Checkpoint checkpoint;
+
+    @BeforeEach
+    void carregarCheckpoint() {
+        when(repository.findById(new MensagemProcessada.Chave(PROCESSAMENTO, 1))).thenReturn(Optional.of(
+                CheckpointConsumo.builder()
+                        .chave(new MensagemProcessada.Chave(PROCESSAMENTO, 1))
+                        .proximoIndice(0)
+                        .transacoesSalvas(0)
+                        .duplicatasIgnoradas(0)
+                        .erros(0)
+                        .build()));
+        when(repository.avancar(eq(PROCESSAMENTO), eq(1), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), any()))
+                .thenReturn(1);
+        checkpoint = service.carregar(PROCESSAMENTO, 1);
+    }
+
+    @Test
+    void loteQueFalhaDepoisDoAvancoMantemOIndiceParaOFallback() {
+        // Como no salvarLote: o progresso falha depois do avanço e a transação do lote é desfeita
+        assertThatThrownBy(() -> transacao.executeWithoutResult(status -> {
+            service.avancar(checkpoint, 50, 50, 0, 0);
+            throw new CannotAcquireLockException("Lock wait timeout exceeded");
+        })).isInstanceOf(CannotAcquireLockException.class);
+
+        assertThat(checkpoint.getProximoIndice()).isZero();
+        assertThat(checkpoint.getTransacoesSalvas()).isZero();
+
+        // O fallback item a item avança a partir do mesmo índice esperado
+        transacao.executeWithoutResult(status -> service.avancarIsolado(checkpoint, 50, 48, 0, 2));
+
+        verify(repository, times(2)).avancar(eq(PROCESSAMENTO), eq(1), eq(0), eq(50), anyInt(), anyInt(), anyInt(), any());
+        assertThat(checkpoint.getProximoIndice()).isEqualTo(50);
+        assertThat(checkpoint.getTransacoesSalvas()).isEqualTo(48);
+        assertThat(checkpoint.getErros()).isEqualTo(2);
+    }
+
+    @Test
+    void commitQueFalhaNaoAvancaOCheckpointEmMemoria() {
+        transactionManager.falharCommit = true;
+
+        assertThatThrownBy(() -> transacao.executeWithoutResult(status -> service.avancar(checkpoint, 50, 50, 0, 0)))
+                .isInstanceOf(TransactionSystemException.class);
+
+        assertThat(checkpoint.getProximoIndice()).isZero();
+    }
+
+    @Test
+    void avancosConfirmadosEncadeiamOIndiceEsperado() {
+        transacao.executeWithoutResult(status -> service.avancar(checkpoint, 50, 50, 0, 0));
+        transacao.executeWithoutResult(status -> service.avancar(checkpoint, 100, 100, 0, 0));
+
+        verify(repository).avancar(eq(PROCESSAMENTO), eq(1), eq(0), eq(50), anyInt(), anyInt(), anyInt(), any());
+        verify(repository).avancar(eq(PROCESSAMENTO), eq(1), eq(50), eq(100), anyInt(), anyInt(), anyInt(), any());
+        assertThat(checkpoint.getProximoIndice()).isEqualTo(100);
+    }
+
+    @Test
+    void avancoConcorrenteAbortaSemAlterarOCheckpoint() {
+        when(repository.avancar(eq(PROCESSAMENTO), eq(1), eq(0), eq(50), anyInt(), anyInt(), anyInt(), any()))
+                .thenReturn(0);
+
+        assertThatThrownBy(() -> transacao.executeWithoutResult(status -> service.avancar(checkpoint, 50, 50, 0, 0)))
+                .isInstanceOf(CheckpointConsumoService.CheckpointConcorrenteException.class);
+
+        assertThat(checkpoint.getProximoIndice()).isZero();
+    }
+
+    /**
+     * Gerenciador sem recurso real: só dispara as sincronizações de commit/rollback
+     */
+    private static class TransacoesEmMemoria extends AbstractPlatformTransactionManager {
+
+        private boolean falharCommit;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            if (falharCommit) {
+                throw new TransactionSystemException("Falha no commit");
+            }
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ControleAdmissaoMemoriaTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ControleAdmissaoMemoria controle;
+
+    @BeforeEach
+    void criar() {
+        controle = new ControleAdmissaoMemoria(100 * MB, 0.5, meterRegistry);
+        ReflectionTestUtils.setField(controle, "fatorPdf", 8.0);
+        ReflectionTestUtils.setField(controle, "fatorCsv", 6.0);
+        ReflectionTestUtils.setField(controle, "bytesFixos", 2 * MB);
+        ReflectionTestUtils.setField(controle, "esperaMaximaMs", 50L);
+        ReflectionTestUtils.setField(controle, "retryAfterSegundos", 10L);
+    }
+
+    @Test
+    void requisicoesNaFilaDaIaReservamSoOArquivo() {
+        // 10 uploads de 5 MB esperando a vez: a estimativa completa (42 MB cada) não caberia nem em 3
+        for (int i = 0; i < 10; i++) {
+            controle.reservarArquivo(5 * MB);
+        }
+
+        assertThat(emUso()).isEqualTo(50 * MB);
+    }
+
+    @Test
+    void completarAmpliaParaAEstimativaEFecharDevolveTudo() {
+        try (ControleAdmissaoMemoria.Reserva reserva = controle.reservarArquivo(5 * MB)) {
+            reserva.completar("application/pdf");
+            assertThat(emUso()).isEqualTo(42 * MB);
+        }
+
+        assertThat(emUso()).isZero();
+    }
+
+    @Test
+    void completarSemOrcamentoRecusaEMantemSoOArquivo() {
+        controle.reservarArquivo(60 * MB);
+        ControleAdmissaoMemoria.Reserva reserva = controle.reservarArquivo(5 * MB);
+
+        assertThatThrownBy(() -> reserva.completar("application/pdf"))
+                .isInstanceOf(ControleAdmissaoMemoria.MemoriaEsgotadaException.class);
+        assertThat(emUso()).isEqualTo(65 * MB);
+
+        reserva.close();
+        assertThat(emUso()).isEqualTo(60 * MB);
+    }
+
+    private double emUso() {
+        return meterRegistry.get("admissao.memoria.bytes-em-uso").gauge().value();
+    }
+}
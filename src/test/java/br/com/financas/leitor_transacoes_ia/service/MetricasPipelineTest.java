@@ -0,0 +1,66 @@
+package br.com.financas.leitor_transacoes_ia.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MetricasPipelineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MetricasPipeline metricasPipeline;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void criar() {
+        ObjectProvider<Tracer> tracer = mock(ObjectProvider.class);
+        when(tracer.getIfAvailable(any())).thenReturn(Tracer.NOOP);
+        metricasPipeline = new MetricasPipeline(meterRegistry, tracer);
+        ReflectionTestUtils.setField(metricasPipeline, "provider", "gemini");
+        ReflectionTestUtils.setField(metricasPipeline, "modelo", "padrao");
+        ReflectionTestUtils.setField(metricasPipeline, "sloMs", new long[]{100, 1000});
+        ReflectionTestUtils.setField(metricasPipeline, "bancosConfigurados", List.of("NUBANK", "Itaú", "BANCO DO BRASIL"));
+        metricasPipeline.carregarBancos();
+    }
+
+    @Test
+    void valoresForaDasListasNaoCriamSeriesNovas() {
+        for (int i = 0; i < 100; i++) {
+            metricasPipeline.registrar(MetricasPipeline.Etapa.VALIDACAO, "banco-" + i, "tipo-" + i, System.nanoTime(), false);
+        }
+
+        assertThat(meterRegistry.find("pipeline.etapa").timers()).hasSize(1);
+        assertThat(tags("banco")).containsExactly("outro");
+        assertThat(tags("tipo_documento")).containsExactly("outro");
+    }
+
+    @Test
+    void variacoesDeEscritaDeValoresConhecidosCaemNaMesmaSerie() {
+        metricasPipeline.registrar(MetricasPipeline.Etapa.EXTRACAO, " itau ", "extrato", System.nanoTime(), true);
+        metricasPipeline.registrar(MetricasPipeline.Etapa.EXTRACAO, "Itaú", "EXTRATO", System.nanoTime(), true);
+        metricasPipeline.registrar(MetricasPipeline.Etapa.EXTRACAO, "banco  do brasil", "fatura_cartao", System.nanoTime(), true);
+        metricasPipeline.registrar(MetricasPipeline.Etapa.EXTRACAO, null, " ", System.nanoTime(), true);
+
+        assertThat(tags("banco")).containsExactlyInAnyOrder("ITAU", "BANCO DO BRASIL", "desconhecido");
+        assertThat(tags("tipo_documento")).containsExactlyInAnyOrder("EXTRATO", "FATURA_CARTAO", "desconhecido");
+        assertThat(meterRegistry.get("pipeline.etapa").tag("banco", "ITAU").timer().count()).isEqualTo(2);
+    }
+
+    private Set<String> tags(String chave) {
+        return meterRegistry.find("pipeline.etapa").timers().stream()
+                .map((Timer timer) -> timer.getId().getTag(chave))
+                .collect(Collectors.toSet());
+    }
+}